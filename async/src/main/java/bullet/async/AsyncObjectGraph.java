@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2014 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bullet.async;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import bullet.ObjectGraph;
+
+/**
+ * Gets objects from an {@link ObjectGraph} without blocking the caller, e.g. an event-loop thread: the first
+ * {@code get()} of a scoped binding can block for as long as the binding takes to create, and concurrent callers wait
+ * for it.
+ * <p>
+ * Objects are provided by an executor, unless the binding looks initialized: once two provisions of a type returned the
+ * same instance, as scoped bindings do, later calls get the object from the graph on the calling thread, which doesn't
+ * block for an initialized scoped binding, and return it as a completed future without switching threads.
+ * <p>
+ * Telling scoped bindings apart thus costs a warm-up: the first two calls for each type are provided by the executor,
+ * each with a thread hop, and only later calls for scoped bindings complete immediately. Unscoped bindings always use
+ * the executor, except for those that happened to return the same instance twice: the call that gets another instance
+ * runs on the calling thread, and only later calls use the executor again. Only the instances of the bindings that
+ * look initialized are kept, as their component does; the first instance of each type is only weakly referenced until
+ * the second call.
+ */
+public final class AsyncObjectGraph {
+  private static final WeakReference<Object> UNSCOPED = new WeakReference<>(null);
+
+  private final ObjectGraph graph;
+  private final Executor executor;
+  /**
+   * The first instance provided for each type, weakly referenced so that unscoped instances can be collected, or
+   * {@link #UNSCOPED} once another instance was provided.
+   */
+  private final ConcurrentMap<Class<?>, WeakReference<Object>> firstInstances = new ConcurrentHashMap<>();
+  /** The instances of the bindings that look initialized, i.e. that returned the same instance twice. */
+  private final ConcurrentMap<Class<?>, Object> initializedInstances = new ConcurrentHashMap<>();
+
+  private AsyncObjectGraph(ObjectGraph graph, Executor executor) {
+    this.graph = graph;
+    this.executor = executor;
+  }
+
+  /**
+   * Wraps the object graph, providing objects with the {@linkplain #defaultExecutor() default executor}.
+   */
+  public static AsyncObjectGraph of(ObjectGraph graph) {
+    return of(graph, defaultExecutor());
+  }
+
+  /**
+   * Wraps the object graph, providing objects with the given executor.
+   */
+  public static AsyncObjectGraph of(ObjectGraph graph, Executor executor) {
+    if (graph == null || executor == null) {
+      throw new NullPointerException();
+    }
+    return new AsyncObjectGraph(graph, executor);
+  }
+
+  /**
+   * Returns an executor starting a virtual thread for each provision where available (Java 21 and later), and the
+   * {@linkplain ForkJoinPool#commonPool() common pool} otherwise.
+   */
+  public static Executor defaultExecutor() {
+    return DefaultExecutor.INSTANCE;
+  }
+
+  public ObjectGraph graph() {
+    return graph;
+  }
+
+  /**
+   * Returns an instance of the type, as {@link ObjectGraph#get(Class)} does. The future completes exceptionally with
+   * the exception thrown by the object graph, e.g. an {@link IllegalArgumentException} if there's no binding for the
+   * type.
+   */
+  public <T> CompletableFuture<T> getAsync(Class<T> type) {
+    return getAsync(type, executor);
+  }
+
+  /**
+   * Returns an instance of the type, as {@link ObjectGraph#get(Class)} does, providing it with the given executor
+   * unless the binding looks initialized.
+   */
+  public <T> CompletableFuture<T> getAsync(final Class<T> type, Executor executor) {
+    Object instance = initializedInstances.get(type);
+    if (instance != null) {
+      // Returning the same instance twice doesn't make a binding scoped, so the graph still has the last word.
+      T provided;
+      try {
+        provided = graph.get(type);
+      } catch (RuntimeException e) {
+        CompletableFuture<T> failed = new CompletableFuture<>();
+        failed.completeExceptionally(e);
+        return failed;
+      }
+      if (provided != instance) {
+        firstInstances.put(type, UNSCOPED);
+        initializedInstances.remove(type, instance);
+      }
+      return CompletableFuture.completedFuture(provided);
+    }
+    return CompletableFuture.supplyAsync(() -> {
+      T provided = graph.get(type);
+      record(type, provided);
+      return provided;
+    }, executor);
+  }
+
+  /**
+   * Returns whether the binding for the type looks initialized, i.e. whether {@link #getAsync(Class)} gets the object
+   * on the calling thread and returns a completed future.
+   */
+  public boolean isInitialized(Class<?> type) {
+    return initializedInstances.containsKey(type);
+  }
+
+  private void record(Class<?> type, Object instance) {
+    if (instance == null) {
+      return;
+    }
+    WeakReference<Object> first = firstInstances.putIfAbsent(type, new WeakReference<>(instance));
+    if (first == null || first == UNSCOPED) {
+      return;
+    }
+    // A collected first instance wasn't kept by the component either: the binding is unscoped.
+    if (first.get() == instance) {
+      initializedInstances.putIfAbsent(type, instance);
+      firstInstances.remove(type, first);
+    } else {
+      firstInstances.replace(type, first, UNSCOPED);
+    }
+  }
+
+  private static final class DefaultExecutor {
+    static final Executor INSTANCE = create();
+
+    private static Executor create() {
+      try {
+        return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        return ForkJoinPool.commonPool();
+      }
+    }
+  }
+}
@@ -0,0 +1,156 @@
+package test;
+
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import bullet.ObjectGraph;
+import bullet.async.AsyncObjectGraph;
+
+import static org.junit.Assert.*;
+
+public class AsyncObjectGraphTest {
+  private final Object singleton = new Object();
+  private final StringBuilder recycled = new StringBuilder();
+  private final AtomicInteger recycledGets = new AtomicInteger();
+  private final AtomicInteger gets = new AtomicInteger();
+  private final ObjectGraph graph = (ObjectGraph) Proxy.newProxyInstance(getClass().getClassLoader(),
+      new Class<?>[] { ObjectGraph.class },
+      (proxy, method, args) -> {
+        if (!method.getName().equals("get") || args.length != 1) {
+          throw new UnsupportedOperationException(method.toString());
+        }
+        gets.incrementAndGet();
+        if (args[0] == Object.class) {
+          return singleton;
+        }
+        if (args[0] == StringBuilder.class) {
+          return new StringBuilder();
+        }
+        if (args[0] == CharSequence.class) {
+          // Unscoped, but returns the same instance twice before creating new ones.
+          return recycledGets.incrementAndGet() <= 2 ? recycled : new StringBuilder();
+        }
+        throw new IllegalArgumentException("No 'get', 'Provider', or 'Lazy' method found for " + args[0]);
+      });
+  private final RecordingExecutor executor = new RecordingExecutor();
+
+  @Test public void providesWithExecutor() throws Exception {
+    AsyncObjectGraph asyncGraph = AsyncObjectGraph.of(graph, executor);
+
+    CompletableFuture<Object> future = asyncGraph.getAsync(Object.class);
+
+    assertFalse(future.isDone());
+    executor.runAll();
+    assertSame(singleton, future.get());
+  }
+
+  @Test public void scopedBindingsCompleteImmediatelyOnceInitialized() throws Exception {
+    AsyncObjectGraph asyncGraph = AsyncObjectGraph.of(graph, executor);
+    for (int i = 0; i < 2; i++) {
+      asyncGraph.getAsync(Object.class);
+      executor.runAll();
+    }
+    assertTrue(asyncGraph.isInitialized(Object.class));
+
+    CompletableFuture<Object> future = asyncGraph.getAsync(Object.class);
+
+    assertTrue(future.isDone());
+    assertSame(singleton, future.get());
+    assertEquals(0, executor.tasks.size());
+    assertEquals(3, gets.get());
+  }
+
+  @Test public void unscopedBindingsReturningTheSameInstanceTwiceUseExecutorAgain() throws Exception {
+    AsyncObjectGraph asyncGraph = AsyncObjectGraph.of(graph, executor);
+    for (int i = 0; i < 2; i++) {
+      asyncGraph.getAsync(CharSequence.class);
+      executor.runAll();
+    }
+    assertTrue(asyncGraph.isInitialized(CharSequence.class));
+
+    CompletableFuture<CharSequence> future = asyncGraph.getAsync(CharSequence.class);
+
+    assertTrue(future.isDone());
+    assertNotSame(recycled, future.get());
+    assertFalse(asyncGraph.isInitialized(CharSequence.class));
+
+    future = asyncGraph.getAsync(CharSequence.class);
+
+    assertFalse(future.isDone());
+    executor.runAll();
+    assertNotSame(recycled, future.get());
+    assertFalse(asyncGraph.isInitialized(CharSequence.class));
+  }
+
+  @Test public void unscopedBindingsAlwaysUseExecutor() throws Exception {
+    AsyncObjectGraph asyncGraph = AsyncObjectGraph.of(graph, executor);
+    for (int i = 0; i < 3; i++) {
+      CompletableFuture<StringBuilder> future = asyncGraph.getAsync(StringBuilder.class);
+      assertFalse(future.isDone());
+      executor.runAll();
+      assertNotNull(future.get());
+    }
+    assertFalse(asyncGraph.isInitialized(StringBuilder.class));
+    assertEquals(3, gets.get());
+  }
+
+  @Test public void doesNotRetainProvidedInstances() throws Exception {
+    AsyncObjectGraph asyncGraph = AsyncObjectGraph.of(graph, executor);
+    CompletableFuture<StringBuilder> future = asyncGraph.getAsync(StringBuilder.class);
+    executor.runAll();
+    WeakReference<StringBuilder> provided = new WeakReference<>(future.get());
+    future = null;
+
+    for (int i = 0; provided.get() != null && i < 100; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+
+    assertNull(provided.get());
+    assertFalse(asyncGraph.isInitialized(StringBuilder.class));
+  }
+
+  @Test public void missCompletesExceptionally() throws Exception {
+    AsyncObjectGraph asyncGraph = AsyncObjectGraph.of(graph, executor);
+
+    CompletableFuture<String> future = asyncGraph.getAsync(String.class);
+    executor.runAll();
+
+    try {
+      future.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+  }
+
+  @Test public void defaultExecutor() throws Exception {
+    AsyncObjectGraph asyncGraph = AsyncObjectGraph.of(graph);
+
+    assertSame(singleton, asyncGraph.getAsync(Object.class).get());
+    assertSame(graph, asyncGraph.graph());
+  }
+
+  private static class RecordingExecutor implements Executor {
+    final List<Runnable> tasks = new ArrayList<>();
+
+    @Override
+    public void execute(Runnable command) {
+      tasks.add(command);
+    }
+
+    void runAll() {
+      while (!tasks.isEmpty()) {
+        tasks.remove(0).run();
+      }
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package bullet.benchmarks.generator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.FileOutputStream;
+
+/**
+ * Generates the sources of the synthetic components used by the benchmarks.
+ * <p>
+ * Everything is derived from the constants below, so that every build benchmarks the same components.
+ */
+public class SyntheticComponentsGenerator {
+  private static final String PACKAGE = "bullet.benchmarks.synthetic";
+  /** Number of provision methods of each sized component. */
+  static final int[] SIZES = { 10, 100, 500, 2000 };
+  /** Number of subclasses below the base class of the hierarchy. */
+  static final int MAX_DEPTH = 8;
+
+  public static void main(String[] args) throws IOException {
+    File dir = new File(args[0], PACKAGE.replace('.', File.separatorChar));
+    if (!dir.isDirectory() && !dir.mkdirs()) {
+      throw new IOException("Cannot create " + dir);
+    }
+    for (int size : SIZES) {
+      try (PrintWriter out = open(dir, "Size" + size)) {
+        writeSizedComponent(out, size);
+      }
+    }
+    try (PrintWriter out = open(dir, "Hierarchy")) {
+      writeHierarchy(out);
+    }
+    try (PrintWriter out = open(dir, "SyntheticComponents")) {
+      writeFactory(out);
+    }
+  }
+
+  private static PrintWriter open(File dir, String className) throws IOException {
+    return new PrintWriter(new OutputStreamWriter(new FileOutputStream(new File(dir, className + ".java")), "UTF-8"));
+  }
+
+  private static void writeSizedComponent(PrintWriter out, int size) {
+    String name = "Size" + size;
+    out.println("package " + PACKAGE + ";");
+    out.println();
+    out.println("import bullet.ObjectGraph;");
+    out.println("import bullet.benchmarks.SyntheticComponent;");
+    out.println("import javax.inject.Inject;");
+    out.println();
+    out.println("public final class " + name + " implements SyntheticComponent {");
+    for (int i = 0; i < size; i++) {
+      out.println("  public static final class T" + i + " { @Inject T" + i + "() {} }");
+    }
+    out.println();
+    out.println("  @dagger.Component");
+    out.println("  public interface Component {");
+    for (int i = 0; i < size; i++) {
+      out.println("    T" + i + " t" + i + "();");
+    }
+    out.println("  }");
+    out.println();
+    out.println("  private final Component component = Dagger" + name + "_Component.create();");
+    out.println("  private final ObjectGraph graph = new Bullet" + name + "_Component(component);");
+    out.println();
+    out.println("  @Override public ObjectGraph graph() { return graph; }");
+    out.println();
+    out.println("  @Override public Class<?>[] types() {");
+    out.println("    return new Class<?>[] {");
+    for (int i = 0; i < size; i++) {
+      out.println("      T" + i + ".class,");
+    }
+    out.println("    };");
+    out.println("  }");
+    out.println();
+    out.println("  @Override public Object provide(int index) {");
+    out.println("    switch (index) {");
+    for (int i = 0; i < size; i++) {
+      out.println("      case " + i + ": return component.t" + i + "();");
+    }
+    out.println("      default: throw new IndexOutOfBoundsException(String.valueOf(index));");
+    out.println("    }");
+    out.println("  }");
+    out.println("}");
+  }
+
+  private static void writeHierarchy(PrintWriter out) {
+    out.println("package " + PACKAGE + ";");
+    out.println();
+    out.println("import bullet.ObjectGraph;");
+    out.println("import bullet.benchmarks.SyntheticHierarchy;");
+    out.println("import javax.inject.Inject;");
+    out.println();
+    out.println("public final class Hierarchy implements SyntheticHierarchy {");
+    out.println("  public static final class Dependency { @Inject Dependency() {} }");
+    out.println("  public static class Depth0 { @Inject Dependency dependency; }");
+    for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+      out.println("  public static class Depth" + depth + " extends Depth" + (depth - 1) + " {}");
+    }
+    out.println();
+    out.println("  @dagger.Component");
+    out.println("  public interface Component {");
+    out.println("    void inject(Depth0 instance);");
+    out.println("  }");
+    out.println();
+    out.println("  private final Component component = DaggerHierarchy_Component.create();");
+    out.println("  private final ObjectGraph graph = new BulletHierarchy_Component(component);");
+    out.println();
+    out.println("  @Override public ObjectGraph graph() { return graph; }");
+    out.println();
+    out.println("  @Override public Object newInstance(int depth) {");
+    out.println("    switch (depth) {");
+    for (int depth = 0; depth <= MAX_DEPTH; depth++) {
+      out.println("      case " + depth + ": return new Depth" + depth + "();");
+    }
+    out.println("      default: throw new IndexOutOfBoundsException(String.valueOf(depth));");
+    out.println("    }");
+    out.println("  }");
+    out.println();
+    out.println("  @Override public void inject(Object instance) { component.inject((Depth0) instance); }");
+    out.println("}");
+  }
+
+  private static void writeFactory(PrintWriter out) {
+    out.println("package " + PACKAGE + ";");
+    out.println();
+    out.println("import bullet.benchmarks.SyntheticComponent;");
+    out.println("import bullet.benchmarks.SyntheticHierarchy;");
+    out.println();
+    out.println("public final class SyntheticComponents {");
+    out.println("  private SyntheticComponents() {}");
+    out.println();
+    out.println("  public static SyntheticComponent withSize(int size) {");
+    out.println("    switch (size) {");
+    for (int size : SIZES) {
+      out.println("      case " + size + ": return new Size" + size + "();");
+    }
+    out.println("      default: throw new IllegalArgumentException(\"No synthetic component with \" + size + \" provisions\");");
+    out.println("    }");
+    out.println("  }");
+    out.println();
+    out.println("  public static SyntheticHierarchy hierarchy() {");
+    out.println("    return new Hierarchy();");
+    out.println("  }");
+    out.println("}");
+  }
+}
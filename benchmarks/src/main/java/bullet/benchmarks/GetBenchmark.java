@@ -0,0 +1,83 @@
+package bullet.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bullet.ObjectGraph;
+import bullet.benchmarks.synthetic.SyntheticComponents;
+
+/**
+ * Measures {@link ObjectGraph#get(Class)} against direct calls to the provision methods of the Dagger component, for
+ * components of increasing sizes.
+ * <p>
+ * The {@code first} and {@code last} benchmarks always ask for the same type, the {@code rotating} ones cycle through
+ * all the provided types so that the lookup isn't trivially predicted.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GetBenchmark {
+  @Param({ "10", "100", "500", "2000" })
+  int size;
+
+  SyntheticComponent component;
+  ObjectGraph graph;
+  Class<?>[] types;
+  Class<?> firstType;
+  Class<?> lastType;
+  int next;
+
+  @Setup
+  public void setUp() {
+    component = SyntheticComponents.withSize(size);
+    graph = component.graph();
+    types = component.types();
+    firstType = types[0];
+    lastType = types[types.length - 1];
+  }
+
+  @Benchmark
+  public Object getFirst() {
+    return graph.get(firstType);
+  }
+
+  @Benchmark
+  public Object getLast() {
+    return graph.get(lastType);
+  }
+
+  @Benchmark
+  public Object getRotating() {
+    return graph.get(types[nextIndex()]);
+  }
+
+  @Benchmark
+  public Object directFirst() {
+    return component.provide(0);
+  }
+
+  @Benchmark
+  public Object directRotating() {
+    return component.provide(nextIndex());
+  }
+
+  private int nextIndex() {
+    int index = next;
+    next = index + 1 == types.length ? 0 : index + 1;
+    return index;
+  }
+}
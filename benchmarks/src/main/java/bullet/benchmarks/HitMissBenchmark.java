@@ -0,0 +1,81 @@
+package bullet.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bullet.ObjectGraph;
+import bullet.benchmarks.synthetic.SyntheticComponents;
+
+/**
+ * Measures {@link ObjectGraph#get(Class)} when a share of the lookups ask for types the component doesn't provide.
+ * <p>
+ * Misses throw an {@link IllegalArgumentException} from {@code get()}, while {@link ObjectGraph#tryGet(Class)}
+ * returns {@code null}; the mix of requested types is drawn once, with a fixed seed, so that every run replays the
+ * same sequence.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HitMissBenchmark {
+  private static final int SEQUENCE_LENGTH = 1024;
+  private static final Class<?>[] UNKNOWN_TYPES = {
+      String.class, Integer.class, Object.class, Runnable.class, HitMissBenchmark.class,
+  };
+
+  @Param({ "10", "2000" })
+  int size;
+
+  @Param({ "0", "1", "10", "50" })
+  int missPercent;
+
+  ObjectGraph graph;
+  Class<?>[] sequence;
+  int next;
+
+  @Setup
+  public void setUp() {
+    SyntheticComponent component = SyntheticComponents.withSize(size);
+    graph = component.graph();
+    Class<?>[] types = component.types();
+    Random random = new Random(42);
+    sequence = new Class<?>[SEQUENCE_LENGTH];
+    for (int i = 0; i < SEQUENCE_LENGTH; i++) {
+      sequence[i] = random.nextInt(100) < missPercent
+          ? UNKNOWN_TYPES[random.nextInt(UNKNOWN_TYPES.length)]
+          : types[random.nextInt(types.length)];
+    }
+  }
+
+  @Benchmark
+  public Object get() {
+    Class<?> type = sequence[next];
+    next = (next + 1) & (SEQUENCE_LENGTH - 1);
+    try {
+      return graph.get(type);
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object tryGet() {
+    Class<?> type = sequence[next];
+    next = (next + 1) & (SEQUENCE_LENGTH - 1);
+    return graph.tryGet(type);
+  }
+}
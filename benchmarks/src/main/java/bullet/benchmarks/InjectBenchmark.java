@@ -0,0 +1,55 @@
+package bullet.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bullet.ObjectGraph;
+import bullet.benchmarks.synthetic.SyntheticComponents;
+
+/**
+ * Measures {@link ObjectGraph#inject(Object)} against a direct call to the members-injection method of the Dagger
+ * component, for instances whose class is that many subclasses below the type of the method.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InjectBenchmark {
+  @Param({ "0", "1", "4", "8" })
+  int depth;
+
+  SyntheticHierarchy hierarchy;
+  ObjectGraph graph;
+  Object instance;
+
+  @Setup
+  public void setUp() {
+    hierarchy = SyntheticComponents.hierarchy();
+    graph = hierarchy.graph();
+    instance = hierarchy.newInstance(depth);
+  }
+
+  @Benchmark
+  public Object inject() {
+    return graph.inject(instance);
+  }
+
+  @Benchmark
+  public Object direct() {
+    hierarchy.inject(instance);
+    return instance;
+  }
+}
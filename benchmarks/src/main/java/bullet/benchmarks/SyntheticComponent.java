@@ -0,0 +1,23 @@
+package bullet.benchmarks;
+
+import bullet.ObjectGraph;
+
+/**
+ * A generated component with a given number of provision methods, see {@code SyntheticComponents.withSize(int)}.
+ */
+public interface SyntheticComponent {
+  /**
+   * Returns the Bullet object graph wrapping the Dagger component.
+   */
+  ObjectGraph graph();
+
+  /**
+   * Returns the provided types, in the order of the provision methods.
+   */
+  Class<?>[] types();
+
+  /**
+   * Calls the provision method at the given index directly on the Dagger component.
+   */
+  Object provide(int index);
+}
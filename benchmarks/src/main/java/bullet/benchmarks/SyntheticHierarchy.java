@@ -0,0 +1,24 @@
+package bullet.benchmarks;
+
+import bullet.ObjectGraph;
+
+/**
+ * A generated component with a single members-injection method, for the base class of a hierarchy of classes, see
+ * {@code SyntheticComponents.hierarchy()}.
+ */
+public interface SyntheticHierarchy {
+  /**
+   * Returns the Bullet object graph wrapping the Dagger component.
+   */
+  ObjectGraph graph();
+
+  /**
+   * Returns a new instance of the class at the given depth below the base class of the hierarchy.
+   */
+  Object newInstance(int depth);
+
+  /**
+   * Calls the members-injection method directly on the Dagger component.
+   */
+  void inject(Object instance);
+}
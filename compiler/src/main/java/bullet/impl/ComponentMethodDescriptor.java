@@ -5,12 +5,15 @@ import com.google.auto.common.MoreElements;
 import com.google.auto.common.MoreTypes;
 import com.google.auto.value.AutoValue;
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 
 import java.util.List;
 
 import javax.inject.Provider;
 import javax.inject.Qualifier;
-import javax.lang.model.element.Element;
+import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.ExecutableType;
@@ -26,24 +29,33 @@ import dagger.Subcomponent;
 abstract class ComponentMethodDescriptor {
   enum ComponentMethodKind {
     SIMPLE_PROVISION,
-    PROVIDER_OR_LAZY,
+    PROVIDER,
+    LAZY,
     SIMPLE_MEMBERS_INJECTION,
     MEMBERS_INJECTOR,
+    SUBCOMPONENT,
   }
 
   abstract ComponentMethodKind kind();
   abstract TypeMirror type();
   abstract String name();
+  abstract Optional<AnnotationMirror> qualifier();
+  /** The module parameters of subcomponent factory methods, empty for other kinds of methods. */
+  abstract ImmutableList<TypeMirror> parameterTypes();
 
   static Optional<ComponentMethodDescriptor> forComponentMethod(Types types, DeclaredType componentElement, ExecutableElement componentMethod) {
     // Using same algorithm as Dagger's ComponentDescriptor#getDescriptorForComponentMethod
     ExecutableType resolvedComponentMethod = MoreTypes.asExecutable(types.asMemberOf(componentElement, componentMethod));
     TypeMirror returnType = resolvedComponentMethod.getReturnType();
     if (returnType.getKind() == TypeKind.DECLARED) {
-      if (MoreTypes.isTypeOf(Provider.class, returnType)
-          || MoreTypes.isTypeOf(Lazy.class, returnType)) {
+      if (MoreTypes.isTypeOf(Provider.class, returnType)) {
         return methodDescriptor(
-            ComponentMethodKind.PROVIDER_OR_LAZY,
+            ComponentMethodKind.PROVIDER,
+            MoreTypes.asDeclared(returnType).getTypeArguments().get(0),
+            componentMethod);
+      } else if (MoreTypes.isTypeOf(Lazy.class, returnType)) {
+        return methodDescriptor(
+            ComponentMethodKind.LAZY,
             MoreTypes.asDeclared(returnType).getTypeArguments().get(0),
             componentMethod);
       } else if (MoreTypes.isTypeOf(MembersInjector.class, returnType)) {
@@ -52,8 +64,11 @@ abstract class ComponentMethodDescriptor {
             MoreTypes.asDeclared(returnType).getTypeArguments().get(0),
             componentMethod);
       } else if (MoreElements.getAnnotationMirror(types.asElement(returnType), Subcomponent.class).isPresent()) {
-        // Ignore subcomponent methods
-        return Optional.absent();
+        return methodDescriptor(
+            ComponentMethodKind.SUBCOMPONENT,
+            returnType,
+            componentMethod,
+            ImmutableList.copyOf(resolvedComponentMethod.getParameterTypes()));
       }
     }
 
@@ -82,14 +97,18 @@ abstract class ComponentMethodDescriptor {
 
   private static Optional<ComponentMethodDescriptor> methodDescriptor(
       ComponentMethodKind kind, TypeMirror type, ExecutableElement componentMethod) {
-    // ObjectGraph API doesn't allow passing qualifier as input, so ignore those methods.
-    if (hasQualifier(componentMethod)) {
-      return Optional.absent();
-    }
-    return Optional.<ComponentMethodDescriptor>of(new AutoValue_ComponentMethodDescriptor(kind, type, componentMethod.getSimpleName().toString()));
+    return methodDescriptor(kind, type, componentMethod, ImmutableList.<TypeMirror>of());
   }
 
-  static boolean hasQualifier(Element e) {
-    return !AnnotationMirrors.getAnnotatedAnnotations(e, Qualifier.class).isEmpty();
+  private static Optional<ComponentMethodDescriptor> methodDescriptor(
+      ComponentMethodKind kind, TypeMirror type, ExecutableElement componentMethod, ImmutableList<TypeMirror> parameterTypes) {
+    ImmutableSet<? extends AnnotationMirror> qualifiers = AnnotationMirrors.getAnnotatedAnnotations(componentMethod, Qualifier.class);
+    if (qualifiers.size() > 1) {
+      // Let Dagger do the validation
+      return Optional.absent();
+    }
+    return Optional.<ComponentMethodDescriptor>of(new AutoValue_ComponentMethodDescriptor(kind, type,
+        componentMethod.getSimpleName().toString(), Optional.<AnnotationMirror>fromNullable(Iterables.getOnlyElement(qualifiers, null)),
+        parameterTypes));
   }
 }
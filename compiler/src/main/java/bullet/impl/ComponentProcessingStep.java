@@ -15,6 +15,7 @@
  */
 package bullet.impl;
 
+import com.google.auto.common.AnnotationMirrors;
 import com.google.auto.common.BasicAnnotationProcessor;
 import com.google.auto.common.MoreElements;
 import com.google.auto.common.MoreTypes;
@@ -25,38 +26,59 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
 import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 import com.squareup.javapoet.TypeVariableName;
+import com.squareup.javapoet.WildcardTypeName;
 
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
 
 import javax.annotation.Generated;
 import javax.annotation.processing.ProcessingEnvironment;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
 import javax.lang.model.element.PackageElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
 import javax.lang.model.util.ElementFilter;
 import javax.tools.Diagnostic;
 
 import bullet.impl.ComponentMethodDescriptor.ComponentMethodKind;
 import dagger.Component;
+import dagger.Lazy;
+import dagger.MembersInjector;
 import dagger.Subcomponent;
 
 import static javax.lang.model.element.Modifier.FINAL;
@@ -66,19 +88,80 @@ import static javax.lang.model.element.Modifier.STATIC;
 
 class ComponentProcessingStep implements BasicAnnotationProcessor.ProcessingStep {
 
+  /**
+   * Maximum number of provision types for which {@code get()} is generated as cascading ifs; above that threshold,
+   * a {@code PerfectClassIndexHashTable} lookup and a {@code switch} are generated instead.
+   */
+  static final int MAX_PROVISION_IF_CHAIN_SIZE = 8;
+
+  /**
+   * Maximum number of cases of a generated {@code switch}; above that threshold, cases are split into helper methods.
+   * <p>
+   * HotSpot doesn't JIT-compile methods larger than 8000 bytes of bytecode ({@code -XX:+DontCompileHugeMethods}, the
+   * default), and a case takes up to about 75 bytes with metrics and events.
+   */
+  static final int MAX_SWITCH_CASES = 64;
+  private static final int SWITCH_BUCKET_SHIFT = Integer.numberOfTrailingZeros(MAX_SWITCH_CASES);
+
+  private static final ClassName KEY = ClassName.get("bullet", "Key");
+  private static final ClassName DOUBLE_CHECK_LAZY = ClassName.get("bullet.impl", "DoubleCheckLazy");
+  private static final ClassName PERFECT_CLASS_INDEX_HASH_TABLE = ClassName.get("bullet.impl", "PerfectClassIndexHashTable");
+  private static final ClassName PERFECT_CLASS_NAME_INDEX_HASH_TABLE = ClassName.get("bullet.impl", "PerfectClassNameIndexHashTable");
+  private static final ClassName PERFECT_QUALIFIED_INDEX_HASH_TABLE = ClassName.get("bullet.impl", "PerfectQualifiedIndexHashTable");
+  private static final ClassName GRAPH_METRICS = ClassName.get("bullet", "GraphMetrics");
+  private static final ClassName GRAPH_METRICS_RECORDER = ClassName.get("bullet.impl", "GraphMetricsRecorder");
+  private static final ClassName METERED_OBJECT_GRAPH = ClassName.get("bullet.impl", "MeteredObjectGraph");
+  private static final ClassName GRAPH_EVENTS = ClassName.get("bullet.impl", "GraphEvents");
+  private static final ClassName WARM_UP = ClassName.get("bullet", "WarmUp");
+  private static final ClassName GRAPH_WARM_UP = ClassName.get("bullet.impl", "GraphWarmUp");
+
   private final ProcessingEnvironment processingEnv;
+  private final boolean registerSubclasses;
+  private final boolean metrics;
+  private final boolean events;
+  private final boolean deferClassLoading;
+  /** Qualified names of the classes with {@code @Inject} members seen so far, when registering subclasses. */
+  private final Set<String> injectableClassNames = new TreeSet<>();
+  /**
+   * Descriptors of the methods of non-generic types, by declaring type: they resolve the same in all the components
+   * extending those types, so shared supertypes are only analyzed once per round.
+   */
+  private final Map<TypeElement, Map<ExecutableElement, Optional<ComponentMethodDescriptor>>> methodDescriptors = new HashMap<>();
+  /** Effective visibility of the elements seen in this round. */
+  private final Map<Element, Visibility> visibilities = new HashMap<>();
+  /** Records the generated object graphs, when generating a registry; {@code null} otherwise. */
+  private final RegistryGenerator registryGenerator;
 
-  ComponentProcessingStep(ProcessingEnvironment processingEnv) {
+  ComponentProcessingStep(ProcessingEnvironment processingEnv, RegistryGenerator registryGenerator) {
     this.processingEnv = processingEnv;
+    this.registryGenerator = registryGenerator;
+    this.registerSubclasses = Boolean.parseBoolean(processingEnv.getOptions().get(ComponentProcessor.REGISTER_SUBCLASSES_OPTION));
+    this.metrics = Boolean.parseBoolean(processingEnv.getOptions().get(ComponentProcessor.METRICS_OPTION));
+    this.events = Boolean.parseBoolean(processingEnv.getOptions().get(ComponentProcessor.JFR_OPTION));
+    this.deferClassLoading = Boolean.parseBoolean(processingEnv.getOptions().get(ComponentProcessor.DEFER_CLASS_LOADING_OPTION));
   }
 
   @Override
   public Set<? extends Class<? extends Annotation>> annotations() {
+    if (registerSubclasses) {
+      return ImmutableSet.of(Component.class, Subcomponent.class, Inject.class);
+    }
     return ImmutableSet.of(Component.class, Subcomponent.class);
   }
 
   @Override
   public void process(SetMultimap<Class<? extends Annotation>, Element> elementsByAnnotation) {
+    // Elements are only guaranteed to be valid within a round.
+    methodDescriptors.clear();
+    visibilities.clear();
+
+    for (Element element : elementsByAnnotation.get(Inject.class)) {
+      Element enclosingElement = element.getEnclosingElement();
+      if (enclosingElement.getKind() == ElementKind.CLASS) {
+        injectableClassNames.add(MoreElements.asType(enclosingElement).getQualifiedName().toString());
+      }
+    }
+
     Set<Element> componentElements = Sets.union(
         elementsByAnnotation.get(Component.class),
         elementsByAnnotation.get(Subcomponent.class));
@@ -92,7 +175,9 @@ class ComponentProcessingStep implements BasicAnnotationProcessor.ProcessingStep
   private void generateObjectGraph(TypeElement element) {
     DeclaredType component = MoreTypes.asDeclared(element.asType());
     ArrayList<ComponentMethodDescriptor> provisionMethods = new ArrayList<>();
+    ArrayList<ComponentMethodDescriptor> qualifiedProvisionMethods = new ArrayList<>();
     ArrayList<ComponentMethodDescriptor> membersInjectionMethods = new ArrayList<>();
+    ArrayList<ComponentMethodDescriptor> subcomponentMethods = new ArrayList<>();
 
     PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(element);
     TypeElement objectElement = processingEnv.getElementUtils().getTypeElement(Object.class.getCanonicalName());
@@ -103,8 +188,7 @@ class ComponentProcessingStep implements BasicAnnotationProcessor.ProcessingStep
       if (!isVisibleFrom(method, packageElement)) {
         continue;
       }
-      Optional<ComponentMethodDescriptor> optMethodDescriptor =
-          ComponentMethodDescriptor.forComponentMethod(processingEnv.getTypeUtils(), component, method);
+      Optional<ComponentMethodDescriptor> optMethodDescriptor = getMethodDescriptor(component, method);
       if (!optMethodDescriptor.isPresent()) {
         continue;
       }
@@ -114,52 +198,51 @@ class ComponentProcessingStep implements BasicAnnotationProcessor.ProcessingStep
       }
       switch (methodDescriptor.kind()) {
         case SIMPLE_PROVISION:
-        case PROVIDER_OR_LAZY:
-          provisionMethods.add(methodDescriptor);
+        case PROVIDER:
+        case LAZY:
+          if (methodDescriptor.qualifier().isPresent()) {
+            qualifiedProvisionMethods.add(methodDescriptor);
+          } else {
+            provisionMethods.add(methodDescriptor);
+          }
           break;
         case SIMPLE_MEMBERS_INJECTION:
         case MEMBERS_INJECTOR:
-          membersInjectionMethods.add(methodDescriptor);
+          // Qualifiers are meaningless for members injection, let Dagger do the validation
+          if (!methodDescriptor.qualifier().isPresent()) {
+            membersInjectionMethods.add(methodDescriptor);
+          }
+          break;
+        case SUBCOMPONENT:
+          if (areVisibleFrom(methodDescriptor.parameterTypes(), packageElement)) {
+            subcomponentMethods.add(methodDescriptor);
+          }
           break;
         default:
           throw new AssertionError();
       }
     }
 
-    // Order members-injection methods from most-specific to least-specific types, for cascading ifs of instanceof.
-    Collections.sort(membersInjectionMethods, new Comparator<ComponentMethodDescriptor>() {
-      final javax.lang.model.util.Types typeUtils = processingEnv.getTypeUtils();
-
-      @Override
-      public int compare(ComponentMethodDescriptor o1, ComponentMethodDescriptor o2) {
-        TypeMirror t1 = o1.type(), t2 = o2.type();
-        if (typeUtils.isSameType(t1, t2)) {
-          return 0;
-        } else if (typeUtils.isSubtype(t1, t2)) {
-          return -1;
-        } else if (typeUtils.isSubtype(t2, t1)) {
-          return 1;
-        }
-        return getName(t1).compareTo(getName(t2));
-      }
-
-      private String getName(TypeMirror type) {
-        return MoreElements.asType(typeUtils.asElement(type)).getQualifiedName().toString();
-      }
-    });
+    // Order members-injection methods from most-specific to least-specific types: ClassIndexCache picks the smallest
+    // index among all the supertypes (superclasses and interfaces) of the runtime class.
+    Optional<List<ComponentMethodDescriptor>> sortedMembersInjectionMethods = sortMostSpecificFirst(element, membersInjectionMethods);
+    if (!sortedMembersInjectionMethods.isPresent()) {
+      return;
+    }
 
     final ClassName elementName = ClassName.get(element);
 
     // Filter out duplicate injections
     Map<TypeMirror, ComponentMethodDescriptor> membersInjectionMethodsMap = new LinkedHashMap<>(membersInjectionMethods.size());
-    for (ComponentMethodDescriptor componentMethod : membersInjectionMethods) {
+    for (ComponentMethodDescriptor componentMethod : sortedMembersInjectionMethods.get()) {
       ComponentMethodDescriptor storedComponentMethod = membersInjectionMethodsMap.get(componentMethod.type());
       if (storedComponentMethod == null || storedComponentMethod.kind() != ComponentMethodKind.MEMBERS_INJECTOR) {
         membersInjectionMethodsMap.put(componentMethod.type(), componentMethod);
       }
     }
 
-    final TypeSpec.Builder classBuilder = TypeSpec.classBuilder("Bullet" + Joiner.on("_").join(elementName.simpleNames()))
+    final ClassName bulletName = ClassName.get(elementName.packageName(), "Bullet" + Joiner.on("_").join(elementName.simpleNames()));
+    final TypeSpec.Builder classBuilder = TypeSpec.classBuilder(bulletName.simpleName())
         .addOriginatingElement(element)
         .addAnnotation(AnnotationSpec.builder(Generated.class)
             .addMember("value", "$S", ComponentProcessor.class.getCanonicalName())
@@ -173,40 +256,499 @@ class ComponentProcessingStep implements BasicAnnotationProcessor.ProcessingStep
             .addCode("this.component = component;\n")
             .build());
 
-    // Generate the ClassIndexHashTable if there are classes to inject.
+    // Filter out duplicate provisions, the first method for a given type wins (as the cascading ifs used to do)
+    Map<String, ComponentMethodDescriptor> provisionMethodsMap = new LinkedHashMap<>(provisionMethods.size());
+    for (ComponentMethodDescriptor componentMethod : provisionMethods) {
+      String key = processingEnv.getTypeUtils().erasure(componentMethod.type()).toString();
+      if (!provisionMethodsMap.containsKey(key)) {
+        provisionMethodsMap.put(key, componentMethod);
+      }
+    }
+    // Same for parameterized provisions, keyed by the canonical name of their type, as computed by bullet.Key.
+    Map<String, ComponentMethodDescriptor> parameterizedProvisionMethodsMap = new LinkedHashMap<>();
+    for (ComponentMethodDescriptor componentMethod : provisionMethods) {
+      if (componentMethod.type().getKind() != TypeKind.DECLARED
+          || MoreTypes.asDeclared(componentMethod.type()).getTypeArguments().isEmpty()) {
+        continue;
+      }
+      Optional<String> key = getKeyName(componentMethod.type());
+      if (key.isPresent() && !parameterizedProvisionMethodsMap.containsKey(key.get())) {
+        parameterizedProvisionMethodsMap.put(key.get(), componentMethod);
+      }
+    }
+    // Same for qualified provisions, keyed by type and qualifier; qualifiers are either the qualifier annotation type,
+    // or the value of a @Named annotation.
+    Map<String, ComponentMethodDescriptor> qualifiedProvisionMethodsMap = new LinkedHashMap<>(qualifiedProvisionMethods.size());
+    List<Object> qualifiers = new ArrayList<>(qualifiedProvisionMethods.size());
+    for (ComponentMethodDescriptor componentMethod : qualifiedProvisionMethods) {
+      Optional<Object> qualifier = getQualifier(componentMethod.qualifier().get(), packageElement);
+      if (!qualifier.isPresent()) {
+        continue;
+      }
+      String key = processingEnv.getTypeUtils().erasure(componentMethod.type()).toString() + " "
+          + (qualifier.get() instanceof String ? "\"" + qualifier.get() + "\"" : qualifier.get());
+      if (!qualifiedProvisionMethodsMap.containsKey(key)) {
+        qualifiedProvisionMethodsMap.put(key, componentMethod);
+        qualifiers.add(qualifier.get());
+      }
+    }
+    // When metering, each dispatched component method gets the index of its counters.
+    final Map<ComponentMethodDescriptor, Integer> bindingIndices = metrics ? new LinkedHashMap<ComponentMethodDescriptor, Integer>() : null;
+    if (metrics) {
+      List<String> bindingNames = new ArrayList<>();
+      for (Collection<ComponentMethodDescriptor> methods : Arrays.asList(provisionMethodsMap.values(),
+          parameterizedProvisionMethodsMap.values(), qualifiedProvisionMethodsMap.values(), membersInjectionMethodsMap.values())) {
+        for (ComponentMethodDescriptor method : methods) {
+          if (!bindingIndices.containsKey(method)) {
+            bindingIndices.put(method, bindingIndices.size());
+            bindingNames.add(method.name() + "("
+                + (method.kind() == ComponentMethodKind.SIMPLE_MEMBERS_INJECTION ? processingEnv.getTypeUtils().erasure(method.type()) : "")
+                + ")");
+          }
+        }
+      }
+      CodeBlock.Builder bindingNameLiterals = CodeBlock.builder();
+      for (int i = 0; i < bindingNames.size(); i++) {
+        bindingNameLiterals.add(i > 0 ? ",\n$S" : "$S", bindingNames.get(i));
+      }
+      classBuilder.addSuperinterface(METERED_OBJECT_GRAPH)
+          .addField(FieldSpec.builder(GRAPH_METRICS_RECORDER, "metrics", PRIVATE, STATIC, FINAL)
+              .initializer("new $T($S, new String[] {\n$>$>$L$<$<\n})", GRAPH_METRICS_RECORDER, element.getQualifiedName().toString(), bindingNameLiterals.build())
+              .build())
+          .addMethod(MethodSpec.methodBuilder("getMetrics")
+              .addAnnotation(Override.class)
+              .addModifiers(PUBLIC)
+              .returns(GRAPH_METRICS)
+              .addCode("return metrics.snapshot();\n")
+              .build());
+    }
+
+    // Small components are faster with cascading ifs than with a hash table lookup. Each if loads its class though, so
+    // when deferring class loading, only a single provision is tested that way.
+    final boolean useProvisionClassIndexHashTable = provisionMethodsMap.size() > (deferClassLoading ? 1 : MAX_PROVISION_IF_CHAIN_SIZE);
+
+    CodeBlock.Builder staticBlockBuilder = CodeBlock.builder();
+
+    // Concrete subclasses of members-injection types, mapped to the index of their most-specific method.
+    Map<TypeElement, Integer> registeredSubclasses = registerSubclasses
+        ? getRegisteredSubclasses(membersInjectionMethodsMap.values(), packageElement)
+        : Collections.<TypeElement, Integer>emptyMap();
+
+    // The object graph also depends on the registered subclasses; the processor is then aggregating.
+    for (TypeElement registeredSubclass : registeredSubclasses.keySet()) {
+      classBuilder.addOriginatingElement(registeredSubclass);
+    }
+
+    // Generate the PerfectClassIndexHashTable if there are classes to inject; or the PerfectClassNameIndexHashTable,
+    // which doesn't load them, when deferring class loading.
     if (membersInjectionMethodsMap.size() > 0) {
-      classBuilder.addField(ClassName.get("bullet.impl", "ClassIndexHashTable"), "classIndexHashTable", PRIVATE, STATIC, FINAL);
+      staticBlockBuilder.add("classIndexHashTable = ");
+      addClassIndexHashTable(classBuilder, staticBlockBuilder, "classIndexHashTable", bulletName);
+      if (registeredSubclasses.isEmpty()) {
+        addClassLiterals(staticBlockBuilder, membersInjectionMethodsMap.values());
+      } else {
+        staticBlockBuilder.add("$>$>\nnew $L[] {$>", deferClassLoading ? "String" : "Class<?>");
+        StringBuilder values = new StringBuilder();
+        int i = 0;
+        for (ComponentMethodDescriptor method : membersInjectionMethodsMap.values()) {
+          staticBlockBuilder.add("\n$L,", classLiteral(method.type()));
+          values.append(i++).append(", ");
+        }
+        i = 0;
+        for (Map.Entry<TypeElement, Integer> entry : registeredSubclasses.entrySet()) {
+          staticBlockBuilder.add("\n$L" + (++i < registeredSubclasses.size() ? "," : " },$<"), classLiteral(entry.getKey().asType()));
+          values.append(entry.getValue()).append(i < registeredSubclasses.size() ? ", " : "");
+        }
+        staticBlockBuilder.add("\nnew char[] { $L });\n$<$<", values);
+      }
 
-      // ClassIndexHashTable size should be a prime number and also be large enough to provide a max load factor of 0.7.
-      int classIndexHashTableSize = getNextPrime((int) Math.ceil(membersInjectionMethodsMap.size() * (10 / 7d)));
+      // Cache the supertypes lookup for each runtime class
+      classBuilder.addField(ClassName.get("bullet.impl", "ClassIndexCache"), "classIndexCache", PRIVATE, STATIC, FINAL);
+      staticBlockBuilder.add("classIndexCache = new ClassIndexCache(classIndexHashTable);\n");
+    }
 
-      CodeBlock.Builder classIndexHashTableCodeBlockBuilder = CodeBlock.builder()
-          .add("classIndexHashTable = new ClassIndexHashTable(" + classIndexHashTableSize + ");\n");
+    // Generate the table for provisions if there are too many of them for cascading ifs.
+    if (useProvisionClassIndexHashTable) {
+      staticBlockBuilder.add("provisionClassIndexHashTable = ");
+      addClassIndexHashTable(classBuilder, staticBlockBuilder, "provisionClassIndexHashTable", bulletName);
+      addClassLiterals(staticBlockBuilder, provisionMethodsMap.values());
+    }
 
+    // Generate the PerfectQualifiedIndexHashTable if there are qualified provisions. When deferring class loading, it
+    // is held by a nested class, so its classes are only loaded by the first qualified lookup.
+    final String qualifiedProvisionIndexHashTable = deferClassLoading
+        ? "QualifiedProvisions.qualifiedProvisionIndexHashTable"
+        : "qualifiedProvisionIndexHashTable";
+    if (!qualifiedProvisionMethodsMap.isEmpty()) {
+      CodeBlock.Builder qualifiedBlockBuilder = deferClassLoading ? CodeBlock.builder() : staticBlockBuilder;
+      qualifiedBlockBuilder.add("qualifiedProvisionIndexHashTable = new $T($>$>\nnew Class<?>[] {$>", PERFECT_QUALIFIED_INDEX_HASH_TABLE);
       int i = 0;
-      for (Map.Entry<TypeMirror, ComponentMethodDescriptor> entry : membersInjectionMethodsMap.entrySet()) {
-        classIndexHashTableCodeBlockBuilder.add("classIndexHashTable.put($T.class, (char) " + i++ + ");\n", entry.getValue().type());
+      for (ComponentMethodDescriptor method : qualifiedProvisionMethodsMap.values()) {
+        qualifiedBlockBuilder.add("\n$T.class" + (++i < qualifiedProvisionMethodsMap.size() ? "," : " },$<"), processingEnv.getTypeUtils().erasure(method.type()));
+      }
+      qualifiedBlockBuilder.add("\nnew Object[] {$>");
+      i = 0;
+      for (Object qualifier : qualifiers) {
+        qualifiedBlockBuilder.add("\n" + (qualifier instanceof String ? "$S" : "$T.class") + (++i < qualifiers.size() ? "," : " });\n$<$<$<"), qualifier);
+      }
+      if (deferClassLoading) {
+        classBuilder.addType(TypeSpec.classBuilder("QualifiedProvisions")
+            .addModifiers(PRIVATE, STATIC, FINAL)
+            .addField(PERFECT_QUALIFIED_INDEX_HASH_TABLE, "qualifiedProvisionIndexHashTable", STATIC, FINAL)
+            .addStaticBlock(qualifiedBlockBuilder.build())
+            .build());
+      } else {
+        classBuilder.addField(PERFECT_QUALIFIED_INDEX_HASH_TABLE, "qualifiedProvisionIndexHashTable", PRIVATE, STATIC, FINAL);
       }
-      classBuilder.addStaticBlock(classIndexHashTableCodeBlockBuilder.build());
+    }
+
+    CodeBlock staticBlock = staticBlockBuilder.build();
+    if (!staticBlock.isEmpty()) {
+      classBuilder.addStaticBlock(staticBlock);
     }
 
     final TypeVariableName t = TypeVariableName.get("T");
+    final AnnotationSpec suppressUncheckedWarnings = AnnotationSpec.builder(SuppressWarnings.class)
+        .addMember("value", "$S", "unchecked")
+        .build();
+    final CodeBlock noProvisionMethodFound = CodeBlock.builder()
+        .add("$L", miss(elementName, "missGet", "type"))
+        .add("throw new $T(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in $T.\");\n", IllegalArgumentException.class, elementName)
+        .build();
+
     final MethodSpec.Builder getBuilder = MethodSpec.methodBuilder("get")
         .addAnnotation(Override.class)
         .addModifiers(PUBLIC)
         .addTypeVariable(t)
         .returns(t)
         .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), t), "type", FINAL);
-    for (ComponentMethodDescriptor method : provisionMethods) {
-      getBuilder.addCode(
-          "if (type == $T.class) {\n$>" +
-          "return type.cast(this.component.$N()$L);\n" +
-          "$<}\n",
-          method.type(), method.name(), method.kind() == ComponentMethodKind.PROVIDER_OR_LAZY ? ".get()" : "");
-    }
-    getBuilder.addCode("throw new $T(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in $T.\");\n", IllegalArgumentException.class, elementName);
+    List<CodeBlock> getCases = new ArrayList<>(provisionMethodsMap.size());
+    for (ComponentMethodDescriptor method : provisionMethodsMap.values()) {
+      getCases.add(CodeBlock.builder()
+          .add("return type.cast($L);\n", instrumented(bindingIndices, elementName, method, CodeBlock.builder()
+              .add("this.component.$N()$L", method.name(), method.kind() != ComponentMethodKind.SIMPLE_PROVISION ? ".get()" : "")
+              .build()))
+          .build());
+    }
+    addProvisionDispatch(classBuilder, getBuilder, useProvisionClassIndexHashTable, provisionMethodsMap.values(), getCases, noProvisionMethodFound);
     classBuilder.addMethod(getBuilder.build());
 
+    // Probes answer misses with the same lookup as get(), but without building an exception.
+    final MethodSpec.Builder canProvideBuilder = MethodSpec.methodBuilder("canProvide")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .returns(boolean.class)
+        .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class)), "type", FINAL);
+    final MethodSpec.Builder tryGetBuilder = MethodSpec.methodBuilder("tryGet")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .addTypeVariable(t)
+        .returns(t)
+        .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), t), "type", FINAL);
+    // tryGet() shares the dispatch of get(), with a null fallback.
+    addProvisionDispatch(classBuilder, tryGetBuilder, useProvisionClassIndexHashTable, provisionMethodsMap.values(), getCases,
+        CodeBlock.builder()
+            .add("$L", miss(elementName, "missGet", "type"))
+            .add("return null;\n")
+            .build());
+    if (provisionMethodsMap.isEmpty()) {
+      canProvideBuilder.addCode("return false;\n");
+    } else if (useProvisionClassIndexHashTable) {
+      canProvideBuilder.addCode("return provisionClassIndexHashTable.get(type) >= 0;\n");
+    } else {
+      CodeBlock.Builder condition = CodeBlock.builder().add("return $>$>");
+      int i = 0;
+      for (ComponentMethodDescriptor method : provisionMethodsMap.values()) {
+        condition.add(i++ == 0 ? "type == $T.class" : "\n|| type == $T.class", processingEnv.getTypeUtils().erasure(method.type()));
+      }
+      canProvideBuilder.addCode(condition.add(";\n$<$<").build());
+    }
+    classBuilder.addMethod(tryGetBuilder.build());
+    classBuilder.addMethod(canProvideBuilder.build());
+
+    // javac compiles switches on strings to a lookup on their (cached) hash code.
+    final MethodSpec.Builder getKeyBuilder = MethodSpec.methodBuilder("get")
+        .addAnnotation(Override.class)
+        .addAnnotation(suppressUncheckedWarnings)
+        .addModifiers(PUBLIC)
+        .addTypeVariable(t)
+        .returns(t)
+        .addParameter(ParameterizedTypeName.get(KEY, t), "key", FINAL);
+    final CodeBlock noKeyProvisionMethodFound = CodeBlock.builder()
+        .add("if (key.getType() instanceof Class) {\n$>" +
+            "return get(($T) key.getType());\n" +
+            "$<}\n", ParameterizedTypeName.get(ClassName.get(Class.class), t))
+        .add("$L", miss(elementName, "missGet", "key"))
+        .add("throw new $T(\"No 'get', 'Provider', or 'Lazy' method found for \" + key + \" in $T.\");\n", IllegalArgumentException.class, elementName)
+        .build();
+    if (!parameterizedProvisionMethodsMap.isEmpty()) {
+      // Above MAX_SWITCH_CASES, cases are bucketed by the hash code of the key name, known at compile time.
+      int bucketCount = (parameterizedProvisionMethodsMap.size() + MAX_SWITCH_CASES - 1) / MAX_SWITCH_CASES;
+      List<CodeBlock.Builder> buckets = new ArrayList<>(bucketCount);
+      for (int i = 0; i < bucketCount; i++) {
+        buckets.add(CodeBlock.builder().add("switch (key.getName()) {\n$>"));
+      }
+      for (Map.Entry<String, ComponentMethodDescriptor> entry : parameterizedProvisionMethodsMap.entrySet()) {
+        ComponentMethodDescriptor method = entry.getValue();
+        buckets.get((entry.getKey().hashCode() & Integer.MAX_VALUE) % bucketCount).add("case $S:\n$>" +
+            "return ($T) $L;\n$<",
+            entry.getKey(), t, instrumented(bindingIndices, elementName, method, CodeBlock.builder()
+                .add("this.component.$N()$L", method.name(), method.kind() != ComponentMethodKind.SIMPLE_PROVISION ? ".get()" : "")
+                .build()));
+      }
+      if (bucketCount == 1) {
+        getKeyBuilder.addCode(buckets.get(0).add("$<}\n").build());
+      } else {
+        MethodSpec getKey = getKeyBuilder.build();
+        getKeyBuilder.addCode("switch ((key.getName().hashCode() & $T.MAX_VALUE) % $L) {\n$>", Integer.class, bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+          getKeyBuilder.addCode("case $L:\n$>return $L;\n$<", i,
+              addSwitchHelper(classBuilder, getKey, "getKeyBucket" + i, false, buckets.get(i).add("$<}\n").build(), noKeyProvisionMethodFound));
+        }
+        getKeyBuilder.addCode("$<}\n");
+      }
+    }
+    classBuilder.addMethod(getKeyBuilder
+        .addCode(noKeyProvisionMethodFound)
+        .build());
+
+    // Same buckets as get(Key), with all the names of a bucket falling through to the same return.
+    final MethodSpec.Builder canProvideKeyBuilder = MethodSpec.methodBuilder("canProvide")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .returns(boolean.class)
+        .addParameter(ParameterizedTypeName.get(KEY, WildcardTypeName.subtypeOf(Object.class)), "key", FINAL);
+    final CodeBlock cannotProvideKey = CodeBlock.builder()
+        .add("return key.getType() instanceof Class && canProvide(($T) key.getType());\n",
+            ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class)))
+        .build();
+    if (!parameterizedProvisionMethodsMap.isEmpty()) {
+      int bucketCount = (parameterizedProvisionMethodsMap.size() + MAX_SWITCH_CASES - 1) / MAX_SWITCH_CASES;
+      List<CodeBlock.Builder> buckets = new ArrayList<>(bucketCount);
+      for (int i = 0; i < bucketCount; i++) {
+        buckets.add(CodeBlock.builder().add("switch (key.getName()) {\n$>"));
+      }
+      for (String keyName : parameterizedProvisionMethodsMap.keySet()) {
+        buckets.get((keyName.hashCode() & Integer.MAX_VALUE) % bucketCount).add("case $S:\n", keyName);
+      }
+      for (CodeBlock.Builder bucket : buckets) {
+        bucket.add("$>return true;\n$<$<}\n");
+      }
+      if (bucketCount == 1) {
+        canProvideKeyBuilder.addCode(buckets.get(0).build());
+      } else {
+        MethodSpec canProvideKey = canProvideKeyBuilder.build();
+        canProvideKeyBuilder.addCode("switch ((key.getName().hashCode() & $T.MAX_VALUE) % $L) {\n$>", Integer.class, bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+          canProvideKeyBuilder.addCode("case $L:\n$>return $L;\n$<", i,
+              addSwitchHelper(classBuilder, canProvideKey, "canProvideKeyBucket" + i, false, buckets.get(i).build(), cannotProvideKey));
+        }
+        canProvideKeyBuilder.addCode("$<}\n");
+      }
+    }
+    classBuilder.addMethod(canProvideKeyBuilder
+        .addCode(cannotProvideKey)
+        .build());
+
+    final MethodSpec.Builder getQualifiedBuilder = MethodSpec.methodBuilder("get")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .addTypeVariable(t)
+        .returns(t)
+        .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), t), "type", FINAL)
+        .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Annotation.class)), "qualifier", FINAL);
+    final MethodSpec.Builder getNamedBuilder = MethodSpec.methodBuilder("get")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .addTypeVariable(t)
+        .returns(t)
+        .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), t), "type", FINAL)
+        .addParameter(String.class, "name", FINAL);
+    final CodeBlock noQualifiedProvisionMethodFound = CodeBlock.builder()
+        .add("$L", miss(elementName, "missGet", "type"))
+        .add("throw new $T(\"No 'get', 'Provider', or 'Lazy' method found for @\" + qualifier.getName() + \" \" + type.getName() + \" in $T.\");\n", IllegalArgumentException.class, elementName)
+        .build();
+    final CodeBlock noNamedProvisionMethodFound = CodeBlock.builder()
+        .add("$L", miss(elementName, "missGet", "type"))
+        .add("throw new $T(\"No 'get', 'Provider', or 'Lazy' method found for @Named(\\\"\" + name + \"\\\") \" + type.getName() + \" in $T.\");\n", IllegalArgumentException.class, elementName)
+        .build();
+    final MethodSpec.Builder canProvideQualifiedBuilder = MethodSpec.methodBuilder("canProvide")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .returns(boolean.class)
+        .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class)), "type", FINAL)
+        .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Annotation.class)), "qualifier", FINAL);
+    final MethodSpec.Builder canProvideNamedBuilder = MethodSpec.methodBuilder("canProvide")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .returns(boolean.class)
+        .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class)), "type", FINAL)
+        .addParameter(String.class, "name", FINAL);
+    if (qualifiedProvisionMethodsMap.isEmpty()) {
+      getQualifiedBuilder.addCode(noQualifiedProvisionMethodFound);
+      getNamedBuilder.addCode(noNamedProvisionMethodFound);
+      classBuilder.addMethod(getQualifiedBuilder.build());
+      classBuilder.addMethod(getNamedBuilder.build());
+      classBuilder.addMethod(canProvideQualifiedBuilder.addCode("return false;\n").build());
+      classBuilder.addMethod(canProvideNamedBuilder.addCode("return false;\n").build());
+    } else {
+      // Both lookups share the same table and the same switch.
+      classBuilder.addMethod(getQualifiedBuilder
+          .addCode("int index = $L.get(type, qualifier);\n" +
+              "if (index < 0) {\n$>", qualifiedProvisionIndexHashTable)
+          .addCode(noQualifiedProvisionMethodFound)
+          .addCode("$<}\nreturn type.cast(getQualified(index));\n")
+          .build());
+      classBuilder.addMethod(getNamedBuilder
+          .addCode("int index = $L.get(type, name);\n" +
+              "if (index < 0) {\n$>", qualifiedProvisionIndexHashTable)
+          .addCode(noNamedProvisionMethodFound)
+          .addCode("$<}\nreturn type.cast(getQualified(index));\n")
+          .build());
+      classBuilder.addMethod(canProvideQualifiedBuilder
+          .addCode("return $L.get(type, qualifier) >= 0;\n", qualifiedProvisionIndexHashTable)
+          .build());
+      classBuilder.addMethod(canProvideNamedBuilder
+          .addCode("return $L.get(type, name) >= 0;\n", qualifiedProvisionIndexHashTable)
+          .build());
+
+      MethodSpec.Builder getQualifiedIndexBuilder = MethodSpec.methodBuilder("getQualified")
+          .addModifiers(PRIVATE)
+          .returns(Object.class)
+          .addParameter(int.class, "index", FINAL);
+      List<CodeBlock> getQualifiedCases = new ArrayList<>(qualifiedProvisionMethodsMap.size());
+      for (ComponentMethodDescriptor method : qualifiedProvisionMethodsMap.values()) {
+        getQualifiedCases.add(CodeBlock.builder()
+            .add("case $L:\n$>" +
+                "return $L;\n$<",
+                getQualifiedCases.size(), instrumented(bindingIndices, elementName, method, CodeBlock.builder()
+                .add("this.component.$N()$L", method.name(), method.kind() != ComponentMethodKind.SIMPLE_PROVISION ? ".get()" : "")
+                .build()))
+            .build());
+      }
+      addIndexSwitch(classBuilder, getQualifiedIndexBuilder, CodeBlock.builder().add("index").build(), getQualifiedCases,
+          CodeBlock.builder().add("throw new $T();\n", AssertionError.class).build());
+      classBuilder.addMethod(getQualifiedIndexBuilder.build());
+    }
+
+    final ClassName provider = ClassName.get(Provider.class);
+    final ClassName lazy = ClassName.get(Lazy.class);
+
+    final MethodSpec.Builder providerBuilder = MethodSpec.methodBuilder("provider")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .addTypeVariable(t)
+        .returns(ParameterizedTypeName.get(provider, t))
+        .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), t), "type", FINAL);
+    if (!provisionMethodsMap.isEmpty()) {
+      providerBuilder.addAnnotation(suppressUncheckedWarnings);
+    }
+    List<CodeBlock> providerCases = new ArrayList<>(provisionMethodsMap.size());
+    for (ComponentMethodDescriptor method : provisionMethodsMap.values()) {
+      if (method.kind() == ComponentMethodKind.PROVIDER) {
+        // The component's own Provider already calls the binding directly.
+        providerCases.add(CodeBlock.builder()
+            .add("return ($T) this.component.$N();\n", ParameterizedTypeName.get(provider, t), method.name())
+            .build());
+      } else {
+        TypeName type = TypeName.get(method.type()).box();
+        providerCases.add(CodeBlock.builder()
+            .add("return ($T) $L;\n", ParameterizedTypeName.get(provider, t), TypeSpec.anonymousClassBuilder("")
+                .addSuperinterface(ParameterizedTypeName.get(provider, type))
+                .addMethod(MethodSpec.methodBuilder("get")
+                    .addAnnotation(Override.class)
+                    .addModifiers(PUBLIC)
+                    .returns(type)
+                    .addCode("return component.$N()$L;\n", method.name(), method.kind() == ComponentMethodKind.LAZY ? ".get()" : "")
+                    .build())
+                .build())
+            .build());
+      }
+    }
+    addProvisionDispatch(classBuilder, providerBuilder, useProvisionClassIndexHashTable, provisionMethodsMap.values(), providerCases, noProvisionMethodFound);
+    classBuilder.addMethod(providerBuilder.build());
+
+    final MethodSpec.Builder lazyBuilder = MethodSpec.methodBuilder("lazy")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .addTypeVariable(t)
+        .returns(ParameterizedTypeName.get(lazy, t))
+        .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), t), "type", FINAL);
+    // Only Lazy methods are dispatched to; other types get a Lazy wrapping their provider().
+    List<CodeBlock> lazyCases = new ArrayList<>(provisionMethodsMap.size());
+    for (ComponentMethodDescriptor method : provisionMethodsMap.values()) {
+      lazyCases.add(method.kind() != ComponentMethodKind.LAZY ? null : CodeBlock.builder()
+          .add("return ($T) this.component.$N();\n", ParameterizedTypeName.get(lazy, t), method.name())
+          .build());
+    }
+    if (Collections.frequency(lazyCases, null) < lazyCases.size()) {
+      lazyBuilder.addAnnotation(suppressUncheckedWarnings);
+    }
+    addProvisionDispatch(classBuilder, lazyBuilder, useProvisionClassIndexHashTable, provisionMethodsMap.values(), lazyCases,
+        CodeBlock.builder().add("return $T.create(provider(type));\n", DOUBLE_CHECK_LAZY).build());
+    classBuilder.addMethod(lazyBuilder.build());
+
+    // Handles are the providers of the first provider() call for each type, cached by provision index. The cache is
+    // racy but idempotent: all the providers for a type behave the same.
+    final MethodSpec.Builder handleBuilder = MethodSpec.methodBuilder("handle")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .addTypeVariable(t)
+        .returns(ParameterizedTypeName.get(provider, t))
+        .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), t), "type", FINAL);
+    if (provisionMethodsMap.isEmpty()) {
+      handleBuilder.addCode(noProvisionMethodFound);
+    } else {
+      classBuilder.addField(FieldSpec.builder(ArrayTypeName.of(ParameterizedTypeName.get(provider, WildcardTypeName.subtypeOf(Object.class))), "handles", PRIVATE, FINAL)
+          .initializer("new $T<?>[$L]", provider, provisionMethodsMap.size())
+          .build());
+      handleBuilder.addAnnotation(suppressUncheckedWarnings);
+      if (useProvisionClassIndexHashTable) {
+        handleBuilder.addCode("final int index = provisionClassIndexHashTable.get(type);\n" +
+            "if (index < 0) {\n$>")
+            .addCode(noProvisionMethodFound)
+            .addCode("$<}\n");
+      } else {
+        handleBuilder.addCode("final int index;\n");
+        int i = 0;
+        for (ComponentMethodDescriptor method : provisionMethodsMap.values()) {
+          handleBuilder.addCode(i == 0 ? "if (type == $T.class) {\n$>" : "$<} else if (type == $T.class) {\n$>", processingEnv.getTypeUtils().erasure(method.type()))
+              .addCode("index = $L;\n", i++);
+        }
+        handleBuilder.addCode("$<} else {\n$>")
+            .addCode(noProvisionMethodFound)
+            .addCode("$<}\n");
+      }
+      handleBuilder.addCode("$T<?> handle = handles[index];\n" +
+          "if (handle == null) {\n$>" +
+          "handles[index] = handle = provider(type);\n" +
+          "$<}\n" +
+          "return ($T) handle;\n", provider, ParameterizedTypeName.get(provider, t));
+    }
+    classBuilder.addMethod(handleBuilder.build());
+
+    final CodeBlock noInjectionMethodFound = CodeBlock.builder()
+        .add("$L", miss(elementName, "missInject", "instance.getClass()"))
+        .add("throw new $T(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in $T.\");\n", IllegalArgumentException.class, elementName)
+        .build();
+
+    final CodeBlock noMembersInjectorFound = CodeBlock.builder()
+        .add("$L", miss(elementName, "missInject", "type"))
+        .add("throw new $T(\"No 'inject' or 'MembersInject' method found for \" + type.getName() + \" in $T.\");\n", IllegalArgumentException.class, elementName)
+        .build();
+
+    final ClassName membersInjector = ClassName.get(MembersInjector.class);
+    final MethodSpec.Builder membersInjectorWriter = MethodSpec.methodBuilder("membersInjector")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .addTypeVariable(t)
+        .returns(ParameterizedTypeName.get(membersInjector, t))
+        .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), t), "type", FINAL);
+
+    final List<TypeName> injectAllParameterTypes = Arrays.asList(
+        ArrayTypeName.of(Object.class),
+        ParameterizedTypeName.get(ClassName.get(Iterable.class), WildcardTypeName.subtypeOf(Object.class)));
+
     final MethodSpec.Builder injectWriter = MethodSpec.methodBuilder("inject")
         .addAnnotation(Override.class)
         .addModifiers(PUBLIC)
@@ -214,40 +756,276 @@ class ComponentProcessingStep implements BasicAnnotationProcessor.ProcessingStep
         .returns(t)
         .addParameter(t, "instance", FINAL);
 
+    final MethodSpec.Builder canInjectWriter = MethodSpec.methodBuilder("canInject")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .returns(boolean.class)
+        .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class)), "type", FINAL);
+
+    final MethodSpec.Builder tryInjectWriter = MethodSpec.methodBuilder("tryInject")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .returns(boolean.class)
+        .addParameter(Object.class, "instance", FINAL);
+
     // Generate injection code if there are injections
     if (membersInjectionMethodsMap.size() > 0) {
-      injectWriter.addCode(
-          "Class<?> c = instance.getClass();\n" +
-              "while (c != Object.class) {\n$>" +
-              "switch (classIndexHashTable.get(c)) {\n$>");
+      final MethodSpec.Builder classIndexWriter = MethodSpec.methodBuilder("classIndex")
+          .addModifiers(PRIVATE, STATIC)
+          .returns(int.class)
+          .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class)), "c", FINAL);
+      if (registeredSubclasses.isEmpty()) {
+        classIndexWriter.addCode("return classIndexCache.get(c);\n");
+      } else {
+        // Exact matches, including pre-registered subclasses, don't need to go through the cache.
+        classIndexWriter.addCode(
+            "int index = classIndexHashTable.get(c);\n" +
+            "return index >= 0 ? index : classIndexCache.get(c);\n");
+      }
 
-      {
-        int i = 0;
-        for (Map.Entry<TypeMirror, ComponentMethodDescriptor> entry : membersInjectionMethodsMap.entrySet()) {
-          ComponentMethodDescriptor method = entry.getValue();
-          injectWriter.addCode(
+      final MethodSpec.Builder injectMembersWriter = MethodSpec.methodBuilder("injectMembers")
+          .addModifiers(PRIVATE)
+          .returns(boolean.class)
+          .addParameter(int.class, "index", FINAL)
+          .addParameter(Object.class, "instance", FINAL);
+      List<CodeBlock> injectMembersCases = new ArrayList<>(membersInjectionMethodsMap.size());
+      int i = 0;
+      for (ComponentMethodDescriptor method : membersInjectionMethodsMap.values()) {
+        CodeBlock.Builder injectMembersCase = CodeBlock.builder();
+        if (metrics || events) {
+          TypeMirror bindingClass = processingEnv.getTypeUtils().erasure(method.type());
+          injectMembersCase.add("case $L: {\n$>", i++);
+          if (metrics) {
+            int binding = bindingIndices.get(method);
+            injectMembersCase.add(
+                "final long start = metrics.start($L);\n" +
+                    "metrics.walk($L, instance.getClass(), $T.class);\n",
+                binding, binding, bindingClass);
+          }
+          if (events) {
+            injectMembersCase.add("final Object event = $T.beginInject();\n", GRAPH_EVENTS);
+          }
+          injectMembersCase.add("this.component.$N$L(($T) instance);\n", method.name(),
+              method.kind() == ComponentMethodKind.MEMBERS_INJECTOR ? "().injectMembers" : "", method.type());
+          if (events) {
+            injectMembersCase.add("$T.endInject(event, $T.class, instance.getClass(), $T.class);\n",
+                GRAPH_EVENTS, elementName, bindingClass);
+          }
+          if (metrics) {
+            injectMembersCase.add("metrics.record($L, start);\n", bindingIndices.get(method));
+          }
+          injectMembersCase.add("return true;\n$<}\n");
+        } else {
+          injectMembersCase.add(
               "case $L:\n$>" +
                   "this.component.$N$L(($T) instance);\n" +
-                  "return instance;\n$<",
+                  "return true;\n$<",
               i++, method.name(),
               method.kind() == ComponentMethodKind.MEMBERS_INJECTOR ? "().injectMembers" : "", method.type()
           );
         }
+        injectMembersCases.add(injectMembersCase.build());
       }
+      addIndexSwitch(classBuilder, injectMembersWriter, CodeBlock.builder().add("index").build(), injectMembersCases,
+          CodeBlock.builder().add("return false;\n").build());
 
-      injectWriter.addCode(
-          "$<}\n" +
-              "c = c.getSuperclass();\n" +
-              "$<}\n");
+      injectWriter.addCode("if (!injectMembers(classIndex(instance.getClass()), instance)) {\n$>")
+          .addCode(noInjectionMethodFound)
+          .addCode("$<}\nreturn instance;\n");
+      classBuilder.addMethod(injectWriter.build());
+      CodeBlock injectMiss = miss(elementName, "missInject", "instance.getClass()");
+      if (injectMiss.isEmpty()) {
+        tryInjectWriter.addCode("return injectMembers(classIndex(instance.getClass()), instance);\n");
+      } else {
+        tryInjectWriter.addCode("if (!injectMembers(classIndex(instance.getClass()), instance)) {\n$>")
+            .addCode(injectMiss)
+            .addCode("return false;\n$<}\nreturn true;\n");
+      }
+      classBuilder.addMethod(tryInjectWriter.build());
+
+      // Only resolve the index when the runtime class changes from one instance to the next.
+      for (TypeName instancesType : injectAllParameterTypes) {
+        classBuilder.addMethod(MethodSpec.methodBuilder("injectAll")
+            .addAnnotation(Override.class)
+            .addModifiers(PUBLIC)
+            .addParameter(instancesType, "instances", FINAL)
+            .addCode(
+                "Class<?> c = null;\n" +
+                "int index = -1;\n" +
+                "for (Object instance : instances) {\n$>" +
+                "if (instance.getClass() != c) {\n$>" +
+                "c = instance.getClass();\n" +
+                "index = classIndex(c);\n" +
+                "$<}\n" +
+                "if (!injectMembers(index, instance)) {\n$>")
+            .addCode(noInjectionMethodFound)
+            .addCode("$<}\n$<}\n")
+            .build());
+      }
+
+      // Same resolution as inject(), but done once for the returned MembersInjector.
+      membersInjectorWriter.addAnnotation(suppressUncheckedWarnings);
+      List<CodeBlock> membersInjectorCases = new ArrayList<>(membersInjectionMethodsMap.size());
+      i = 0;
+      for (ComponentMethodDescriptor method : membersInjectionMethodsMap.values()) {
+        CodeBlock.Builder membersInjectorCase = CodeBlock.builder().add("case $L:\n$>", i++);
+        if (method.kind() == ComponentMethodKind.MEMBERS_INJECTOR) {
+          membersInjectorCase.add("return ($T) this.component.$N();\n$<", ParameterizedTypeName.get(membersInjector, t), method.name());
+        } else {
+          TypeName type = TypeName.get(method.type());
+          membersInjectorCase.add("return ($T) $L;\n$<", ParameterizedTypeName.get(membersInjector, t), TypeSpec.anonymousClassBuilder("")
+              .addSuperinterface(ParameterizedTypeName.get(membersInjector, type))
+              .addMethod(MethodSpec.methodBuilder("injectMembers")
+                  .addAnnotation(Override.class)
+                  .addModifiers(PUBLIC)
+                  .addParameter(type, "instance", FINAL)
+                  .addCode("component.$N(instance);\n", method.name())
+                  .build())
+              .build());
+        }
+        membersInjectorCases.add(membersInjectorCase.build());
+      }
+      addIndexSwitch(classBuilder, membersInjectorWriter, CodeBlock.builder().add("classIndex(type)").build(), membersInjectorCases,
+          noMembersInjectorFound);
+      classBuilder.addMethod(membersInjectorWriter.build());
+      classBuilder.addMethod(canInjectWriter
+          .addCode("return classIndex(type) >= 0;\n")
+          .build());
+
+      classBuilder.addMethod(classIndexWriter.build());
+      classBuilder.addMethod(injectMembersWriter.build());
+    } else {
+      injectWriter.addCode(noInjectionMethodFound);
+      classBuilder.addMethod(injectWriter.build());
+      classBuilder.addMethod(tryInjectWriter
+          .addCode("$L", miss(elementName, "missInject", "instance.getClass()"))
+          .addCode("return false;\n")
+          .build());
+
+      for (TypeName instancesType : injectAllParameterTypes) {
+        classBuilder.addMethod(MethodSpec.methodBuilder("injectAll")
+            .addAnnotation(Override.class)
+            .addModifiers(PUBLIC)
+            .addParameter(instancesType, "instances", FINAL)
+            .addCode(
+                "for (Object instance : instances) {\n$>" +
+                "inject(instance);\n" +
+                "$<}\n")
+            .build());
+      }
+
+      membersInjectorWriter.addCode(noMembersInjectorFound);
+      classBuilder.addMethod(membersInjectorWriter.build());
+      classBuilder.addMethod(canInjectWriter
+          .addCode("return false;\n")
+          .build());
     }
 
-    injectWriter.addCode("throw new $T(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in $T.\");\n", IllegalArgumentException.class, elementName);
-    classBuilder.addMethod(injectWriter.build());
+    // Generate one plus() method per number of modules: no parameter, a single module, and any number of modules.
+    // Subcomponent types have no index to split the cascading ifs on.
+    if (subcomponentMethods.size() > MAX_SWITCH_CASES) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "The generated plus() methods test "
+          + subcomponentMethods.size() + " subcomponent methods in a row, and may be too large for HotSpot to JIT-compile them"
+          + " (more than 8000 bytes of bytecode).", element);
+    }
+    final ClassName objectGraph = ClassName.get("bullet", "ObjectGraph");
+    // The probe tests the same conditions as plus() with any number of modules.
+    final MethodSpec.Builder canPlusBuilder = MethodSpec.methodBuilder("canPlus")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .returns(boolean.class)
+        .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class)), "subcomponentType", FINAL)
+        .addParameter(ArrayTypeName.of(Object.class), "modules", FINAL)
+        .varargs();
+    final CodeBlock.Builder canPlusCondition = CodeBlock.builder().add("return $>$>");
+    int canPlusConditions = 0;
+    for (int arity : new int[] { 0, 1, -1 }) {
+      MethodSpec.Builder plusBuilder = MethodSpec.methodBuilder("plus")
+          .addAnnotation(Override.class)
+          .addModifiers(PUBLIC)
+          .returns(objectGraph)
+          .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class)), "subcomponentType", FINAL);
+      if (arity == 1) {
+        plusBuilder.addParameter(Object.class, "module", FINAL);
+      } else if (arity < 0) {
+        plusBuilder.addParameter(ArrayTypeName.of(Object.class), "modules", FINAL)
+            .varargs();
+      }
+      for (ComponentMethodDescriptor method : subcomponentMethods) {
+        List<TypeMirror> parameterTypes = method.parameterTypes();
+        if (arity >= 0 && parameterTypes.size() != arity) {
+          continue;
+        }
+        CodeBlock.Builder condition = CodeBlock.builder()
+            .add("subcomponentType == $T.class", processingEnv.getTypeUtils().erasure(method.type()));
+        CodeBlock.Builder arguments = CodeBlock.builder();
+        if (arity < 0) {
+          condition.add(" && modules.length == $L", parameterTypes.size());
+        }
+        for (int i = 0; i < parameterTypes.size(); i++) {
+          String argument = arity < 0 ? "modules[" + i + "]" : "module";
+          TypeMirror parameterType = processingEnv.getTypeUtils().erasure(parameterTypes.get(i));
+          condition.add(" && $L instanceof $T", argument, parameterType);
+          arguments.add(i > 0 ? ", ($T) $L" : "($T) $L", parameterType, argument);
+        }
+        if (arity < 0) {
+          canPlusCondition.add(canPlusConditions++ == 0 ? "$L" : "\n|| $L", condition.build());
+        }
+        ClassName subcomponentName = ClassName.get(MoreTypes.asTypeElement(method.type()));
+        plusBuilder.addCode("if ($L) {\n$>", condition.build())
+            .addCode("return new $T(this.component.$N($L));\n", ClassName.get(subcomponentName.packageName(), "Bullet" + Joiner.on("_").join(subcomponentName.simpleNames())), method.name(), arguments.build())
+            .addCode("$<}\n");
+      }
+      classBuilder.addMethod(plusBuilder
+          .addCode(miss(elementName, null, null))
+          .addCode("throw new $T(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in $T.\");\n", IllegalArgumentException.class, elementName)
+          .build());
+    }
+    classBuilder.addMethod(canPlusBuilder
+        .addCode(canPlusConditions == 0 ? CodeBlock.builder().add("return false;\n").build() : canPlusCondition.add(";\n$<$<").build())
+        .build());
+
+    // Warm up every provision method, each in its own task.
+    final MethodSpec.Builder warmUpBuilder = MethodSpec.methodBuilder("warmUp")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .returns(WARM_UP)
+        .addParameter(Executor.class, "executor", FINAL);
+    List<ComponentMethodDescriptor> warmUpMethods = new ArrayList<>(provisionMethods);
+    warmUpMethods.addAll(qualifiedProvisionMethods);
+    if (warmUpMethods.isEmpty()) {
+      warmUpBuilder.addCode("return $T.NONE;\n", GRAPH_WARM_UP);
+    } else {
+      CodeBlock.Builder warmUpNames = CodeBlock.builder();
+      List<CodeBlock> warmUpCases = new ArrayList<>(warmUpMethods.size());
+      for (ComponentMethodDescriptor method : warmUpMethods) {
+        warmUpNames.add(warmUpCases.isEmpty() ? "$S" : ",\n$S", method.name() + "()");
+        warmUpCases.add(CodeBlock.builder()
+            .add("case $L:\n$>" +
+                "return component.$N()$L;\n$<",
+                warmUpCases.size(), method.name(), method.kind() != ComponentMethodKind.SIMPLE_PROVISION ? ".get()" : "")
+            .build());
+      }
+      TypeSpec.Builder warmUp = TypeSpec.anonymousClassBuilder("new String[] {\n$>$>$L$<$<\n}", warmUpNames.build())
+          .superclass(GRAPH_WARM_UP);
+      MethodSpec.Builder provideBuilder = MethodSpec.methodBuilder("provide")
+          .addAnnotation(Override.class)
+          .addModifiers(Modifier.PROTECTED)
+          .returns(Object.class)
+          .addParameter(int.class, "index", FINAL);
+      addIndexSwitch(warmUp, provideBuilder, CodeBlock.builder().add("index").build(), warmUpCases,
+          CodeBlock.builder().add("throw new $T();\n", AssertionError.class).build());
+      warmUpBuilder.addCode("return $L.start(executor);\n", warmUp.addMethod(provideBuilder.build()).build());
+    }
+    classBuilder.addMethod(warmUpBuilder.build());
 
     try {
       JavaFile.builder(elementName.packageName(), classBuilder.build())
           .build()
           .writeTo(processingEnv.getFiler());
+      if (registryGenerator != null) {
+        registryGenerator.record(element, ClassName.get(elementName.packageName(), classBuilder.build().name));
+      }
     } catch (IOException ioe) {
       StringWriter sw = new StringWriter();
       PrintWriter pw = new PrintWriter(sw);
@@ -258,8 +1036,123 @@ class ComponentProcessingStep implements BasicAnnotationProcessor.ProcessingStep
     }
   }
 
+  /**
+   * Sorts the members-injection methods so that the methods for subtypes come before the ones for their supertypes,
+   * following {@link MostSpecificFirst}. Methods for the same type keep their relative order.
+   *
+   * @return absent if the types cannot be ordered, after reporting an error on the component.
+   */
+  private Optional<List<ComponentMethodDescriptor>> sortMostSpecificFirst(TypeElement component, List<ComponentMethodDescriptor> methods) {
+    Map<TypeElement, List<ComponentMethodDescriptor>> methodsByType = new LinkedHashMap<>();
+    for (ComponentMethodDescriptor method : methods) {
+      TypeElement type = MoreElements.asType(processingEnv.getTypeUtils().asElement(method.type()));
+      List<ComponentMethodDescriptor> typeMethods = methodsByType.get(type);
+      if (typeMethods == null) {
+        typeMethods = new ArrayList<>();
+        methodsByType.put(type, typeMethods);
+      }
+      typeMethods.add(method);
+    }
+
+    List<TypeElement> sortedTypes = MostSpecificFirst.sort(processingEnv.getTypeUtils(), methodsByType.keySet());
+    if (sortedTypes.size() < methodsByType.size()) {
+      Set<String> remaining = new TreeSet<>();
+      for (TypeElement type : methodsByType.keySet()) {
+        if (!sortedTypes.contains(type)) {
+          remaining.add(type.getQualifiedName().toString());
+        }
+      }
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+          "Cannot order the members-injection methods from most-specific to least-specific types, cyclic hierarchy among: "
+              + Joiner.on(", ").join(remaining), component);
+      return Optional.absent();
+    }
+    List<ComponentMethodDescriptor> sorted = new ArrayList<>(methods.size());
+    for (TypeElement type : sortedTypes) {
+      sorted.addAll(methodsByType.get(type));
+    }
+    return Optional.of(sorted);
+  }
+
+  /**
+   * Finds the concrete classes, among those with {@code @Inject} members, that extend members-injection types without
+   * having a members-injection method of their own, and maps them to the index of their most-specific method.
+   */
+  private Map<TypeElement, Integer> getRegisteredSubclasses(Collection<ComponentMethodDescriptor> membersInjectionMethods, PackageElement packageElement) {
+    javax.lang.model.util.Types typeUtils = processingEnv.getTypeUtils();
+    Map<TypeElement, Integer> registeredSubclasses = new LinkedHashMap<>();
+    for (String injectableClassName : injectableClassNames) {
+      TypeElement injectableClass = processingEnv.getElementUtils().getTypeElement(injectableClassName);
+      if (injectableClass == null
+          || injectableClass.getModifiers().contains(Modifier.ABSTRACT)
+          || injectableClass.getNestingKind() == NestingKind.LOCAL
+          || injectableClass.getNestingKind() == NestingKind.ANONYMOUS
+          || !isVisibleFrom(injectableClass, packageElement)) {
+        continue;
+      }
+      TypeMirror injectableType = typeUtils.erasure(injectableClass.asType());
+      // Methods are sorted from most-specific to least-specific types, so the first match is the most-specific one.
+      int i = 0;
+      for (ComponentMethodDescriptor method : membersInjectionMethods) {
+        TypeMirror methodType = typeUtils.erasure(method.type());
+        if (typeUtils.isSameType(injectableType, methodType)) {
+          break;
+        }
+        if (typeUtils.isSubtype(injectableType, methodType)) {
+          registeredSubclasses.put(injectableClass, i);
+          break;
+        }
+        i++;
+      }
+    }
+    return registeredSubclasses;
+  }
+
+  /**
+   * Returns the descriptor of the component method, as resolved in the component type. Methods declared in non-generic
+   * types resolve the same in every component, so their descriptors are cached by declaring type.
+   */
+  private Optional<ComponentMethodDescriptor> getMethodDescriptor(DeclaredType component, ExecutableElement method) {
+    TypeElement declaringType = MoreElements.asType(method.getEnclosingElement());
+    if (isGeneric(declaringType)) {
+      return ComponentMethodDescriptor.forComponentMethod(processingEnv.getTypeUtils(), component, method);
+    }
+    Map<ExecutableElement, Optional<ComponentMethodDescriptor>> descriptors = methodDescriptors.get(declaringType);
+    if (descriptors == null) {
+      descriptors = new HashMap<>();
+      methodDescriptors.put(declaringType, descriptors);
+    }
+    Optional<ComponentMethodDescriptor> descriptor = descriptors.get(method);
+    if (descriptor == null) {
+      descriptor = ComponentMethodDescriptor.forComponentMethod(processingEnv.getTypeUtils(), component, method);
+      descriptors.put(method, descriptor);
+    }
+    return descriptor;
+  }
+
+  /**
+   * Returns whether the type, or any of its enclosing types, has type parameters, that component types extending it
+   * could bind differently.
+   */
+  private static boolean isGeneric(TypeElement type) {
+    TypeMirror t = type.asType();
+    while (t.getKind() == TypeKind.DECLARED) {
+      DeclaredType declaredType = MoreTypes.asDeclared(t);
+      if (!declaredType.getTypeArguments().isEmpty()) {
+        return true;
+      }
+      t = declaredType.getEnclosingType();
+    }
+    return false;
+  }
+
   private boolean isVisibleFrom(Element target, PackageElement from) {
-    switch (Visibility.effectiveVisibilityOfElement(target)) {
+    Visibility visibility = visibilities.get(target);
+    if (visibility == null) {
+      visibility = Visibility.effectiveVisibilityOfElement(target);
+      visibilities.put(target, visibility);
+    }
+    switch (visibility) {
       case PUBLIC:
         return true;
       case PROTECTED:
@@ -272,21 +1165,261 @@ class ComponentProcessingStep implements BasicAnnotationProcessor.ProcessingStep
     }
   }
 
-  private static int getNextPrime(int value) {
-    while (true) {
-      value++;
-      if (isPrime(value)) {
-        return value;
+  /**
+   * Adds a dispatch on {@code type} to the code of each provision method, followed by the fallback code: either a
+   * {@code switch} on the provisions' {@code PerfectClassIndexHashTable}, or cascading ifs. Provision methods whose code
+   * is {@code null} are skipped.
+   */
+  private void addProvisionDispatch(TypeSpec.Builder classBuilder, MethodSpec.Builder builder, boolean useProvisionClassIndexHashTable,
+      Collection<ComponentMethodDescriptor> methods, List<CodeBlock> cases, CodeBlock fallback) {
+    if (Collections.frequency(cases, null) == cases.size()) {
+      builder.addCode(fallback);
+    } else if (useProvisionClassIndexHashTable) {
+      List<CodeBlock> labeledCases = new ArrayList<>(cases.size());
+      for (int i = 0; i < cases.size(); i++) {
+        labeledCases.add(cases.get(i) == null ? null : CodeBlock.builder()
+            .add("case $L:\n$>", i)
+            .add("$L", cases.get(i))
+            .add("$<")
+            .build());
+      }
+      addIndexSwitch(classBuilder, builder, CodeBlock.builder().add("provisionClassIndexHashTable.get(type)").build(), labeledCases, fallback);
+    } else {
+      int i = 0;
+      for (ComponentMethodDescriptor method : methods) {
+        CodeBlock code = cases.get(i++);
+        if (code != null) {
+          builder.addCode("if (type == $T.class) {\n$>", processingEnv.getTypeUtils().erasure(method.type()))
+              .addCode(code)
+              .addCode("$<}\n");
+        }
+      }
+      builder.addCode(fallback);
+    }
+  }
+
+  /**
+   * Adds a {@code switch} on the index to the code of the method, followed by the fallback code. Each case is the
+   * labeled code for the index of its position; {@code null} cases are skipped.
+   * <p>
+   * Above {@link #MAX_SWITCH_CASES} cases, the cases are moved to helper methods of at most that many cases each,
+   * picked by a first {@code switch} on the index divided by that number; each helper ends with the fallback code.
+   */
+  private void addIndexSwitch(TypeSpec.Builder classBuilder, MethodSpec.Builder builder, CodeBlock index, List<CodeBlock> cases,
+      CodeBlock fallback) {
+    if (cases.size() <= MAX_SWITCH_CASES) {
+      builder.addCode("switch ($L) {\n$>", index);
+      for (CodeBlock code : cases) {
+        if (code != null) {
+          builder.addCode(code);
+        }
       }
+      builder.addCode("$<}\n")
+          .addCode(fallback);
+      return;
     }
+    MethodSpec method = builder.build();
+    boolean hasIndexParameter = false;
+    for (ParameterSpec parameter : method.parameters) {
+      hasIndexParameter |= parameter.name.equals("index");
+    }
+    if (!hasIndexParameter) {
+      builder.addCode("final int index = $L;\n", index);
+    }
+    // Negative indices, for unknown types, are shifted out of the buckets.
+    builder.addCode("switch (index >>> $L) {\n$>", SWITCH_BUCKET_SHIFT);
+    for (int bucket = 0; bucket << SWITCH_BUCKET_SHIFT < cases.size(); bucket++) {
+      CodeBlock.Builder bucketCode = CodeBlock.builder().add("switch (index) {\n$>");
+      boolean hasCases = false;
+      for (CodeBlock code : cases.subList(bucket << SWITCH_BUCKET_SHIFT, Math.min(cases.size(), (bucket + 1) << SWITCH_BUCKET_SHIFT))) {
+        if (code != null) {
+          bucketCode.add("$L", code);
+          hasCases = true;
+        }
+      }
+      if (hasCases) {
+        builder.addCode("case $L:\n$>return $L;\n$<", bucket,
+            addSwitchHelper(classBuilder, method, method.name + "Bucket" + bucket, !hasIndexParameter, bucketCode.add("$<}\n").build(), fallback));
+      }
+    }
+    builder.addCode("$<}\n")
+        .addCode(fallback);
   }
 
-  private static boolean isPrime(int value) {
-    for (int i = 2; i < value; i++) {
-      if (value % i == 0) {
+  /**
+   * Adds a private helper method for a part of a {@code switch} of the method: with the same type variables, return
+   * type and parameters, preceded by {@code index} if asked, and its code followed by the fallback code of the method.
+   *
+   * @return the code calling the helper from the method.
+   */
+  private CodeBlock addSwitchHelper(TypeSpec.Builder classBuilder, MethodSpec method, String name, boolean withIndex,
+      CodeBlock code, CodeBlock fallback) {
+    MethodSpec.Builder helper = MethodSpec.methodBuilder(name)
+        .addModifiers(PRIVATE)
+        .addTypeVariables(method.typeVariables)
+        .returns(method.returnType);
+    for (AnnotationSpec annotation : method.annotations) {
+      if (!annotation.type.equals(ClassName.get(Override.class))) {
+        helper.addAnnotation(annotation);
+      }
+    }
+    List<String> arguments = new ArrayList<>();
+    if (withIndex) {
+      helper.addParameter(int.class, "index", FINAL);
+      arguments.add("index");
+    }
+    for (ParameterSpec parameter : method.parameters) {
+      helper.addParameter(parameter);
+      arguments.add(parameter.name);
+    }
+    classBuilder.addMethod(helper
+        .addCode(code)
+        .addCode(fallback)
+        .build());
+    return CodeBlock.builder().add("$N($L)", name, Joiner.on(", ").join(arguments)).build();
+  }
+
+  private boolean areVisibleFrom(List<TypeMirror> types, PackageElement packageElement) {
+    for (TypeMirror type : types) {
+      if (type.getKind() != TypeKind.DECLARED || !isVisibleFrom(processingEnv.getTypeUtils().asElement(type), packageElement)) {
         return false;
       }
     }
     return true;
   }
+
+  /**
+   * Returns the canonical name of the type, as computed by {@code bullet.Key} at runtime, or absent if the type cannot
+   * be named that way (e.g. it contains type variables).
+   */
+  private Optional<String> getKeyName(TypeMirror type) {
+    switch (type.getKind()) {
+      case BOOLEAN:
+      case BYTE:
+      case SHORT:
+      case INT:
+      case LONG:
+      case CHAR:
+      case FLOAT:
+      case DOUBLE:
+        return Optional.of(type.toString());
+      case ARRAY:
+        Optional<String> componentName = getKeyName(MoreTypes.asArray(type).getComponentType());
+        return componentName.isPresent() ? Optional.of(componentName.get() + "[]") : componentName;
+      case DECLARED:
+        StringBuilder sb = new StringBuilder(processingEnv.getElementUtils().getBinaryName(MoreTypes.asTypeElement(type)));
+        List<? extends TypeMirror> typeArguments = MoreTypes.asDeclared(type).getTypeArguments();
+        for (int i = 0; i < typeArguments.size(); i++) {
+          Optional<String> typeArgumentName = getKeyName(typeArguments.get(i));
+          if (!typeArgumentName.isPresent()) {
+            return typeArgumentName;
+          }
+          sb.append(i > 0 ? "," : "<").append(typeArgumentName.get());
+        }
+        return Optional.of(typeArguments.isEmpty() ? sb.toString() : sb.append('>').toString());
+      case WILDCARD:
+        WildcardType wildcardType = (WildcardType) type;
+        boolean isSuperBound = wildcardType.getSuperBound() != null;
+        TypeMirror bound = isSuperBound ? wildcardType.getSuperBound() : wildcardType.getExtendsBound();
+        // At runtime, "? extends Object" cannot be told apart from "?"
+        if (bound == null || (!isSuperBound && MoreTypes.isTypeOf(Object.class, bound))) {
+          return Optional.of("?");
+        }
+        Optional<String> boundName = getKeyName(bound);
+        return boundName.isPresent() ? Optional.of((isSuperBound ? "? super " : "? extends ") + boundName.get()) : boundName;
+      default:
+        return Optional.absent();
+    }
+  }
+
+  /**
+   * Returns the value of {@code @Named} qualifiers, or the annotation type of qualifiers without values.
+   * Other qualifiers cannot be passed to {@code ObjectGraph} methods.
+   */
+  private Optional<Object> getQualifier(AnnotationMirror qualifier, PackageElement packageElement) {
+    if (MoreTypes.isTypeOf(Named.class, qualifier.getAnnotationType())) {
+      return Optional.of(AnnotationMirrors.getAnnotationValue(qualifier, "value").getValue());
+    }
+    if (qualifier.getElementValues().isEmpty() && isVisibleFrom(qualifier.getAnnotationType().asElement(), packageElement)) {
+      return Optional.<Object>of(qualifier.getAnnotationType());
+    }
+    return Optional.absent();
+  }
+
+  /**
+   * Wraps the call to the provision method so that it's counted when metering, and timed when recording events.
+   */
+  private CodeBlock instrumented(Map<ComponentMethodDescriptor, Integer> bindingIndices, ClassName elementName, ComponentMethodDescriptor method, CodeBlock call) {
+    if (events) {
+      call = CodeBlock.builder()
+          .add("$T.endGet($T.beginGet(), $T.class, $T.class, $L)", GRAPH_EVENTS, GRAPH_EVENTS, elementName,
+              processingEnv.getTypeUtils().erasure(method.type()), call)
+          .build();
+    }
+    if (metrics) {
+      int binding = bindingIndices.get(method);
+      call = CodeBlock.builder()
+          .add("metrics.record($L, metrics.start($L), $L)", binding, binding, call)
+          .build();
+    }
+    return call;
+  }
+
+  /**
+   * Returns the statements recording a lookup that didn't find any method, when metering or recording events.
+   *
+   * @param eventMethod the {@code GraphEvents} method recording the miss, or {@code null} if there's no such event.
+   * @param binding the expression of the looked up type, passed to eventMethod.
+   */
+  private CodeBlock miss(ClassName elementName, String eventMethod, String binding) {
+    CodeBlock.Builder miss = CodeBlock.builder();
+    if (metrics) {
+      miss.add("metrics.miss();\n");
+    }
+    if (events && eventMethod != null) {
+      miss.add("$T.$N($T.class, $L);\n", GRAPH_EVENTS, eventMethod, elementName, binding);
+    }
+    return miss.build();
+  }
+
+  /**
+   * Adds the class literals for the (erased) types of the given methods as arguments, one per line, and closes the
+   * statement.
+   */
+  private void addClassLiterals(CodeBlock.Builder builder, Collection<ComponentMethodDescriptor> methods) {
+    builder.add("$>$>");
+    int i = 0;
+    for (ComponentMethodDescriptor method : methods) {
+      builder.add("\n$L" + (++i < methods.size() ? "," : ""), classLiteral(method.type()));
+    }
+    builder.add(");\n$<$<");
+  }
+
+  /**
+   * Adds the field for a class index table, and the start of its instantiation to the static block: a
+   * {@code PerfectClassIndexHashTable}, or a {@code PerfectClassNameIndexHashTable} resolving the classes with the
+   * class loader of the object graph when deferring class loading.
+   */
+  private void addClassIndexHashTable(TypeSpec.Builder classBuilder, CodeBlock.Builder staticBlockBuilder, String name,
+      ClassName bulletName) {
+    if (deferClassLoading) {
+      classBuilder.addField(PERFECT_CLASS_NAME_INDEX_HASH_TABLE, name, PRIVATE, STATIC, FINAL);
+      staticBlockBuilder.add("new $T($T.class.getClassLoader(),", PERFECT_CLASS_NAME_INDEX_HASH_TABLE, bulletName);
+    } else {
+      classBuilder.addField(PERFECT_CLASS_INDEX_HASH_TABLE, name, PRIVATE, STATIC, FINAL);
+      staticBlockBuilder.add("new $T(", PERFECT_CLASS_INDEX_HASH_TABLE);
+    }
+  }
+
+  /**
+   * Returns the class literal for the erasure of the type, or the name of the class as returned by
+   * {@link Class#getName()} when deferring class loading.
+   */
+  private CodeBlock classLiteral(TypeMirror type) {
+    TypeMirror erasure = processingEnv.getTypeUtils().erasure(type);
+    return deferClassLoading
+        ? CodeBlock.builder().add("$S", processingEnv.getElementUtils().getBinaryName(MoreTypes.asTypeElement(erasure))).build()
+        : CodeBlock.builder().add("$T.class", erasure).build();
+  }
+
 }
@@ -2,8 +2,10 @@ package bullet.impl;
 
 import com.google.auto.common.BasicAnnotationProcessor;
 import com.google.auto.service.AutoService;
+import com.google.common.collect.ImmutableSet;
 
 import java.util.Collections;
+import java.util.Set;
 
 import javax.annotation.processing.Processor;
 import javax.lang.model.SourceVersion;
@@ -11,6 +13,65 @@ import javax.lang.model.SourceVersion;
 @AutoService(Processor.class)
 public class ComponentProcessor extends BasicAnnotationProcessor {
 
+  /**
+   * When {@code true}, concrete classes with {@code @Inject} members that extend members-injection types are
+   * registered in the generated class index, so that {@code inject()} resolves them with a single exact lookup.
+   */
+  static final String REGISTER_SUBCLASSES_OPTION = "bullet.registerSubclasses";
+
+  /**
+   * The fully qualified name of the {@code bullet.BulletGraphs.Registry} to generate for all the object graphs of the
+   * compilation unit, if any.
+   */
+  static final String REGISTRY_OPTION = "bullet.registry";
+
+  /**
+   * When {@code true}, generated object graphs count the calls to each component method, the supertype steps taken by
+   * {@code inject()}, and the lookups that found no method; see {@code bullet.GraphMetrics}.
+   */
+  static final String METRICS_OPTION = "bullet.metrics";
+
+  /**
+   * When {@code true}, generated object graphs report their provisions, members injections and failed lookups to
+   * {@code bullet.impl.GraphEvents}, e.g. as JDK Flight Recorder events with the {@code bullet-jfr} module.
+   */
+  static final String JFR_OPTION = "bullet.jfr";
+
+  /**
+   * When {@code true}, generated object graphs look classes up by name, and only resolve them when found, rather than
+   * loading all their classes when they are initialized; see {@code bullet.impl.PerfectClassNameIndexHashTable}.
+   */
+  static final String DEFER_CLASS_LOADING_OPTION = "bullet.deferClassLoading";
+
+  /**
+   * Tells Gradle, which registers this processor as {@code dynamic} in {@code META-INF/gradle/incremental.annotation.processors},
+   * that each generated object graph only depends on its component: its only originating element.
+   */
+  private static final String GRADLE_ISOLATING = "org.gradle.annotation.processing.isolating";
+
+  /**
+   * Tells Gradle that generated files depend on several elements: the registry depends on all the components, and
+   * object graphs registering subclasses depend on all the classes with {@code @Inject} members.
+   */
+  private static final String GRADLE_AGGREGATING = "org.gradle.annotation.processing.aggregating";
+
+  private RegistryGenerator registryGenerator;
+
+  @Override
+  public Set<String> getSupportedOptions() {
+    return ImmutableSet.of(REGISTER_SUBCLASSES_OPTION, REGISTRY_OPTION, METRICS_OPTION, JFR_OPTION, DEFER_CLASS_LOADING_OPTION,
+        isAggregating() ? GRADLE_AGGREGATING : GRADLE_ISOLATING);
+  }
+
+  private boolean isAggregating() {
+    if (processingEnv == null) {
+      return false;
+    }
+    String registryName = processingEnv.getOptions().get(REGISTRY_OPTION);
+    return (registryName != null && !registryName.isEmpty())
+        || Boolean.parseBoolean(processingEnv.getOptions().get(REGISTER_SUBCLASSES_OPTION));
+  }
+
   @Override
   public SourceVersion getSupportedSourceVersion() {
     return SourceVersion.latestSupported();
@@ -18,6 +79,17 @@ public class ComponentProcessor extends BasicAnnotationProcessor {
 
   @Override
   protected Iterable<? extends ProcessingStep> initSteps() {
-    return Collections.singleton(new ComponentProcessingStep(processingEnv));
+    String registryName = processingEnv.getOptions().get(REGISTRY_OPTION);
+    if (registryName != null && !registryName.isEmpty()) {
+      registryGenerator = new RegistryGenerator(processingEnv, registryName);
+    }
+    return Collections.singleton(new ComponentProcessingStep(processingEnv, registryGenerator));
+  }
+
+  @Override
+  protected void postProcess() {
+    if (registryGenerator != null) {
+      registryGenerator.endRound();
+    }
   }
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2014 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bullet.impl;
+
+import com.google.auto.common.MoreTypes;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+
+/**
+ * Orders types so that subtypes come before their supertypes, as needed by {@code ClassIndexCache}, which picks the
+ * smallest index among all the supertypes (superclasses and interfaces) of a runtime class.
+ * <p>
+ * The hierarchy of the types is indexed once, walking up the supertypes of each type. Types are then picked as soon as
+ * all their subtypes have been (Kahn's algorithm), by name among the unrelated ones, so that the order is total and
+ * stable.
+ */
+final class MostSpecificFirst {
+  private MostSpecificFirst() {
+  }
+
+  /**
+   * @return the sorted types; types that cannot be ordered, because their hierarchy is cyclic, are left out.
+   */
+  static List<TypeElement> sort(Types typeUtils, Collection<TypeElement> types) {
+    Set<TypeElement> distinctTypes = new LinkedHashSet<>(types);
+
+    // For each type, its supertypes among the types, and the number of its subtypes that haven't been picked.
+    Map<TypeElement, List<TypeElement>> supertypes = new HashMap<>();
+    Map<TypeElement, Integer> pendingSubtypes = new HashMap<>();
+    for (TypeElement type : distinctTypes) {
+      supertypes.put(type, new ArrayList<TypeElement>());
+      pendingSubtypes.put(type, 0);
+    }
+    for (TypeElement type : distinctTypes) {
+      Set<TypeElement> visited = new HashSet<>();
+      Deque<TypeMirror> toVisit = new ArrayDeque<>(typeUtils.directSupertypes(type.asType()));
+      while (!toVisit.isEmpty()) {
+        TypeMirror supertype = toVisit.pop();
+        TypeElement supertypeElement = MoreTypes.asTypeElement(supertype);
+        if (!visited.add(supertypeElement)) {
+          continue;
+        }
+        if (distinctTypes.contains(supertypeElement)) {
+          supertypes.get(type).add(supertypeElement);
+          pendingSubtypes.put(supertypeElement, pendingSubtypes.get(supertypeElement) + 1);
+        }
+        toVisit.addAll(typeUtils.directSupertypes(supertype));
+      }
+    }
+
+    PriorityQueue<TypeElement> ready = new PriorityQueue<>(Math.max(1, distinctTypes.size()), new Comparator<TypeElement>() {
+      @Override
+      public int compare(TypeElement o1, TypeElement o2) {
+        return o1.getQualifiedName().toString().compareTo(o2.getQualifiedName().toString());
+      }
+    });
+    for (TypeElement type : distinctTypes) {
+      if (pendingSubtypes.get(type) == 0) {
+        ready.add(type);
+      }
+    }
+    List<TypeElement> sorted = new ArrayList<>(distinctTypes.size());
+    while (!ready.isEmpty()) {
+      TypeElement type = ready.poll();
+      sorted.add(type);
+      for (TypeElement supertype : supertypes.get(type)) {
+        int pending = pendingSubtypes.get(supertype) - 1;
+        pendingSubtypes.put(supertype, pending);
+        if (pending == 0) {
+          ready.add(supertype);
+        }
+      }
+    }
+    return sorted;
+  }
+}
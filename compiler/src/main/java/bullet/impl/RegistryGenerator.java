@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2014 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bullet.impl;
+
+import com.google.auto.common.MoreElements;
+import com.google.auto.common.Visibility;
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeSpec;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Generated;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+/**
+ * Generates the {@code bullet.BulletGraphs.Registry} of all the object graphs generated in the compilation unit.
+ * <p>
+ * The registry can only be written once, so it's written at the end of the first round that doesn't generate any new
+ * object graph, i.e. the round following the one where the components were processed.
+ */
+class RegistryGenerator {
+  private static final ClassName OBJECT_GRAPH = ClassName.get("bullet", "ObjectGraph");
+  private static final ClassName REGISTRY = ClassName.get("bullet", "BulletGraphs", "Registry");
+  private static final ClassName PERFECT_CLASS_INDEX_HASH_TABLE = ClassName.get("bullet.impl", "PerfectClassIndexHashTable");
+  private static final ClassName CLASS_INDEX_CACHE = ClassName.get("bullet.impl", "ClassIndexCache");
+
+  private final ProcessingEnvironment processingEnv;
+  private final ClassName registryName;
+  /** The generated object graphs, by component type. */
+  private final Map<TypeElement, ClassName> objectGraphs = new LinkedHashMap<>();
+  private boolean recordedThisRound;
+  private boolean written;
+
+  RegistryGenerator(ProcessingEnvironment processingEnv, String registryName) {
+    this.processingEnv = processingEnv;
+    this.registryName = ClassName.bestGuess(registryName);
+  }
+
+  /**
+   * Records the object graph generated for the component, if the component type is visible from the registry.
+   */
+  void record(TypeElement component, ClassName objectGraph) {
+    if (!isVisibleFromRegistry(component)) {
+      return;
+    }
+    if (written) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+          "Registry " + registryName + " has already been generated in a previous round", component);
+      return;
+    }
+    objectGraphs.put(component, objectGraph);
+    recordedThisRound = true;
+  }
+
+  /**
+   * Called at the end of each round; writes the registry if this round didn't record new object graphs.
+   */
+  void endRound() {
+    if (!written && !recordedThisRound && !objectGraphs.isEmpty()) {
+      write();
+      written = true;
+    }
+    recordedThisRound = false;
+  }
+
+  private boolean isVisibleFromRegistry(TypeElement component) {
+    switch (Visibility.effectiveVisibilityOfElement(component)) {
+      case PUBLIC:
+        return true;
+      case PROTECTED:
+      case DEFAULT:
+        return MoreElements.getPackage(component).getQualifiedName().contentEquals(registryName.packageName());
+      case PRIVATE:
+        return false;
+      default:
+        throw new AssertionError();
+    }
+  }
+
+  private void write() {
+    // Order component types from most-specific to least-specific: ClassIndexCache picks the smallest index among all
+    // the supertypes of the runtime class of the component. Component hierarchies cannot be cyclic.
+    List<TypeElement> components = MostSpecificFirst.sort(processingEnv.getTypeUtils(), objectGraphs.keySet());
+
+    CodeBlock.Builder classLiterals = CodeBlock.builder();
+    MethodSpec.Builder ofBuilder = MethodSpec.methodBuilder("of")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .returns(OBJECT_GRAPH)
+        .addParameter(Object.class, "component", FINAL)
+        .addCode("switch (componentIndexCache.get(component.getClass())) {\n$>");
+    for (int i = 0; i < components.size(); i++) {
+      ClassName componentName = ClassName.get(components.get(i));
+      classLiterals.add(i > 0 ? ",\n$T.class" : "$T.class", componentName);
+      ofBuilder.addCode("case $L:\n$>", i)
+          .addCode("return new $T(($T) component);\n$<", objectGraphs.get(components.get(i)), componentName);
+    }
+    ofBuilder.addCode("default:\n$>")
+        .addCode("return null;\n$<")
+        .addCode("$<}\n");
+
+    TypeSpec.Builder registryBuilder = TypeSpec.classBuilder(registryName.simpleName());
+    for (TypeElement component : components) {
+      registryBuilder.addOriginatingElement(component);
+    }
+    TypeSpec registry = registryBuilder
+        .addAnnotation(AnnotationSpec.builder(Generated.class)
+            .addMember("value", "$S", ComponentProcessor.class.getCanonicalName())
+            .build())
+        .addModifiers(PUBLIC, FINAL)
+        .addSuperinterface(REGISTRY)
+        .addField(FieldSpec.builder(CLASS_INDEX_CACHE, "componentIndexCache", PRIVATE, STATIC, FINAL)
+            .initializer("new $T(new $T(new $T<?>[] {\n$>$>$L$<$<\n}))", CLASS_INDEX_CACHE, PERFECT_CLASS_INDEX_HASH_TABLE, Class.class, classLiterals.build())
+            .build())
+        .addMethod(ofBuilder.build())
+        .build();
+    try {
+      JavaFile.builder(registryName.packageName(), registry)
+          .build()
+          .writeTo(processingEnv.getFiler());
+    } catch (IOException ioe) {
+      StringWriter sw = new StringWriter();
+      PrintWriter pw = new PrintWriter(sw);
+      pw.println("Error generating source file for type " + registryName);
+      ioe.printStackTrace(pw);
+      pw.close();
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, sw.toString());
+    }
+  }
+}
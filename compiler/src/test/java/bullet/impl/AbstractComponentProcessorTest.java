@@ -70,16 +70,32 @@ public abstract class AbstractComponentProcessorTest {
     JavaFileObject generatedBullet = JavaFileObjects.forSourceLines("test.BulletSimpleComponent",
         "package test;\n" +
             "\n" +
+            "import bullet.Key;\n" +
             "import bullet.ObjectGraph;\n" +
+            "import bullet.WarmUp;\n" +
+            "import bullet.impl.DoubleCheckLazy;\n" +
+            "import bullet.impl.GraphWarmUp;\n" +
+            "import dagger.Lazy;\n" +
+            "import dagger.MembersInjector;\n" +
+            "import java.lang.AssertionError;\n" +
             "import java.lang.Class;\n" +
             "import java.lang.IllegalArgumentException;\n" +
+            "import java.lang.Iterable;\n" +
+            "import java.lang.Object;\n" +
             "import java.lang.Override;\n" +
+            "import java.lang.String;\n" +
+            "import java.lang.SuppressWarnings;\n" +
+            "import java.lang.annotation.Annotation;\n" +
+            "import java.util.concurrent.Executor;\n" +
             "import javax.annotation.Generated;\n" +
+            "import javax.inject.Provider;\n" +
             "\n" +
             "@Generated(\"bullet.impl.ComponentProcessor\")\n" +
             "public final class BulletSimpleComponent implements ObjectGraph {\n" +
             "  private final SimpleComponent component;\n" +
             "\n" +
+            "  private final Provider<?>[] handles = new Provider<?>[1];\n" +
+            "\n" +
             "  public BulletSimpleComponent(final SimpleComponent component) {\n" +
             "    this.component = component;\n" +
             "  }\n" +
@@ -93,9 +109,162 @@ public abstract class AbstractComponentProcessorTest {
             "  }\n" +
             "\n" +
             "  @Override\n" +
+            "  public <T> T tryGet(final Class<T> type) {\n" +
+            "    if (type == SomeInjectableType.class) {\n" +
+            "      return type.cast(this.component.someInjectableType());\n" +
+            "    }\n" +
+            "    return null;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type) {\n" +
+            "    return type == SomeInjectableType.class;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> T get(final Key<T> key) {\n" +
+            "    if (key.getType() instanceof Class) {\n" +
+            "      return get((Class<T>) key.getType());\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + key + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Key<?> key) {\n" +
+            "    return key.getType() instanceof Class && canProvide((Class<?>) key.getType());\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @\" + qualifier.getName() + \" \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final String name) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @Named(\\\"\" + name + \"\\\") \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final String name) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> Provider<T> provider(final Class<T> type) {\n" +
+            "    if (type == SomeInjectableType.class) {\n" +
+            "      return (Provider<T>) new Provider<SomeInjectableType>() {\n" +
+            "        @Override\n" +
+            "        public SomeInjectableType get() {\n" +
+            "          return component.someInjectableType();\n" +
+            "        }\n" +
+            "      };\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> Lazy<T> lazy(final Class<T> type) {\n" +
+            "    return DoubleCheckLazy.create(provider(type));\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> Provider<T> handle(final Class<T> type) {\n" +
+            "    final int index;\n" +
+            "    if (type == SomeInjectableType.class) {\n" +
+            "      index = 0;\n" +
+            "    } else {\n" +
+            "      throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "    }\n" +
+            "    Provider<?> handle = handles[index];\n" +
+            "    if (handle == null) {\n" +
+            "      handles[index] = handle = provider(type);\n" +
+            "    }\n" +
+            "    return (Provider<T>) handle;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
             "  public <T> T inject(final T instance) {\n" +
             "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
             "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean tryInject(final Object instance) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Object[] instances) {\n" +
+            "    for (Object instance : instances) {\n" +
+            "      inject(instance);\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Iterable<?> instances) {\n" +
+            "    for (Object instance : instances) {\n" +
+            "      inject(instance);\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> MembersInjector<T> membersInjector(final Class<T> type) {\n" +
+            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canInject(final Class<?> type) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType) {\n" +
+            "    if (subcomponentType == SimpleSubcomponent.class) {\n" +
+            "      return new BulletSimpleSubcomponent(this.component.simpleSubcomponent());\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object module) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    if (subcomponentType == SimpleSubcomponent.class && modules.length == 0) {\n" +
+            "      return new BulletSimpleSubcomponent(this.component.simpleSubcomponent());\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canPlus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    return subcomponentType == SimpleSubcomponent.class && modules.length == 0;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public WarmUp warmUp(final Executor executor) {\n" +
+            "    return new GraphWarmUp(new String[] {\n" +
+            "        \"someInjectableType()\"\n" +
+            "    }) {\n" +
+            "      @Override\n" +
+            "      protected Object provide(final int index) {\n" +
+            "        switch (index) {\n" +
+            "          case 0:\n" +
+            "            return component.someInjectableType();\n" +
+            "        }\n" +
+            "        throw new AssertionError();\n" +
+            "      }\n" +
+            "    }.start(executor);\n" +
+            "  }\n" +
             "}");
     assert_().about(javaSources()).that(ImmutableList.of(injectableTypeFile, otherInjectableTypeFile, subcomponentFile, componentFile))
         .processedWith(new ComponentProcessor())
@@ -125,24 +294,44 @@ public abstract class AbstractComponentProcessorTest {
     JavaFileObject generatedBullet = JavaFileObjects.forSourceLines("test.BulletOuterType_SimpleComponent",
         "package test;\n" +
             "\n" +
+            "import bullet.Key;\n" +
             "import bullet.ObjectGraph;\n" +
-            "import bullet.impl.ClassIndexHashTable;\n" +
+            "import bullet.WarmUp;\n" +
+            "import bullet.impl.ClassIndexCache;\n" +
+            "import bullet.impl.DoubleCheckLazy;\n" +
+            "import bullet.impl.GraphWarmUp;\n" +
+            "import bullet.impl.PerfectClassIndexHashTable;\n" +
+            "import dagger.Lazy;\n" +
+            "import dagger.MembersInjector;\n" +
+            "import java.lang.AssertionError;\n" +
             "import java.lang.Class;\n" +
             "import java.lang.IllegalArgumentException;\n" +
+            "import java.lang.Iterable;\n" +
+            "import java.lang.Object;\n" +
             "import java.lang.Override;\n" +
+            "import java.lang.String;\n" +
+            "import java.lang.SuppressWarnings;\n" +
+            "import java.lang.annotation.Annotation;\n" +
+            "import java.util.concurrent.Executor;\n" +
             "import javax.annotation.Generated;\n" +
+            "import javax.inject.Provider;\n" +
             "\n" +
             "@Generated(\"bullet.impl.ComponentProcessor\")\n" +
             "public final class BulletOuterType_SimpleComponent implements ObjectGraph {\n" +
-            "  private static final ClassIndexHashTable classIndexHashTable;\n" +
+            "  private static final PerfectClassIndexHashTable classIndexHashTable;\n" +
+            "\n" +
+            "  private static final ClassIndexCache classIndexCache;\n" +
             "\n" +
             "  static {\n" +
-            "    classIndexHashTable = new ClassIndexHashTable(3);\n" +
-            "    classIndexHashTable.put(OuterType.B.class, (char) 0);\n" +
+            "    classIndexHashTable = new PerfectClassIndexHashTable(\n" +
+            "        OuterType.B.class);\n" +
+            "    classIndexCache = new ClassIndexCache(classIndexHashTable);\n" +
             "  }\n" +
             "\n" +
             "  private final OuterType.SimpleComponent component;\n" +
             "\n" +
+            "  private final Provider<?>[] handles = new Provider<?>[1];\n" +
+            "\n" +
             "  public BulletOuterType_SimpleComponent(final OuterType.SimpleComponent component) {\n" +
             "    this.component = component;\n" +
             "  }\n" +
@@ -156,17 +345,197 @@ public abstract class AbstractComponentProcessorTest {
             "  }\n" +
             "\n" +
             "  @Override\n" +
+            "  public <T> T tryGet(final Class<T> type) {\n" +
+            "    if (type == OuterType.A.class) {\n" +
+            "      return type.cast(this.component.a());\n" +
+            "    }\n" +
+            "    return null;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type) {\n" +
+            "    return type == OuterType.A.class;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> T get(final Key<T> key) {\n" +
+            "    if (key.getType() instanceof Class) {\n" +
+            "      return get((Class<T>) key.getType());\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + key + \" in OuterType.SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Key<?> key) {\n" +
+            "    return key.getType() instanceof Class && canProvide((Class<?>) key.getType());\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @\" + qualifier.getName() + \" \" + type.getName() + \" in OuterType.SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final String name) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @Named(\\\"\" + name + \"\\\") \" + type.getName() + \" in OuterType.SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final String name) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> Provider<T> provider(final Class<T> type) {\n" +
+            "    if (type == OuterType.A.class) {\n" +
+            "      return (Provider<T>) new Provider<OuterType.A>() {\n" +
+            "        @Override\n" +
+            "        public OuterType.A get() {\n" +
+            "          return component.a();\n" +
+            "        }\n" +
+            "      };\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in OuterType.SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> Lazy<T> lazy(final Class<T> type) {\n" +
+            "    return DoubleCheckLazy.create(provider(type));\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> Provider<T> handle(final Class<T> type) {\n" +
+            "    final int index;\n" +
+            "    if (type == OuterType.A.class) {\n" +
+            "      index = 0;\n" +
+            "    } else {\n" +
+            "      throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in OuterType.SimpleComponent.\");\n" +
+            "    }\n" +
+            "    Provider<?> handle = handles[index];\n" +
+            "    if (handle == null) {\n" +
+            "      handles[index] = handle = provider(type);\n" +
+            "    }\n" +
+            "    return (Provider<T>) handle;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
             "  public <T> T inject(final T instance) {\n" +
-            "    Class<?> c = instance.getClass();\n" +
-            "    while (c != Object.class) {\n" +
-            "      switch (classIndexHashTable.get(c)) {\n" +
-            "        case 0:\n" +
-            "          this.component.inject((OuterType.B) instance);\n" +
-            "          return instance;\n" +
+            "    if (!injectMembers(classIndex(instance.getClass()), instance)) {\n" +
+            "      throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in OuterType.SimpleComponent.\");\n" +
+            "    }\n" +
+            "    return instance;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean tryInject(final Object instance) {\n" +
+            "    return injectMembers(classIndex(instance.getClass()), instance);\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Object[] instances) {\n" +
+            "    Class<?> c = null;\n" +
+            "    int index = -1;\n" +
+            "    for (Object instance : instances) {\n" +
+            "      if (instance.getClass() != c) {\n" +
+            "        c = instance.getClass();\n" +
+            "        index = classIndex(c);\n" +
+            "      }\n" +
+            "      if (!injectMembers(index, instance)) {\n" +
+            "        throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in OuterType.SimpleComponent.\");\n" +
+            "      }\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Iterable<?> instances) {\n" +
+            "    Class<?> c = null;\n" +
+            "    int index = -1;\n" +
+            "    for (Object instance : instances) {\n" +
+            "      if (instance.getClass() != c) {\n" +
+            "        c = instance.getClass();\n" +
+            "        index = classIndex(c);\n" +
+            "      }\n" +
+            "      if (!injectMembers(index, instance)) {\n" +
+            "        throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in OuterType.SimpleComponent.\");\n" +
             "      }\n" +
-            "      c = c.getSuperclass();\n" +
             "    }\n" +
-            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in OuterType.SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> MembersInjector<T> membersInjector(final Class<T> type) {\n" +
+            "    switch (classIndex(type)) {\n" +
+            "      case 0:\n" +
+            "        return (MembersInjector<T>) new MembersInjector<OuterType.B>() {\n" +
+            "          @Override\n" +
+            "          public void injectMembers(final OuterType.B instance) {\n" +
+            "            component.inject(instance);\n" +
+            "          }\n" +
+            "        };\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + type.getName() + \" in OuterType.SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canInject(final Class<?> type) {\n" +
+            "    return classIndex(type) >= 0;\n" +
+            "  }\n" +
+            "\n" +
+            "  private static int classIndex(final Class<?> c) {\n" +
+            "    return classIndexCache.get(c);\n" +
+            "  }\n" +
+            "\n" +
+            "  private boolean injectMembers(final int index, final Object instance) {\n" +
+            "    switch (index) {\n" +
+            "      case 0:\n" +
+            "        this.component.inject((OuterType.B) instance);\n" +
+            "        return true;\n" +
+            "    }\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in OuterType.SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object module) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in OuterType.SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in OuterType.SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canPlus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public WarmUp warmUp(final Executor executor) {\n" +
+            "    return new GraphWarmUp(new String[] {\n" +
+            "        \"a()\"\n" +
+            "    }) {\n" +
+            "      @Override\n" +
+            "      protected Object provide(final int index) {\n" +
+            "        switch (index) {\n" +
+            "          case 0:\n" +
+            "            return component.a();\n" +
+            "        }\n" +
+            "        throw new AssertionError();\n" +
+            "      }\n" +
+            "    }.start(executor);\n" +
             "  }\n" +
             "}");
     assert_().about(javaSources()).that(ImmutableList.of(nestedTypesFile))
@@ -175,167 +544,389 @@ public abstract class AbstractComponentProcessorTest {
         .and().generatesSources(generatedBullet);
   }
 
-  @Test public void membersInjectionTypePrecedence() {
-    // XXX: Dagger‡ doesn't support @Inject on abstract methods (e.g. interfaces), but we support it here anyway.
-    JavaFileObject iFile = JavaFileObjects.forSourceLines("test.I",
-        "package test;",
-        "",
-        "import javax.inject.Inject;",
-        "",
-        "interface I {",
-        "  @Inject void setE(E e);",
-        "}");
-    JavaFileObject i2File = JavaFileObjects.forSourceLines("test.I2",
-        "package test;",
-        "",
-        "import javax.inject.Inject;",
-        "",
-        "interface I2 extends I {",
-        "  @Inject void setC(C c);",
-        "}");
-    JavaFileObject aFile = JavaFileObjects.forSourceLines("test.A",
-        "package test;",
-        "",
-        "import javax.inject.Inject;",
-        "",
-        "final class A implements I {",
-        "  @Inject public void setE(E e) {};",
-        "}");
-    JavaFileObject bFile = JavaFileObjects.forSourceLines("test.B",
-        "package test;",
-        "",
-        "import javax.inject.Inject;",
-        "",
-        "class B {",
-        "  @Inject A a;",
-        "}");
-    JavaFileObject cFile = JavaFileObjects.forSourceLines("test.C",
-        "package test;",
-        "",
-        "import javax.inject.Inject;",
-        "import javax.inject.Provider;",
-        "",
-        "final class C extends B {",
-        "  @Inject Provider<I> iProvider;",
-        "}");
-    JavaFileObject dFile = JavaFileObjects.forSourceLines("test.D",
-        "package test;",
-        "",
-        "import javax.inject.Inject;",
-        "",
-        "final class D implements I2 {",
-        "  @Inject public void setC(C c) {}",
-        "  @Inject public void setE(E e) {}",
-        "}");
-    JavaFileObject eFile = JavaFileObjects.forSourceLines("test.E",
-        "package test;",
-        "",
-        "import javax.inject.Inject;",
-        "",
-        "final class E {",
-        " @Inject E() {}",
-        "}");
-    JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.SimpleComponent",
+  @Test public void largeComponent() {
+    // More than MAX_PROVISION_IF_CHAIN_SIZE provision types switch get() to a hash table lookup
+    JavaFileObject nestedTypesFile = JavaFileObjects.forSourceLines("test.OuterType",
         "package test;",
         "",
         "import " + getComponentType().getCanonicalName() + ";",
+        "import javax.inject.Inject;",
         "",
-        "@" + getComponentType().getSimpleName(),
-        "interface SimpleComponent {",
-        "  void inject(I i);",
-        "  void inject(I2 i1);",
-        "  void inject(A a);",
-        "  void inject(B b);",
-        "  void inject(C c);",
-        "  void inject(D d);",
+        "final class OuterType {",
+        "  final static class A { @Inject A() {} }",
+        "  final static class B { @Inject B() {} }",
+        "  final static class C { @Inject C() {} }",
+        "  final static class D { @Inject D() {} }",
+        "  final static class E { @Inject E() {} }",
+        "  final static class F { @Inject F() {} }",
+        "  final static class G { @Inject G() {} }",
+        "  final static class H { @Inject H() {} }",
+        "  final static class I { @Inject I() {} }",
+        "  @" + getComponentType().getSimpleName() + " interface LargeComponent {",
+        "    A a();",
+        "    B b();",
+        "    C c();",
+        "    D d();",
+        "    E e();",
+        "    F f();",
+        "    G g();",
+        "    H h();",
+        "    I i();",
+        "  }",
         "}");
-    JavaFileObject generatedBullet = JavaFileObjects.forSourceLines("test.BulletSimpleComponent",
+    JavaFileObject generatedBullet = JavaFileObjects.forSourceLines("test.BulletOuterType_LargeComponent",
         "package test;\n" +
             "\n" +
+            "import bullet.Key;\n" +
             "import bullet.ObjectGraph;\n" +
-            "import bullet.impl.ClassIndexHashTable;\n" +
+            "import bullet.WarmUp;\n" +
+            "import bullet.impl.DoubleCheckLazy;\n" +
+            "import bullet.impl.GraphWarmUp;\n" +
+            "import bullet.impl.PerfectClassIndexHashTable;\n" +
+            "import dagger.Lazy;\n" +
+            "import dagger.MembersInjector;\n" +
+            "import java.lang.AssertionError;\n" +
             "import java.lang.Class;\n" +
             "import java.lang.IllegalArgumentException;\n" +
+            "import java.lang.Iterable;\n" +
+            "import java.lang.Object;\n" +
             "import java.lang.Override;\n" +
+            "import java.lang.String;\n" +
+            "import java.lang.SuppressWarnings;\n" +
+            "import java.lang.annotation.Annotation;\n" +
+            "import java.util.concurrent.Executor;\n" +
             "import javax.annotation.Generated;\n" +
+            "import javax.inject.Provider;\n" +
             "\n" +
             "@Generated(\"bullet.impl.ComponentProcessor\")\n" +
-            "public final class BulletSimpleComponent implements ObjectGraph {\n" +
-            "  private static final ClassIndexHashTable classIndexHashTable;\n" +
+            "public final class BulletOuterType_LargeComponent implements ObjectGraph {\n" +
+            "  private static final PerfectClassIndexHashTable provisionClassIndexHashTable;\n" +
             "\n" +
             "  static {\n" +
-            "    classIndexHashTable = new ClassIndexHashTable(11);\n" +
-            "    classIndexHashTable.put(A.class, (char) 0);\n" +
-            "    classIndexHashTable.put(C.class, (char) 1);\n" +
-            "    classIndexHashTable.put(B.class, (char) 2);\n" +
-            "    classIndexHashTable.put(D.class, (char) 3);\n" +
-            "    classIndexHashTable.put(I2.class, (char) 4);\n" +
-            "    classIndexHashTable.put(I.class, (char) 5);\n" +
+            "    provisionClassIndexHashTable = new PerfectClassIndexHashTable(\n" +
+            "        OuterType.A.class,\n" +
+            "        OuterType.B.class,\n" +
+            "        OuterType.C.class,\n" +
+            "        OuterType.D.class,\n" +
+            "        OuterType.E.class,\n" +
+            "        OuterType.F.class,\n" +
+            "        OuterType.G.class,\n" +
+            "        OuterType.H.class,\n" +
+            "        OuterType.I.class);\n" +
             "  }\n" +
             "\n" +
-            "  private final SimpleComponent component;\n" +
+            "  private final OuterType.LargeComponent component;\n" +
             "\n" +
-            "  public BulletSimpleComponent(final SimpleComponent component) {\n" +
+            "  private final Provider<?>[] handles = new Provider<?>[9];\n" +
+            "\n" +
+            "  public BulletOuterType_LargeComponent(final OuterType.LargeComponent component) {\n" +
             "    this.component = component;\n" +
             "  }\n" +
             "\n" +
             "  @Override\n" +
             "  public <T> T get(final Class<T> type) {\n" +
-            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "    switch (provisionClassIndexHashTable.get(type)) {\n" +
+            "      case 0:\n" +
+            "        return type.cast(this.component.a());\n" +
+            "      case 1:\n" +
+            "        return type.cast(this.component.b());\n" +
+            "      case 2:\n" +
+            "        return type.cast(this.component.c());\n" +
+            "      case 3:\n" +
+            "        return type.cast(this.component.d());\n" +
+            "      case 4:\n" +
+            "        return type.cast(this.component.e());\n" +
+            "      case 5:\n" +
+            "        return type.cast(this.component.f());\n" +
+            "      case 6:\n" +
+            "        return type.cast(this.component.g());\n" +
+            "      case 7:\n" +
+            "        return type.cast(this.component.h());\n" +
+            "      case 8:\n" +
+            "        return type.cast(this.component.i());\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in OuterType.LargeComponent.\");\n" +
             "  }\n" +
             "\n" +
             "  @Override\n" +
-            "  public <T> T inject(final T instance) {\n" +
-            "    Class<?> c = instance.getClass();\n" +
-            "    while (c != Object.class) {\n" +
-            "      switch (classIndexHashTable.get(c)) {\n" +
-            "        case 0:\n" +
-            "          this.component.inject((A) instance);\n" +
-            "          return instance;\n" +
-            "        case 1:\n" +
-            "          this.component.inject((C) instance);\n" +
-            "          return instance;\n" +
-            "        case 2:\n" +
-            "          this.component.inject((B) instance);\n" +
-            "          return instance;\n" +
-            "        case 3:\n" +
-            "          this.component.inject((D) instance);\n" +
-            "          return instance;\n" +
-            "        case 4:\n" +
-            "          this.component.inject((I2) instance);\n" +
-            "          return instance;\n" +
-            "        case 5:\n" +
-            "          this.component.inject((I) instance);\n" +
-            "          return instance;\n" +
-            "      }\n" +
-            "      c = c.getSuperclass();\n" +
+            "  public <T> T tryGet(final Class<T> type) {\n" +
+            "    switch (provisionClassIndexHashTable.get(type)) {\n" +
+            "      case 0:\n" +
+            "        return type.cast(this.component.a());\n" +
+            "      case 1:\n" +
+            "        return type.cast(this.component.b());\n" +
+            "      case 2:\n" +
+            "        return type.cast(this.component.c());\n" +
+            "      case 3:\n" +
+            "        return type.cast(this.component.d());\n" +
+            "      case 4:\n" +
+            "        return type.cast(this.component.e());\n" +
+            "      case 5:\n" +
+            "        return type.cast(this.component.f());\n" +
+            "      case 6:\n" +
+            "        return type.cast(this.component.g());\n" +
+            "      case 7:\n" +
+            "        return type.cast(this.component.h());\n" +
+            "      case 8:\n" +
+            "        return type.cast(this.component.i());\n" +
             "    }\n" +
-            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "    return null;\n" +
             "  }\n" +
-            "}");
-    assert_().about(javaSources()).that(ImmutableList.of(iFile, i2File, aFile, bFile, cFile, dFile, eFile, componentFile))
-        .processedWith(new ComponentProcessor())
-        .compilesWithoutError()
-        .and().generatesSources(generatedBullet);
-  }
-
-  @Test public void membersInjectionTypePrecedence2() {
-    // See https://code.google.com/p/google-web-toolkit/issues/detail?id=8036
-    JavaFileObject dFile = JavaFileObjects.forSourceLines("test.D",
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type) {\n" +
+            "    return provisionClassIndexHashTable.get(type) >= 0;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> T get(final Key<T> key) {\n" +
+            "    if (key.getType() instanceof Class) {\n" +
+            "      return get((Class<T>) key.getType());\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + key + \" in OuterType.LargeComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Key<?> key) {\n" +
+            "    return key.getType() instanceof Class && canProvide((Class<?>) key.getType());\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @\" + qualifier.getName() + \" \" + type.getName() + \" in OuterType.LargeComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final String name) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @Named(\\\"\" + name + \"\\\") \" + type.getName() + \" in OuterType.LargeComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final String name) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> Provider<T> provider(final Class<T> type) {\n" +
+            "    switch (provisionClassIndexHashTable.get(type)) {\n" +
+            "      case 0:\n" +
+            "        return (Provider<T>) new Provider<OuterType.A>() {\n" +
+            "          @Override\n" +
+            "          public OuterType.A get() {\n" +
+            "            return component.a();\n" +
+            "          }\n" +
+            "        };\n" +
+            "      case 1:\n" +
+            "        return (Provider<T>) new Provider<OuterType.B>() {\n" +
+            "          @Override\n" +
+            "          public OuterType.B get() {\n" +
+            "            return component.b();\n" +
+            "          }\n" +
+            "        };\n" +
+            "      case 2:\n" +
+            "        return (Provider<T>) new Provider<OuterType.C>() {\n" +
+            "          @Override\n" +
+            "          public OuterType.C get() {\n" +
+            "            return component.c();\n" +
+            "          }\n" +
+            "        };\n" +
+            "      case 3:\n" +
+            "        return (Provider<T>) new Provider<OuterType.D>() {\n" +
+            "          @Override\n" +
+            "          public OuterType.D get() {\n" +
+            "            return component.d();\n" +
+            "          }\n" +
+            "        };\n" +
+            "      case 4:\n" +
+            "        return (Provider<T>) new Provider<OuterType.E>() {\n" +
+            "          @Override\n" +
+            "          public OuterType.E get() {\n" +
+            "            return component.e();\n" +
+            "          }\n" +
+            "        };\n" +
+            "      case 5:\n" +
+            "        return (Provider<T>) new Provider<OuterType.F>() {\n" +
+            "          @Override\n" +
+            "          public OuterType.F get() {\n" +
+            "            return component.f();\n" +
+            "          }\n" +
+            "        };\n" +
+            "      case 6:\n" +
+            "        return (Provider<T>) new Provider<OuterType.G>() {\n" +
+            "          @Override\n" +
+            "          public OuterType.G get() {\n" +
+            "            return component.g();\n" +
+            "          }\n" +
+            "        };\n" +
+            "      case 7:\n" +
+            "        return (Provider<T>) new Provider<OuterType.H>() {\n" +
+            "          @Override\n" +
+            "          public OuterType.H get() {\n" +
+            "            return component.h();\n" +
+            "          }\n" +
+            "        };\n" +
+            "      case 8:\n" +
+            "        return (Provider<T>) new Provider<OuterType.I>() {\n" +
+            "          @Override\n" +
+            "          public OuterType.I get() {\n" +
+            "            return component.i();\n" +
+            "          }\n" +
+            "        };\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in OuterType.LargeComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> Lazy<T> lazy(final Class<T> type) {\n" +
+            "    return DoubleCheckLazy.create(provider(type));\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> Provider<T> handle(final Class<T> type) {\n" +
+            "    final int index = provisionClassIndexHashTable.get(type);\n" +
+            "    if (index < 0) {\n" +
+            "      throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in OuterType.LargeComponent.\");\n" +
+            "    }\n" +
+            "    Provider<?> handle = handles[index];\n" +
+            "    if (handle == null) {\n" +
+            "      handles[index] = handle = provider(type);\n" +
+            "    }\n" +
+            "    return (Provider<T>) handle;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T inject(final T instance) {\n" +
+            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in OuterType.LargeComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean tryInject(final Object instance) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Object[] instances) {\n" +
+            "    for (Object instance : instances) {\n" +
+            "      inject(instance);\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Iterable<?> instances) {\n" +
+            "    for (Object instance : instances) {\n" +
+            "      inject(instance);\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> MembersInjector<T> membersInjector(final Class<T> type) {\n" +
+            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + type.getName() + \" in OuterType.LargeComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canInject(final Class<?> type) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in OuterType.LargeComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object module) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in OuterType.LargeComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in OuterType.LargeComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canPlus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public WarmUp warmUp(final Executor executor) {\n" +
+            "    return new GraphWarmUp(new String[] {\n" +
+            "        \"a()\",\n" +
+            "        \"b()\",\n" +
+            "        \"c()\",\n" +
+            "        \"d()\",\n" +
+            "        \"e()\",\n" +
+            "        \"f()\",\n" +
+            "        \"g()\",\n" +
+            "        \"h()\",\n" +
+            "        \"i()\"\n" +
+            "    }) {\n" +
+            "      @Override\n" +
+            "      protected Object provide(final int index) {\n" +
+            "        switch (index) {\n" +
+            "          case 0:\n" +
+            "            return component.a();\n" +
+            "          case 1:\n" +
+            "            return component.b();\n" +
+            "          case 2:\n" +
+            "            return component.c();\n" +
+            "          case 3:\n" +
+            "            return component.d();\n" +
+            "          case 4:\n" +
+            "            return component.e();\n" +
+            "          case 5:\n" +
+            "            return component.f();\n" +
+            "          case 6:\n" +
+            "            return component.g();\n" +
+            "          case 7:\n" +
+            "            return component.h();\n" +
+            "          case 8:\n" +
+            "            return component.i();\n" +
+            "        }\n" +
+            "        throw new AssertionError();\n" +
+            "      }\n" +
+            "    }.start(executor);\n" +
+            "  }\n" +
+            "}");
+    assert_().about(javaSources()).that(ImmutableList.of(nestedTypesFile))
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(generatedBullet);
+  }
+
+  @Test public void membersInjectionTypePrecedence() {
+    // XXX: Dagger‡ doesn't support @Inject on abstract methods (e.g. interfaces), but we support it here anyway.
+    JavaFileObject iFile = JavaFileObjects.forSourceLines("test.I",
         "package test;",
         "",
         "import javax.inject.Inject;",
         "",
-        "final class D {",
-        "  @Inject D() {}",
+        "interface I {",
+        "  @Inject void setE(E e);",
+        "}");
+    JavaFileObject i2File = JavaFileObjects.forSourceLines("test.I2",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "interface I2 extends I {",
+        "  @Inject void setC(C c);",
         "}");
     JavaFileObject aFile = JavaFileObjects.forSourceLines("test.A",
         "package test;",
         "",
         "import javax.inject.Inject;",
         "",
-        "class A {",
-        "  @Inject D d;",
+        "final class A implements I {",
+        "  @Inject public void setE(E e) {};",
         "}");
     JavaFileObject bFile = JavaFileObjects.forSourceLines("test.B",
         "package test;",
@@ -343,7 +934,7 @@ public abstract class AbstractComponentProcessorTest {
         "import javax.inject.Inject;",
         "",
         "class B {",
-        "  @Inject D d;",
+        "  @Inject A a;",
         "}");
     JavaFileObject cFile = JavaFileObjects.forSourceLines("test.C",
         "package test;",
@@ -351,8 +942,25 @@ public abstract class AbstractComponentProcessorTest {
         "import javax.inject.Inject;",
         "import javax.inject.Provider;",
         "",
-        "final class C extends A {",
-        "  @Inject B b;",
+        "final class C extends B {",
+        "  @Inject Provider<I> iProvider;",
+        "}");
+    JavaFileObject dFile = JavaFileObjects.forSourceLines("test.D",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class D implements I2 {",
+        "  @Inject public void setC(C c) {}",
+        "  @Inject public void setE(E e) {}",
+        "}");
+    JavaFileObject eFile = JavaFileObjects.forSourceLines("test.E",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class E {",
+        " @Inject E() {}",
         "}");
     JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.SimpleComponent",
         "package test;",
@@ -361,29 +969,52 @@ public abstract class AbstractComponentProcessorTest {
         "",
         "@" + getComponentType().getSimpleName(),
         "interface SimpleComponent {",
-        "  void inject(B b);",
+        "  void inject(I i);",
+        "  void inject(I2 i1);",
         "  void inject(A a);",
+        "  void inject(B b);",
         "  void inject(C c);",
+        "  void inject(D d);",
         "}");
     JavaFileObject generatedBullet = JavaFileObjects.forSourceLines("test.BulletSimpleComponent",
         "package test;\n" +
             "\n" +
+            "import bullet.Key;\n" +
             "import bullet.ObjectGraph;\n" +
-            "import bullet.impl.ClassIndexHashTable;\n" +
+            "import bullet.WarmUp;\n" +
+            "import bullet.impl.ClassIndexCache;\n" +
+            "import bullet.impl.DoubleCheckLazy;\n" +
+            "import bullet.impl.GraphWarmUp;\n" +
+            "import bullet.impl.PerfectClassIndexHashTable;\n" +
+            "import dagger.Lazy;\n" +
+            "import dagger.MembersInjector;\n" +
             "import java.lang.Class;\n" +
             "import java.lang.IllegalArgumentException;\n" +
+            "import java.lang.Iterable;\n" +
+            "import java.lang.Object;\n" +
             "import java.lang.Override;\n" +
+            "import java.lang.String;\n" +
+            "import java.lang.SuppressWarnings;\n" +
+            "import java.lang.annotation.Annotation;\n" +
+            "import java.util.concurrent.Executor;\n" +
             "import javax.annotation.Generated;\n" +
+            "import javax.inject.Provider;\n" +
             "\n" +
             "@Generated(\"bullet.impl.ComponentProcessor\")\n" +
             "public final class BulletSimpleComponent implements ObjectGraph {\n" +
-            "  private static final ClassIndexHashTable classIndexHashTable;\n" +
+            "  private static final PerfectClassIndexHashTable classIndexHashTable;\n" +
+            "\n" +
+            "  private static final ClassIndexCache classIndexCache;\n" +
             "\n" +
             "  static {\n" +
-            "    classIndexHashTable = new ClassIndexHashTable(7);\n" +
-            "    classIndexHashTable.put(C.class, (char) 0);\n" +
-            "    classIndexHashTable.put(A.class, (char) 1);\n" +
-            "    classIndexHashTable.put(B.class, (char) 2);\n" +
+            "    classIndexHashTable = new PerfectClassIndexHashTable(\n" +
+            "        A.class,\n" +
+            "        C.class,\n" +
+            "        B.class,\n" +
+            "        D.class,\n" +
+            "        I2.class,\n" +
+            "        I.class);\n" +
+            "    classIndexCache = new ClassIndexCache(classIndexHashTable);\n" +
             "  }\n" +
             "\n" +
             "  private final SimpleComponent component;\n" +
@@ -398,121 +1029,2328 @@ public abstract class AbstractComponentProcessorTest {
             "  }\n" +
             "\n" +
             "  @Override\n" +
+            "  public <T> T tryGet(final Class<T> type) {\n" +
+            "    return null;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> T get(final Key<T> key) {\n" +
+            "    if (key.getType() instanceof Class) {\n" +
+            "      return get((Class<T>) key.getType());\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + key + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Key<?> key) {\n" +
+            "    return key.getType() instanceof Class && canProvide((Class<?>) key.getType());\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @\" + qualifier.getName() + \" \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final String name) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @Named(\\\"\" + name + \"\\\") \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final String name) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> Provider<T> provider(final Class<T> type) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> Lazy<T> lazy(final Class<T> type) {\n" +
+            "    return DoubleCheckLazy.create(provider(type));\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> Provider<T> handle(final Class<T> type) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
             "  public <T> T inject(final T instance) {\n" +
-            "    Class<?> c = instance.getClass();\n" +
-            "    while (c != Object.class) {\n" +
-            "      switch (classIndexHashTable.get(c)) {\n" +
-            "        case 0:\n" +
-            "          this.component.inject((C) instance);\n" +
-            "          return instance;\n" +
-            "        case 1:\n" +
-            "          this.component.inject((A) instance);\n" +
-            "          return instance;\n" +
-            "        case 2:\n" +
-            "          this.component.inject((B) instance);\n" +
-            "          return instance;\n" +
-            "      }\n" +
-            "      c = c.getSuperclass();\n" +
+            "    if (!injectMembers(classIndex(instance.getClass()), instance)) {\n" +
+            "      throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
             "    }\n" +
-            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "    return instance;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean tryInject(final Object instance) {\n" +
+            "    return injectMembers(classIndex(instance.getClass()), instance);\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Object[] instances) {\n" +
+            "    Class<?> c = null;\n" +
+            "    int index = -1;\n" +
+            "    for (Object instance : instances) {\n" +
+            "      if (instance.getClass() != c) {\n" +
+            "        c = instance.getClass();\n" +
+            "        index = classIndex(c);\n" +
+            "      }\n" +
+            "      if (!injectMembers(index, instance)) {\n" +
+            "        throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "      }\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Iterable<?> instances) {\n" +
+            "    Class<?> c = null;\n" +
+            "    int index = -1;\n" +
+            "    for (Object instance : instances) {\n" +
+            "      if (instance.getClass() != c) {\n" +
+            "        c = instance.getClass();\n" +
+            "        index = classIndex(c);\n" +
+            "      }\n" +
+            "      if (!injectMembers(index, instance)) {\n" +
+            "        throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "      }\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> MembersInjector<T> membersInjector(final Class<T> type) {\n" +
+            "    switch (classIndex(type)) {\n" +
+            "      case 0:\n" +
+            "        return (MembersInjector<T>) new MembersInjector<A>() {\n" +
+            "          @Override\n" +
+            "          public void injectMembers(final A instance) {\n" +
+            "            component.inject(instance);\n" +
+            "          }\n" +
+            "        };\n" +
+            "      case 1:\n" +
+            "        return (MembersInjector<T>) new MembersInjector<C>() {\n" +
+            "          @Override\n" +
+            "          public void injectMembers(final C instance) {\n" +
+            "            component.inject(instance);\n" +
+            "          }\n" +
+            "        };\n" +
+            "      case 2:\n" +
+            "        return (MembersInjector<T>) new MembersInjector<B>() {\n" +
+            "          @Override\n" +
+            "          public void injectMembers(final B instance) {\n" +
+            "            component.inject(instance);\n" +
+            "          }\n" +
+            "        };\n" +
+            "      case 3:\n" +
+            "        return (MembersInjector<T>) new MembersInjector<D>() {\n" +
+            "          @Override\n" +
+            "          public void injectMembers(final D instance) {\n" +
+            "            component.inject(instance);\n" +
+            "          }\n" +
+            "        };\n" +
+            "      case 4:\n" +
+            "        return (MembersInjector<T>) new MembersInjector<I2>() {\n" +
+            "          @Override\n" +
+            "          public void injectMembers(final I2 instance) {\n" +
+            "            component.inject(instance);\n" +
+            "          }\n" +
+            "        };\n" +
+            "      case 5:\n" +
+            "        return (MembersInjector<T>) new MembersInjector<I>() {\n" +
+            "          @Override\n" +
+            "          public void injectMembers(final I instance) {\n" +
+            "            component.inject(instance);\n" +
+            "          }\n" +
+            "        };\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canInject(final Class<?> type) {\n" +
+            "    return classIndex(type) >= 0;\n" +
+            "  }\n" +
+            "\n" +
+            "  private static int classIndex(final Class<?> c) {\n" +
+            "    return classIndexCache.get(c);\n" +
+            "  }\n" +
+            "\n" +
+            "  private boolean injectMembers(final int index, final Object instance) {\n" +
+            "    switch (index) {\n" +
+            "      case 0:\n" +
+            "        this.component.inject((A) instance);\n" +
+            "        return true;\n" +
+            "      case 1:\n" +
+            "        this.component.inject((C) instance);\n" +
+            "        return true;\n" +
+            "      case 2:\n" +
+            "        this.component.inject((B) instance);\n" +
+            "        return true;\n" +
+            "      case 3:\n" +
+            "        this.component.inject((D) instance);\n" +
+            "        return true;\n" +
+            "      case 4:\n" +
+            "        this.component.inject((I2) instance);\n" +
+            "        return true;\n" +
+            "      case 5:\n" +
+            "        this.component.inject((I) instance);\n" +
+            "        return true;\n" +
+            "    }\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object module) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canPlus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public WarmUp warmUp(final Executor executor) {\n" +
+            "    return GraphWarmUp.NONE;\n" +
             "  }\n" +
             "}");
-    assert_().about(javaSources()).that(ImmutableList.of(dFile, aFile, bFile, cFile, componentFile))
+    assert_().about(javaSources()).that(ImmutableList.of(iFile, i2File, aFile, bFile, cFile, dFile, eFile, componentFile))
         .processedWith(new ComponentProcessor())
         .compilesWithoutError()
         .and().generatesSources(generatedBullet);
   }
 
-  @Test public void nonVisibleMethods() {
-    JavaFileObject aFile = JavaFileObjects.forSourceLines("other.A",
-        "package other;",
+  @Test public void membersInjectionTypePrecedence2() {
+    // See https://code.google.com/p/google-web-toolkit/issues/detail?id=8036
+    JavaFileObject dFile = JavaFileObjects.forSourceLines("test.D",
+        "package test;",
         "",
         "import javax.inject.Inject;",
         "",
-        "public final class A {",
-        "  @Inject A() {}",
+        "final class D {",
+        "  @Inject D() {}",
         "}");
-    JavaFileObject bFile = JavaFileObjects.forSourceLines("other.B",
-        "package other;",
+    JavaFileObject aFile = JavaFileObjects.forSourceLines("test.A",
+        "package test;",
         "",
         "import javax.inject.Inject;",
         "",
-        "public final class B {",
-        "  @Inject B() {}",
+        "class A {",
+        "  @Inject D d;",
         "}");
-    JavaFileObject cFile = JavaFileObjects.forSourceLines("other.C",
-        "package other;",
+    JavaFileObject bFile = JavaFileObjects.forSourceLines("test.B",
+        "package test;",
         "",
         "import javax.inject.Inject;",
         "",
-        "public final class C {",
-        "  @Inject C() {}",
+        "class B {",
+        "  @Inject D d;",
         "}");
-    JavaFileObject dFile = JavaFileObjects.forSourceLines("other.D",
-        "package other;",
+    JavaFileObject cFile = JavaFileObjects.forSourceLines("test.C",
+        "package test;",
         "",
         "import javax.inject.Inject;",
+        "import javax.inject.Provider;",
         "",
-        "final class D {",
-        "  @Inject D() {}",
+        "final class C extends A {",
+        "  @Inject B b;",
         "}");
-    JavaFileObject superComponentInOtherPackageFile = JavaFileObjects.forSourceLines("other.SuperComponentInOtherPackage",
-        "package other;",
+    JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.SimpleComponent",
+        "package test;",
         "",
-        "public class SuperComponentInOtherPackage {",
-        "  public A publicMethodInOtherPackage() { return null; }",
-        "  protected B protectedMethodInOtherPackage() { return null; }",
-        "  private C privateMethod() { return null; }",
-        "  public D nonVisibleReturnType() { return null; }",
-        "}");
+        "import " + getComponentType().getCanonicalName() + ";",
+        "",
+        "@" + getComponentType().getSimpleName(),
+        "interface SimpleComponent {",
+        "  void inject(B b);",
+        "  void inject(A a);",
+        "  void inject(C c);",
+        "}");
+    JavaFileObject generatedBullet = JavaFileObjects.forSourceLines("test.BulletSimpleComponent",
+        "package test;\n" +
+            "\n" +
+            "import bullet.Key;\n" +
+            "import bullet.ObjectGraph;\n" +
+            "import bullet.WarmUp;\n" +
+            "import bullet.impl.ClassIndexCache;\n" +
+            "import bullet.impl.DoubleCheckLazy;\n" +
+            "import bullet.impl.GraphWarmUp;\n" +
+            "import bullet.impl.PerfectClassIndexHashTable;\n" +
+            "import dagger.Lazy;\n" +
+            "import dagger.MembersInjector;\n" +
+            "import java.lang.Class;\n" +
+            "import java.lang.IllegalArgumentException;\n" +
+            "import java.lang.Iterable;\n" +
+            "import java.lang.Object;\n" +
+            "import java.lang.Override;\n" +
+            "import java.lang.String;\n" +
+            "import java.lang.SuppressWarnings;\n" +
+            "import java.lang.annotation.Annotation;\n" +
+            "import java.util.concurrent.Executor;\n" +
+            "import javax.annotation.Generated;\n" +
+            "import javax.inject.Provider;\n" +
+            "\n" +
+            "@Generated(\"bullet.impl.ComponentProcessor\")\n" +
+            "public final class BulletSimpleComponent implements ObjectGraph {\n" +
+            "  private static final PerfectClassIndexHashTable classIndexHashTable;\n" +
+            "\n" +
+            "  private static final ClassIndexCache classIndexCache;\n" +
+            "\n" +
+            "  static {\n" +
+            "    classIndexHashTable = new PerfectClassIndexHashTable(\n" +
+            "        B.class,\n" +
+            "        C.class,\n" +
+            "        A.class);\n" +
+            "    classIndexCache = new ClassIndexCache(classIndexHashTable);\n" +
+            "  }\n" +
+            "\n" +
+            "  private final SimpleComponent component;\n" +
+            "\n" +
+            "  public BulletSimpleComponent(final SimpleComponent component) {\n" +
+            "    this.component = component;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T tryGet(final Class<T> type) {\n" +
+            "    return null;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> T get(final Key<T> key) {\n" +
+            "    if (key.getType() instanceof Class) {\n" +
+            "      return get((Class<T>) key.getType());\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + key + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Key<?> key) {\n" +
+            "    return key.getType() instanceof Class && canProvide((Class<?>) key.getType());\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @\" + qualifier.getName() + \" \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final String name) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @Named(\\\"\" + name + \"\\\") \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final String name) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> Provider<T> provider(final Class<T> type) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> Lazy<T> lazy(final Class<T> type) {\n" +
+            "    return DoubleCheckLazy.create(provider(type));\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> Provider<T> handle(final Class<T> type) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T inject(final T instance) {\n" +
+            "    if (!injectMembers(classIndex(instance.getClass()), instance)) {\n" +
+            "      throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "    }\n" +
+            "    return instance;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean tryInject(final Object instance) {\n" +
+            "    return injectMembers(classIndex(instance.getClass()), instance);\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Object[] instances) {\n" +
+            "    Class<?> c = null;\n" +
+            "    int index = -1;\n" +
+            "    for (Object instance : instances) {\n" +
+            "      if (instance.getClass() != c) {\n" +
+            "        c = instance.getClass();\n" +
+            "        index = classIndex(c);\n" +
+            "      }\n" +
+            "      if (!injectMembers(index, instance)) {\n" +
+            "        throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "      }\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Iterable<?> instances) {\n" +
+            "    Class<?> c = null;\n" +
+            "    int index = -1;\n" +
+            "    for (Object instance : instances) {\n" +
+            "      if (instance.getClass() != c) {\n" +
+            "        c = instance.getClass();\n" +
+            "        index = classIndex(c);\n" +
+            "      }\n" +
+            "      if (!injectMembers(index, instance)) {\n" +
+            "        throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "      }\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> MembersInjector<T> membersInjector(final Class<T> type) {\n" +
+            "    switch (classIndex(type)) {\n" +
+            "      case 0:\n" +
+            "        return (MembersInjector<T>) new MembersInjector<B>() {\n" +
+            "          @Override\n" +
+            "          public void injectMembers(final B instance) {\n" +
+            "            component.inject(instance);\n" +
+            "          }\n" +
+            "        };\n" +
+            "      case 1:\n" +
+            "        return (MembersInjector<T>) new MembersInjector<C>() {\n" +
+            "          @Override\n" +
+            "          public void injectMembers(final C instance) {\n" +
+            "            component.inject(instance);\n" +
+            "          }\n" +
+            "        };\n" +
+            "      case 2:\n" +
+            "        return (MembersInjector<T>) new MembersInjector<A>() {\n" +
+            "          @Override\n" +
+            "          public void injectMembers(final A instance) {\n" +
+            "            component.inject(instance);\n" +
+            "          }\n" +
+            "        };\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canInject(final Class<?> type) {\n" +
+            "    return classIndex(type) >= 0;\n" +
+            "  }\n" +
+            "\n" +
+            "  private static int classIndex(final Class<?> c) {\n" +
+            "    return classIndexCache.get(c);\n" +
+            "  }\n" +
+            "\n" +
+            "  private boolean injectMembers(final int index, final Object instance) {\n" +
+            "    switch (index) {\n" +
+            "      case 0:\n" +
+            "        this.component.inject((B) instance);\n" +
+            "        return true;\n" +
+            "      case 1:\n" +
+            "        this.component.inject((C) instance);\n" +
+            "        return true;\n" +
+            "      case 2:\n" +
+            "        this.component.inject((A) instance);\n" +
+            "        return true;\n" +
+            "    }\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object module) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canPlus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public WarmUp warmUp(final Executor executor) {\n" +
+            "    return GraphWarmUp.NONE;\n" +
+            "  }\n" +
+            "}");
+    assert_().about(javaSources()).that(ImmutableList.of(dFile, aFile, bFile, cFile, componentFile))
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(generatedBullet);
+  }
+
+  @Test public void registeredSubclasses() {
+    JavaFileObject aFile = JavaFileObjects.forSourceLines("test.A",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class A {",
+        "  @Inject A() {}",
+        "}");
+    JavaFileObject bFile = JavaFileObjects.forSourceLines("test.B",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "class B {",
+        "  @Inject A a;",
+        "}");
+    JavaFileObject cFile = JavaFileObjects.forSourceLines("test.C",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class C extends B {",
+        "  @Inject A otherA;",
+        "}");
+    JavaFileObject dFile = JavaFileObjects.forSourceLines("test.D",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "abstract class D extends B {",
+        "  @Inject A otherA;",
+        "}");
+    JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.SimpleComponent",
+        "package test;",
+        "",
+        "import " + getComponentType().getCanonicalName() + ";",
+        "",
+        "@" + getComponentType().getSimpleName(),
+        "interface SimpleComponent {",
+        "  void inject(B b);",
+        "}");
+    JavaFileObject generatedBullet = JavaFileObjects.forSourceLines("test.BulletSimpleComponent",
+        "package test;\n" +
+            "\n" +
+            "import bullet.Key;\n" +
+            "import bullet.ObjectGraph;\n" +
+            "import bullet.WarmUp;\n" +
+            "import bullet.impl.ClassIndexCache;\n" +
+            "import bullet.impl.DoubleCheckLazy;\n" +
+            "import bullet.impl.GraphWarmUp;\n" +
+            "import bullet.impl.PerfectClassIndexHashTable;\n" +
+            "import dagger.Lazy;\n" +
+            "import dagger.MembersInjector;\n" +
+            "import java.lang.Class;\n" +
+            "import java.lang.IllegalArgumentException;\n" +
+            "import java.lang.Iterable;\n" +
+            "import java.lang.Object;\n" +
+            "import java.lang.Override;\n" +
+            "import java.lang.String;\n" +
+            "import java.lang.SuppressWarnings;\n" +
+            "import java.lang.annotation.Annotation;\n" +
+            "import java.util.concurrent.Executor;\n" +
+            "import javax.annotation.Generated;\n" +
+            "import javax.inject.Provider;\n" +
+            "\n" +
+            "@Generated(\"bullet.impl.ComponentProcessor\")\n" +
+            "public final class BulletSimpleComponent implements ObjectGraph {\n" +
+            "  private static final PerfectClassIndexHashTable classIndexHashTable;\n" +
+            "\n" +
+            "  private static final ClassIndexCache classIndexCache;\n" +
+            "\n" +
+            "  static {\n" +
+            "    classIndexHashTable = new PerfectClassIndexHashTable(\n" +
+            "        new Class<?>[] {\n" +
+            "          B.class,\n" +
+            "          C.class },\n" +
+            "        new char[] { 0, 0 });\n" +
+            "    classIndexCache = new ClassIndexCache(classIndexHashTable);\n" +
+            "  }\n" +
+            "\n" +
+            "  private final SimpleComponent component;\n" +
+            "\n" +
+            "  public BulletSimpleComponent(final SimpleComponent component) {\n" +
+            "    this.component = component;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T tryGet(final Class<T> type) {\n" +
+            "    return null;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> T get(final Key<T> key) {\n" +
+            "    if (key.getType() instanceof Class) {\n" +
+            "      return get((Class<T>) key.getType());\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + key + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Key<?> key) {\n" +
+            "    return key.getType() instanceof Class && canProvide((Class<?>) key.getType());\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @\" + qualifier.getName() + \" \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final String name) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @Named(\\\"\" + name + \"\\\") \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final String name) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> Provider<T> provider(final Class<T> type) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> Lazy<T> lazy(final Class<T> type) {\n" +
+            "    return DoubleCheckLazy.create(provider(type));\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> Provider<T> handle(final Class<T> type) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T inject(final T instance) {\n" +
+            "    if (!injectMembers(classIndex(instance.getClass()), instance)) {\n" +
+            "      throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "    }\n" +
+            "    return instance;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean tryInject(final Object instance) {\n" +
+            "    return injectMembers(classIndex(instance.getClass()), instance);\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Object[] instances) {\n" +
+            "    Class<?> c = null;\n" +
+            "    int index = -1;\n" +
+            "    for (Object instance : instances) {\n" +
+            "      if (instance.getClass() != c) {\n" +
+            "        c = instance.getClass();\n" +
+            "        index = classIndex(c);\n" +
+            "      }\n" +
+            "      if (!injectMembers(index, instance)) {\n" +
+            "        throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "      }\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Iterable<?> instances) {\n" +
+            "    Class<?> c = null;\n" +
+            "    int index = -1;\n" +
+            "    for (Object instance : instances) {\n" +
+            "      if (instance.getClass() != c) {\n" +
+            "        c = instance.getClass();\n" +
+            "        index = classIndex(c);\n" +
+            "      }\n" +
+            "      if (!injectMembers(index, instance)) {\n" +
+            "        throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "      }\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> MembersInjector<T> membersInjector(final Class<T> type) {\n" +
+            "    switch (classIndex(type)) {\n" +
+            "      case 0:\n" +
+            "        return (MembersInjector<T>) new MembersInjector<B>() {\n" +
+            "          @Override\n" +
+            "          public void injectMembers(final B instance) {\n" +
+            "            component.inject(instance);\n" +
+            "          }\n" +
+            "        };\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canInject(final Class<?> type) {\n" +
+            "    return classIndex(type) >= 0;\n" +
+            "  }\n" +
+            "\n" +
+            "  private static int classIndex(final Class<?> c) {\n" +
+            "    int index = classIndexHashTable.get(c);\n" +
+            "    return index >= 0 ? index : classIndexCache.get(c);\n" +
+            "  }\n" +
+            "\n" +
+            "  private boolean injectMembers(final int index, final Object instance) {\n" +
+            "    switch (index) {\n" +
+            "      case 0:\n" +
+            "        this.component.inject((B) instance);\n" +
+            "        return true;\n" +
+            "    }\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object module) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canPlus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public WarmUp warmUp(final Executor executor) {\n" +
+            "    return GraphWarmUp.NONE;\n" +
+            "  }\n" +
+            "}");
+    assert_().about(javaSources()).that(ImmutableList.of(aFile, bFile, cFile, dFile, componentFile))
+        .withCompilerOptions("-A" + ComponentProcessor.REGISTER_SUBCLASSES_OPTION + "=true")
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(generatedBullet);
+  }
+
+  @Test public void nonVisibleMethods() {
+    JavaFileObject aFile = JavaFileObjects.forSourceLines("other.A",
+        "package other;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "public final class A {",
+        "  @Inject A() {}",
+        "}");
+    JavaFileObject bFile = JavaFileObjects.forSourceLines("other.B",
+        "package other;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "public final class B {",
+        "  @Inject B() {}",
+        "}");
+    JavaFileObject cFile = JavaFileObjects.forSourceLines("other.C",
+        "package other;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "public final class C {",
+        "  @Inject C() {}",
+        "}");
+    JavaFileObject dFile = JavaFileObjects.forSourceLines("other.D",
+        "package other;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class D {",
+        "  @Inject D() {}",
+        "}");
+    JavaFileObject superComponentInOtherPackageFile = JavaFileObjects.forSourceLines("other.SuperComponentInOtherPackage",
+        "package other;",
+        "",
+        "public class SuperComponentInOtherPackage {",
+        "  public A publicMethodInOtherPackage() { return null; }",
+        "  protected B protectedMethodInOtherPackage() { return null; }",
+        "  private C privateMethod() { return null; }",
+        "  public D nonVisibleReturnType() { return null; }",
+        "}");
     JavaFileObject eFile = JavaFileObjects.forSourceLines("test.E",
         "package test;",
         "",
         "import javax.inject.Inject;",
         "",
-        "final class E {",
-        "  @Inject E() {}",
+        "final class E {",
+        "  @Inject E() {}",
+        "}");
+    JavaFileObject fFile = JavaFileObjects.forSourceLines("test.F",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class F {",
+        "  @Inject F() {}",
+        "}");
+    JavaFileObject superComponentFile = JavaFileObjects.forSourceLines("test.SuperComponent",
+        "package test;",
+        "",
+        "import other.SuperComponentInOtherPackage;",
+        "",
+        "class SuperComponent extends SuperComponentInOtherPackage {",
+        "  protected E protectedMethodInSamePackage() { return null; }",
+        "  private F privateMethod() { return null; }",
+        "}");
+    JavaFileObject gFile = JavaFileObjects.forSourceLines("test.G",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class G {",
+        "  @Inject G() {}",
+        "}");
+    JavaFileObject hFile = JavaFileObjects.forSourceLines("test.H",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class H {",
+        "  @Inject H() {}",
+        "}");
+    JavaFileObject iFile = JavaFileObjects.forSourceLines("test.I",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class I {",
+        "  @Inject I() {}",
+        "}");
+    JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.SimpleComponent",
+        "package test;",
+        "",
+        "import " + getComponentType().getCanonicalName() + ";",
+        "",
+        "@" + getComponentType().getSimpleName(),
+        "class SimpleComponent extends SuperComponent {",
+        "  protected G protectedMethod() { return null; }",
+        "  private H privateMethod() { return null; }",
+        "}");
+    JavaFileObject generatedBullet = JavaFileObjects.forSourceLines("test.BulletSimpleComponent",
+        "package test;\n" +
+            "\n" +
+            "import bullet.Key;\n" +
+            "import bullet.ObjectGraph;\n" +
+            "import bullet.WarmUp;\n" +
+            "import bullet.impl.DoubleCheckLazy;\n" +
+            "import bullet.impl.GraphWarmUp;\n" +
+            "import dagger.Lazy;\n" +
+            "import dagger.MembersInjector;\n" +
+            "import java.lang.AssertionError;\n" +
+            "import java.lang.Class;\n" +
+            "import java.lang.IllegalArgumentException;\n" +
+            "import java.lang.Iterable;\n" +
+            "import java.lang.Object;\n" +
+            "import java.lang.Override;\n" +
+            "import java.lang.String;\n" +
+            "import java.lang.SuppressWarnings;\n" +
+            "import java.lang.annotation.Annotation;\n" +
+            "import java.util.concurrent.Executor;\n" +
+            "import javax.annotation.Generated;\n" +
+            "import javax.inject.Provider;\n" +
+            "import other.A;\n" +
+            "\n" +
+            "@Generated(\"bullet.impl.ComponentProcessor\")\n" +
+            "public final class BulletSimpleComponent implements ObjectGraph {\n" +
+            "  private final SimpleComponent component;\n" +
+            "\n" +
+            "  private final Provider<?>[] handles = new Provider<?>[3];\n" +
+            "\n" +
+            "  public BulletSimpleComponent(final SimpleComponent component) {\n" +
+            "    this.component = component;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type) {\n" +
+            "    if (type == A.class) {\n" +
+            "      return type.cast(this.component.publicMethodInOtherPackage());\n" +
+            "    }\n" +
+            "    if (type == E.class) {\n" +
+            "      return type.cast(this.component.protectedMethodInSamePackage());\n" +
+            "    }\n" +
+            "    if (type == G.class) {\n" +
+            "      return type.cast(this.component.protectedMethod());\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T tryGet(final Class<T> type) {\n" +
+            "    if (type == A.class) {\n" +
+            "      return type.cast(this.component.publicMethodInOtherPackage());\n" +
+            "    }\n" +
+            "    if (type == E.class) {\n" +
+            "      return type.cast(this.component.protectedMethodInSamePackage());\n" +
+            "    }\n" +
+            "    if (type == G.class) {\n" +
+            "      return type.cast(this.component.protectedMethod());\n" +
+            "    }\n" +
+            "    return null;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type) {\n" +
+            "    return type == A.class\n" +
+            "        || type == E.class\n" +
+            "        || type == G.class;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> T get(final Key<T> key) {\n" +
+            "    if (key.getType() instanceof Class) {\n" +
+            "      return get((Class<T>) key.getType());\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + key + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Key<?> key) {\n" +
+            "    return key.getType() instanceof Class && canProvide((Class<?>) key.getType());\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @\" + qualifier.getName() + \" \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final String name) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @Named(\\\"\" + name + \"\\\") \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final String name) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> Provider<T> provider(final Class<T> type) {\n" +
+            "    if (type == A.class) {\n" +
+            "      return (Provider<T>) new Provider<A>() {\n" +
+            "        @Override\n" +
+            "        public A get() {\n" +
+            "          return component.publicMethodInOtherPackage();\n" +
+            "        }\n" +
+            "      };\n" +
+            "    }\n" +
+            "    if (type == E.class) {\n" +
+            "      return (Provider<T>) new Provider<E>() {\n" +
+            "        @Override\n" +
+            "        public E get() {\n" +
+            "          return component.protectedMethodInSamePackage();\n" +
+            "        }\n" +
+            "      };\n" +
+            "    }\n" +
+            "    if (type == G.class) {\n" +
+            "      return (Provider<T>) new Provider<G>() {\n" +
+            "        @Override\n" +
+            "        public G get() {\n" +
+            "          return component.protectedMethod();\n" +
+            "        }\n" +
+            "      };\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> Lazy<T> lazy(final Class<T> type) {\n" +
+            "    return DoubleCheckLazy.create(provider(type));\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> Provider<T> handle(final Class<T> type) {\n" +
+            "    final int index;\n" +
+            "    if (type == A.class) {\n" +
+            "      index = 0;\n" +
+            "    } else if (type == E.class) {\n" +
+            "      index = 1;\n" +
+            "    } else if (type == G.class) {\n" +
+            "      index = 2;\n" +
+            "    } else {\n" +
+            "      throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "    }\n" +
+            "    Provider<?> handle = handles[index];\n" +
+            "    if (handle == null) {\n" +
+            "      handles[index] = handle = provider(type);\n" +
+            "    }\n" +
+            "    return (Provider<T>) handle;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T inject(final T instance) {\n" +
+            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean tryInject(final Object instance) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Object[] instances) {\n" +
+            "    for (Object instance : instances) {\n" +
+            "      inject(instance);\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Iterable<?> instances) {\n" +
+            "    for (Object instance : instances) {\n" +
+            "      inject(instance);\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> MembersInjector<T> membersInjector(final Class<T> type) {\n" +
+            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canInject(final Class<?> type) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object module) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canPlus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public WarmUp warmUp(final Executor executor) {\n" +
+            "    return new GraphWarmUp(new String[] {\n" +
+            "        \"publicMethodInOtherPackage()\",\n" +
+            "        \"protectedMethodInSamePackage()\",\n" +
+            "        \"protectedMethod()\"\n" +
+            "    }) {\n" +
+            "      @Override\n" +
+            "      protected Object provide(final int index) {\n" +
+            "        switch (index) {\n" +
+            "          case 0:\n" +
+            "            return component.publicMethodInOtherPackage();\n" +
+            "          case 1:\n" +
+            "            return component.protectedMethodInSamePackage();\n" +
+            "          case 2:\n" +
+            "            return component.protectedMethod();\n" +
+            "        }\n" +
+            "        throw new AssertionError();\n" +
+            "      }\n" +
+            "    }.start(executor);\n" +
+            "  }\n" +
+            "}");
+    assert_().about(javaSources()).that(ImmutableList.of(
+        aFile, bFile, cFile, dFile, eFile, fFile, gFile, hFile, iFile,
+        superComponentInOtherPackageFile, superComponentFile, componentFile))
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(generatedBullet);
+  }
+
+  @Test public void provider() {
+    JavaFileObject injectableTypeFile = JavaFileObjects.forSourceLines("test.SomeInjectableType",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class SomeInjectableType {",
+        "  @Inject SomeInjectableType() {}",
+        "}");
+    JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.SimpleComponent",
+        "package test;",
+        "",
+        "import javax.inject.Provider;",
+        "import " + getComponentType().getCanonicalName() + ";",
+        "",
+        "@" + getComponentType().getSimpleName(),
+        "interface SimpleComponent {",
+        "  Provider<SomeInjectableType> someInjectableType();",
+        "}");
+    JavaFileObject generatedBullet = JavaFileObjects.forSourceLines("test.BulletSimpleComponent",
+        "package test;\n" +
+            "\n" +
+            "import bullet.Key;\n" +
+            "import bullet.ObjectGraph;\n" +
+            "import bullet.WarmUp;\n" +
+            "import bullet.impl.DoubleCheckLazy;\n" +
+            "import bullet.impl.GraphWarmUp;\n" +
+            "import dagger.Lazy;\n" +
+            "import dagger.MembersInjector;\n" +
+            "import java.lang.AssertionError;\n" +
+            "import java.lang.Class;\n" +
+            "import java.lang.IllegalArgumentException;\n" +
+            "import java.lang.Iterable;\n" +
+            "import java.lang.Object;\n" +
+            "import java.lang.Override;\n" +
+            "import java.lang.String;\n" +
+            "import java.lang.SuppressWarnings;\n" +
+            "import java.lang.annotation.Annotation;\n" +
+            "import java.util.concurrent.Executor;\n" +
+            "import javax.annotation.Generated;\n" +
+            "import javax.inject.Provider;\n" +
+            "\n" +
+            "@Generated(\"bullet.impl.ComponentProcessor\")\n" +
+            "public final class BulletSimpleComponent implements ObjectGraph {\n" +
+            "  private final SimpleComponent component;\n" +
+            "\n" +
+            "  private final Provider<?>[] handles = new Provider<?>[1];\n" +
+            "\n" +
+            "  public BulletSimpleComponent(final SimpleComponent component) {\n" +
+            "    this.component = component;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type) {\n" +
+            "    if (type == SomeInjectableType.class) {\n" +
+            "      return type.cast(this.component.someInjectableType().get());\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T tryGet(final Class<T> type) {\n" +
+            "    if (type == SomeInjectableType.class) {\n" +
+            "      return type.cast(this.component.someInjectableType().get());\n" +
+            "    }\n" +
+            "    return null;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type) {\n" +
+            "    return type == SomeInjectableType.class;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> T get(final Key<T> key) {\n" +
+            "    if (key.getType() instanceof Class) {\n" +
+            "      return get((Class<T>) key.getType());\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + key + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Key<?> key) {\n" +
+            "    return key.getType() instanceof Class && canProvide((Class<?>) key.getType());\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @\" + qualifier.getName() + \" \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final String name) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @Named(\\\"\" + name + \"\\\") \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final String name) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> Provider<T> provider(final Class<T> type) {\n" +
+            "    if (type == SomeInjectableType.class) {\n" +
+            "      return (Provider<T>) this.component.someInjectableType();\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> Lazy<T> lazy(final Class<T> type) {\n" +
+            "    return DoubleCheckLazy.create(provider(type));\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> Provider<T> handle(final Class<T> type) {\n" +
+            "    final int index;\n" +
+            "    if (type == SomeInjectableType.class) {\n" +
+            "      index = 0;\n" +
+            "    } else {\n" +
+            "      throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "    }\n" +
+            "    Provider<?> handle = handles[index];\n" +
+            "    if (handle == null) {\n" +
+            "      handles[index] = handle = provider(type);\n" +
+            "    }\n" +
+            "    return (Provider<T>) handle;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T inject(final T instance) {\n" +
+            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean tryInject(final Object instance) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Object[] instances) {\n" +
+            "    for (Object instance : instances) {\n" +
+            "      inject(instance);\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Iterable<?> instances) {\n" +
+            "    for (Object instance : instances) {\n" +
+            "      inject(instance);\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> MembersInjector<T> membersInjector(final Class<T> type) {\n" +
+            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canInject(final Class<?> type) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object module) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canPlus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public WarmUp warmUp(final Executor executor) {\n" +
+            "    return new GraphWarmUp(new String[] {\n" +
+            "        \"someInjectableType()\"\n" +
+            "    }) {\n" +
+            "      @Override\n" +
+            "      protected Object provide(final int index) {\n" +
+            "        switch (index) {\n" +
+            "          case 0:\n" +
+            "            return component.someInjectableType().get();\n" +
+            "        }\n" +
+            "        throw new AssertionError();\n" +
+            "      }\n" +
+            "    }.start(executor);\n" +
+            "  }\n" +
+            "}");
+    assert_().about(javaSources()).that(ImmutableList.of(injectableTypeFile, componentFile))
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(generatedBullet);
+  }
+
+  @Test public void qualifiers() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.QualifiersModule",
+        "package test;",
+        "",
+        "import dagger.Module;",
+        "import dagger.Provides;",
+        "import javax.inject.Named;",
+        "import javax.inject.Qualifier;",
+        "",
+        "@Qualifier @interface Primary {}",
+        "@Qualifier @interface WithValue { int value(); }",
+        "",
+        "@Module",
+        "final class QualifiersModule {",
+        "  @Provides @Primary String primary() { return \"primary\"; }",
+        "  @Provides @Named(\"secondary\") String secondary() { return \"secondary\"; }",
+        "  @Provides @Named(\"secondary\") Integer secondaryInteger() { return 2; }",
+        "  @Provides @WithValue(1) String withValue() { return \"1\"; }",
+        "}");
+    JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.SimpleComponent",
+        "package test;",
+        "",
+        "import dagger.Lazy;",
+        "import javax.inject.Named;",
+        "import javax.inject.Provider;",
+        "import " + getComponentType().getCanonicalName() + ";",
+        "",
+        "@" + getComponentType().getSimpleName() + "(modules = QualifiersModule.class)",
+        "interface SimpleComponent {",
+        "  @Primary String primary();",
+        "  @Named(\"secondary\") Provider<String> secondary();",
+        "  @Named(\"secondary\") Lazy<Integer> secondaryInteger();",
+        "  @WithValue(1) String withValue();",
+        "  @Primary String duplicatePrimary();",
+        "}");
+    JavaFileObject generatedBullet = JavaFileObjects.forSourceLines("test.BulletSimpleComponent",
+        "package test;\n" +
+            "\n" +
+            "import bullet.Key;\n" +
+            "import bullet.ObjectGraph;\n" +
+            "import bullet.WarmUp;\n" +
+            "import bullet.impl.DoubleCheckLazy;\n" +
+            "import bullet.impl.GraphWarmUp;\n" +
+            "import bullet.impl.PerfectQualifiedIndexHashTable;\n" +
+            "import dagger.Lazy;\n" +
+            "import dagger.MembersInjector;\n" +
+            "import java.lang.AssertionError;\n" +
+            "import java.lang.Class;\n" +
+            "import java.lang.IllegalArgumentException;\n" +
+            "import java.lang.Integer;\n" +
+            "import java.lang.Iterable;\n" +
+            "import java.lang.Object;\n" +
+            "import java.lang.Override;\n" +
+            "import java.lang.String;\n" +
+            "import java.lang.SuppressWarnings;\n" +
+            "import java.lang.annotation.Annotation;\n" +
+            "import java.util.concurrent.Executor;\n" +
+            "import javax.annotation.Generated;\n" +
+            "import javax.inject.Provider;\n" +
+            "\n" +
+            "@Generated(\"bullet.impl.ComponentProcessor\")\n" +
+            "public final class BulletSimpleComponent implements ObjectGraph {\n" +
+            "  private static final PerfectQualifiedIndexHashTable qualifiedProvisionIndexHashTable;\n" +
+            "\n" +
+            "  static {\n" +
+            "    qualifiedProvisionIndexHashTable = new PerfectQualifiedIndexHashTable(\n" +
+            "        new Class<?>[] {\n" +
+            "          String.class,\n" +
+            "          String.class,\n" +
+            "          Integer.class },\n" +
+            "        new Object[] {\n" +
+            "          Primary.class,\n" +
+            "          \"secondary\",\n" +
+            "          \"secondary\" });\n" +
+            "  }\n" +
+            "\n" +
+            "  private final SimpleComponent component;\n" +
+            "\n" +
+            "  public BulletSimpleComponent(final SimpleComponent component) {\n" +
+            "    this.component = component;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T tryGet(final Class<T> type) {\n" +
+            "    return null;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> T get(final Key<T> key) {\n" +
+            "    if (key.getType() instanceof Class) {\n" +
+            "      return get((Class<T>) key.getType());\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + key + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Key<?> key) {\n" +
+            "    return key.getType() instanceof Class && canProvide((Class<?>) key.getType());\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    int index = qualifiedProvisionIndexHashTable.get(type, qualifier);\n" +
+            "    if (index < 0) {\n" +
+            "      throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @\" + qualifier.getName() + \" \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "    }\n" +
+            "    return type.cast(getQualified(index));\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final String name) {\n" +
+            "    int index = qualifiedProvisionIndexHashTable.get(type, name);\n" +
+            "    if (index < 0) {\n" +
+            "      throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @Named(\\\"\" + name + \"\\\") \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "    }\n" +
+            "    return type.cast(getQualified(index));\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    return qualifiedProvisionIndexHashTable.get(type, qualifier) >= 0;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final String name) {\n" +
+            "    return qualifiedProvisionIndexHashTable.get(type, name) >= 0;\n" +
+            "  }\n" +
+            "\n" +
+            "  private Object getQualified(final int index) {\n" +
+            "    switch (index) {\n" +
+            "      case 0:\n" +
+            "        return this.component.primary();\n" +
+            "      case 1:\n" +
+            "        return this.component.secondary().get();\n" +
+            "      case 2:\n" +
+            "        return this.component.secondaryInteger().get();\n" +
+            "    }\n" +
+            "    throw new AssertionError();\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> Provider<T> provider(final Class<T> type) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> Lazy<T> lazy(final Class<T> type) {\n" +
+            "    return DoubleCheckLazy.create(provider(type));\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> Provider<T> handle(final Class<T> type) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T inject(final T instance) {\n" +
+            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean tryInject(final Object instance) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Object[] instances) {\n" +
+            "    for (Object instance : instances) {\n" +
+            "      inject(instance);\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Iterable<?> instances) {\n" +
+            "    for (Object instance : instances) {\n" +
+            "      inject(instance);\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> MembersInjector<T> membersInjector(final Class<T> type) {\n" +
+            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canInject(final Class<?> type) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object module) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canPlus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public WarmUp warmUp(final Executor executor) {\n" +
+            "    return new GraphWarmUp(new String[] {\n" +
+            "        \"primary()\",\n" +
+            "        \"secondary()\",\n" +
+            "        \"secondaryInteger()\",\n" +
+            "        \"withValue()\",\n" +
+            "        \"duplicatePrimary()\"\n" +
+            "    }) {\n" +
+            "      @Override\n" +
+            "      protected Object provide(final int index) {\n" +
+            "        switch (index) {\n" +
+            "          case 0:\n" +
+            "            return component.primary();\n" +
+            "          case 1:\n" +
+            "            return component.secondary().get();\n" +
+            "          case 2:\n" +
+            "            return component.secondaryInteger().get();\n" +
+            "          case 3:\n" +
+            "            return component.withValue();\n" +
+            "          case 4:\n" +
+            "            return component.duplicatePrimary();\n" +
+            "        }\n" +
+            "        throw new AssertionError();\n" +
+            "      }\n" +
+            "    }.start(executor);\n" +
+            "  }\n" +
+            "}");
+    assert_().about(javaSources()).that(ImmutableList.of(moduleFile, componentFile))
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(generatedBullet);
+  }
+
+  @Test public void parameterizedTypes() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.ParameterizedModule",
+        "package test;",
+        "",
+        "import dagger.Module;",
+        "import dagger.Provides;",
+        "import java.util.Collections;",
+        "import java.util.List;",
+        "import java.util.Map;",
+        "",
+        "@Module",
+        "final class ParameterizedModule {",
+        "  static final class Foo {}",
+        "",
+        "  @Provides List<String> strings() { return Collections.emptyList(); }",
+        "  @Provides List<Integer> integers() { return Collections.emptyList(); }",
+        "  @Provides Map<String, Foo[]> foos() { return Collections.emptyMap(); }",
+        "  @Provides List<? extends Number> numbers() { return Collections.emptyList(); }",
+        "}");
+    JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.SimpleComponent",
+        "package test;",
+        "",
+        "import java.util.List;",
+        "import java.util.Map;",
+        "import javax.inject.Provider;",
+        "import " + getComponentType().getCanonicalName() + ";",
+        "",
+        "@" + getComponentType().getSimpleName() + "(modules = ParameterizedModule.class)",
+        "interface SimpleComponent {",
+        "  List<String> strings();",
+        "  List<Integer> integers();",
+        "  Provider<Map<String, ParameterizedModule.Foo[]>> foos();",
+        "  List<? extends Number> numbers();",
+        "}");
+    JavaFileObject generatedBullet = JavaFileObjects.forSourceLines("test.BulletSimpleComponent",
+        "package test;\n" +
+            "\n" +
+            "import bullet.Key;\n" +
+            "import bullet.ObjectGraph;\n" +
+            "import bullet.WarmUp;\n" +
+            "import bullet.impl.DoubleCheckLazy;\n" +
+            "import bullet.impl.GraphWarmUp;\n" +
+            "import dagger.Lazy;\n" +
+            "import dagger.MembersInjector;\n" +
+            "import java.lang.AssertionError;\n" +
+            "import java.lang.Class;\n" +
+            "import java.lang.IllegalArgumentException;\n" +
+            "import java.lang.Iterable;\n" +
+            "import java.lang.Object;\n" +
+            "import java.lang.Override;\n" +
+            "import java.lang.String;\n" +
+            "import java.lang.SuppressWarnings;\n" +
+            "import java.lang.annotation.Annotation;\n" +
+            "import java.util.List;\n" +
+            "import java.util.Map;\n" +
+            "import java.util.concurrent.Executor;\n" +
+            "import javax.annotation.Generated;\n" +
+            "import javax.inject.Provider;\n" +
+            "\n" +
+            "@Generated(\"bullet.impl.ComponentProcessor\")\n" +
+            "public final class BulletSimpleComponent implements ObjectGraph {\n" +
+            "  private final SimpleComponent component;\n" +
+            "\n" +
+            "  private final Provider<?>[] handles = new Provider<?>[2];\n" +
+            "\n" +
+            "  public BulletSimpleComponent(final SimpleComponent component) {\n" +
+            "    this.component = component;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type) {\n" +
+            "    if (type == List.class) {\n" +
+            "      return type.cast(this.component.strings());\n" +
+            "    }\n" +
+            "    if (type == Map.class) {\n" +
+            "      return type.cast(this.component.foos().get());\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T tryGet(final Class<T> type) {\n" +
+            "    if (type == List.class) {\n" +
+            "      return type.cast(this.component.strings());\n" +
+            "    }\n" +
+            "    if (type == Map.class) {\n" +
+            "      return type.cast(this.component.foos().get());\n" +
+            "    }\n" +
+            "    return null;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type) {\n" +
+            "    return type == List.class\n" +
+            "        || type == Map.class;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> T get(final Key<T> key) {\n" +
+            "    switch (key.getName()) {\n" +
+            "      case \"java.util.List<java.lang.String>\":\n" +
+            "        return (T) this.component.strings();\n" +
+            "      case \"java.util.List<java.lang.Integer>\":\n" +
+            "        return (T) this.component.integers();\n" +
+            "      case \"java.util.Map<java.lang.String,test.ParameterizedModule$Foo[]>\":\n" +
+            "        return (T) this.component.foos().get();\n" +
+            "      case \"java.util.List<? extends java.lang.Number>\":\n" +
+            "        return (T) this.component.numbers();\n" +
+            "    }\n" +
+            "    if (key.getType() instanceof Class) {\n" +
+            "      return get((Class<T>) key.getType());\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + key + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Key<?> key) {\n" +
+            "    switch (key.getName()) {\n" +
+            "      case \"java.util.List<java.lang.String>\":\n" +
+            "      case \"java.util.List<java.lang.Integer>\":\n" +
+            "      case \"java.util.Map<java.lang.String,test.ParameterizedModule$Foo[]>\":\n" +
+            "      case \"java.util.List<? extends java.lang.Number>\":\n" +
+            "        return true;\n" +
+            "    }\n" +
+            "    return key.getType() instanceof Class && canProvide((Class<?>) key.getType());\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @\" + qualifier.getName() + \" \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final String name) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @Named(\\\"\" + name + \"\\\") \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final String name) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> Provider<T> provider(final Class<T> type) {\n" +
+            "    if (type == List.class) {\n" +
+            "      return (Provider<T>) new Provider<List<String>>() {\n" +
+            "        @Override\n" +
+            "        public List<String> get() {\n" +
+            "          return component.strings();\n" +
+            "        }\n" +
+            "      };\n" +
+            "    }\n" +
+            "    if (type == Map.class) {\n" +
+            "      return (Provider<T>) this.component.foos();\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> Lazy<T> lazy(final Class<T> type) {\n" +
+            "    return DoubleCheckLazy.create(provider(type));\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> Provider<T> handle(final Class<T> type) {\n" +
+            "    final int index;\n" +
+            "    if (type == List.class) {\n" +
+            "      index = 0;\n" +
+            "    } else if (type == Map.class) {\n" +
+            "      index = 1;\n" +
+            "    } else {\n" +
+            "      throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "    }\n" +
+            "    Provider<?> handle = handles[index];\n" +
+            "    if (handle == null) {\n" +
+            "      handles[index] = handle = provider(type);\n" +
+            "    }\n" +
+            "    return (Provider<T>) handle;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T inject(final T instance) {\n" +
+            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean tryInject(final Object instance) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Object[] instances) {\n" +
+            "    for (Object instance : instances) {\n" +
+            "      inject(instance);\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Iterable<?> instances) {\n" +
+            "    for (Object instance : instances) {\n" +
+            "      inject(instance);\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> MembersInjector<T> membersInjector(final Class<T> type) {\n" +
+            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canInject(final Class<?> type) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object module) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canPlus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public WarmUp warmUp(final Executor executor) {\n" +
+            "    return new GraphWarmUp(new String[] {\n" +
+            "        \"strings()\",\n" +
+            "        \"integers()\",\n" +
+            "        \"foos()\",\n" +
+            "        \"numbers()\"\n" +
+            "    }) {\n" +
+            "      @Override\n" +
+            "      protected Object provide(final int index) {\n" +
+            "        switch (index) {\n" +
+            "          case 0:\n" +
+            "            return component.strings();\n" +
+            "          case 1:\n" +
+            "            return component.integers();\n" +
+            "          case 2:\n" +
+            "            return component.foos().get();\n" +
+            "          case 3:\n" +
+            "            return component.numbers();\n" +
+            "        }\n" +
+            "        throw new AssertionError();\n" +
+            "      }\n" +
+            "    }.start(executor);\n" +
+            "  }\n" +
+            "}");
+    assert_().about(javaSources()).that(ImmutableList.of(moduleFile, componentFile))
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(generatedBullet);
+  }
+
+  @Test public void lazy() {
+    JavaFileObject injectableTypeFile = JavaFileObjects.forSourceLines("test.SomeInjectableType",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class SomeInjectableType {",
+        "  @Inject SomeInjectableType() {}",
+        "}");
+    JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.SimpleComponent",
+        "package test;",
+        "",
+        "import dagger.Lazy;",
+        "import " + getComponentType().getCanonicalName() + ";",
+        "",
+        "@" + getComponentType().getSimpleName(),
+        "interface SimpleComponent {",
+        "  Lazy<SomeInjectableType> someInjectableType();",
+        "}");
+
+    JavaFileObject generatedBullet = JavaFileObjects.forSourceLines("test.BulletSimpleComponent",
+        "package test;\n" +
+            "\n" +
+            "import bullet.Key;\n" +
+            "import bullet.ObjectGraph;\n" +
+            "import bullet.WarmUp;\n" +
+            "import bullet.impl.DoubleCheckLazy;\n" +
+            "import bullet.impl.GraphWarmUp;\n" +
+            "import dagger.Lazy;\n" +
+            "import dagger.MembersInjector;\n" +
+            "import java.lang.AssertionError;\n" +
+            "import java.lang.Class;\n" +
+            "import java.lang.IllegalArgumentException;\n" +
+            "import java.lang.Iterable;\n" +
+            "import java.lang.Object;\n" +
+            "import java.lang.Override;\n" +
+            "import java.lang.String;\n" +
+            "import java.lang.SuppressWarnings;\n" +
+            "import java.lang.annotation.Annotation;\n" +
+            "import java.util.concurrent.Executor;\n" +
+            "import javax.annotation.Generated;\n" +
+            "import javax.inject.Provider;\n" +
+            "\n" +
+            "@Generated(\"bullet.impl.ComponentProcessor\")\n" +
+            "public final class BulletSimpleComponent implements ObjectGraph {\n" +
+            "  private final SimpleComponent component;\n" +
+            "\n" +
+            "  private final Provider<?>[] handles = new Provider<?>[1];\n" +
+            "\n" +
+            "  public BulletSimpleComponent(final SimpleComponent component) {\n" +
+            "    this.component = component;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type) {\n" +
+            "    if (type == SomeInjectableType.class) {\n" +
+            "      return type.cast(this.component.someInjectableType().get());\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T tryGet(final Class<T> type) {\n" +
+            "    if (type == SomeInjectableType.class) {\n" +
+            "      return type.cast(this.component.someInjectableType().get());\n" +
+            "    }\n" +
+            "    return null;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type) {\n" +
+            "    return type == SomeInjectableType.class;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> T get(final Key<T> key) {\n" +
+            "    if (key.getType() instanceof Class) {\n" +
+            "      return get((Class<T>) key.getType());\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + key + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Key<?> key) {\n" +
+            "    return key.getType() instanceof Class && canProvide((Class<?>) key.getType());\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @\" + qualifier.getName() + \" \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final String name) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @Named(\\\"\" + name + \"\\\") \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final String name) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> Provider<T> provider(final Class<T> type) {\n" +
+            "    if (type == SomeInjectableType.class) {\n" +
+            "      return (Provider<T>) new Provider<SomeInjectableType>() {\n" +
+            "        @Override\n" +
+            "        public SomeInjectableType get() {\n" +
+            "          return component.someInjectableType().get();\n" +
+            "        }\n" +
+            "      };\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> Lazy<T> lazy(final Class<T> type) {\n" +
+            "    if (type == SomeInjectableType.class) {\n" +
+            "      return (Lazy<T>) this.component.someInjectableType();\n" +
+            "    }\n" +
+            "    return DoubleCheckLazy.create(provider(type));\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> Provider<T> handle(final Class<T> type) {\n" +
+            "    final int index;\n" +
+            "    if (type == SomeInjectableType.class) {\n" +
+            "      index = 0;\n" +
+            "    } else {\n" +
+            "      throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "    }\n" +
+            "    Provider<?> handle = handles[index];\n" +
+            "    if (handle == null) {\n" +
+            "      handles[index] = handle = provider(type);\n" +
+            "    }\n" +
+            "    return (Provider<T>) handle;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T inject(final T instance) {\n" +
+            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean tryInject(final Object instance) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Object[] instances) {\n" +
+            "    for (Object instance : instances) {\n" +
+            "      inject(instance);\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Iterable<?> instances) {\n" +
+            "    for (Object instance : instances) {\n" +
+            "      inject(instance);\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> MembersInjector<T> membersInjector(final Class<T> type) {\n" +
+            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canInject(final Class<?> type) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object module) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canPlus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public WarmUp warmUp(final Executor executor) {\n" +
+            "    return new GraphWarmUp(new String[] {\n" +
+            "        \"someInjectableType()\"\n" +
+            "    }) {\n" +
+            "      @Override\n" +
+            "      protected Object provide(final int index) {\n" +
+            "        switch (index) {\n" +
+            "          case 0:\n" +
+            "            return component.someInjectableType().get();\n" +
+            "        }\n" +
+            "        throw new AssertionError();\n" +
+            "      }\n" +
+            "    }.start(executor);\n" +
+            "  }\n" +
+            "}");
+    assert_().about(javaSources()).that(ImmutableList.of(injectableTypeFile, componentFile))
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(generatedBullet);
+  }
+
+  @Test public void membersInjector() {
+    JavaFileObject aFile = JavaFileObjects.forSourceLines("test.A",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class A {",
+        "  @Inject A() {}",
         "}");
-    JavaFileObject fFile = JavaFileObjects.forSourceLines("test.F",
+    JavaFileObject bFile = JavaFileObjects.forSourceLines("test.B",
         "package test;",
         "",
         "import javax.inject.Inject;",
         "",
-        "final class F {",
-        "  @Inject F() {}",
+        "final class B {",
+        "  @Inject A a;",
         "}");
-    JavaFileObject superComponentFile = JavaFileObjects.forSourceLines("test.SuperComponent",
+    JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.SimpleComponent",
         "package test;",
         "",
-        "import other.SuperComponentInOtherPackage;",
+        "import dagger.MembersInjector;",
+        "import " + getComponentType().getCanonicalName() + ";",
         "",
-        "class SuperComponent extends SuperComponentInOtherPackage {",
-        "  protected E protectedMethodInSamePackage() { return null; }",
-        "  private F privateMethod() { return null; }",
+        "@" + getComponentType().getSimpleName(),
+        "interface SimpleComponent {",
+        "  MembersInjector<B> b();",
         "}");
-    JavaFileObject gFile = JavaFileObjects.forSourceLines("test.G",
+    JavaFileObject generatedBullet = JavaFileObjects.forSourceLines("test.BulletSimpleComponent",
+        "package test;\n" +
+            "\n" +
+            "import bullet.Key;\n" +
+            "import bullet.ObjectGraph;\n" +
+            "import bullet.WarmUp;\n" +
+            "import bullet.impl.ClassIndexCache;\n" +
+            "import bullet.impl.DoubleCheckLazy;\n" +
+            "import bullet.impl.GraphWarmUp;\n" +
+            "import bullet.impl.PerfectClassIndexHashTable;\n" +
+            "import dagger.Lazy;\n" +
+            "import dagger.MembersInjector;\n" +
+            "import java.lang.Class;\n" +
+            "import java.lang.IllegalArgumentException;\n" +
+            "import java.lang.Iterable;\n" +
+            "import java.lang.Object;\n" +
+            "import java.lang.Override;\n" +
+            "import java.lang.String;\n" +
+            "import java.lang.SuppressWarnings;\n" +
+            "import java.lang.annotation.Annotation;\n" +
+            "import java.util.concurrent.Executor;\n" +
+            "import javax.annotation.Generated;\n" +
+            "import javax.inject.Provider;\n" +
+            "\n" +
+            "@Generated(\"bullet.impl.ComponentProcessor\")\n" +
+            "public final class BulletSimpleComponent implements ObjectGraph {\n" +
+            "  private static final PerfectClassIndexHashTable classIndexHashTable;\n" +
+            "\n" +
+            "  private static final ClassIndexCache classIndexCache;\n" +
+            "\n" +
+            "  static {\n" +
+            "    classIndexHashTable = new PerfectClassIndexHashTable(\n" +
+            "        B.class);\n" +
+            "    classIndexCache = new ClassIndexCache(classIndexHashTable);\n" +
+            "  }\n" +
+            "\n" +
+            "  private final SimpleComponent component;\n" +
+            "\n" +
+            "  public BulletSimpleComponent(final SimpleComponent component) {\n" +
+            "    this.component = component;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T tryGet(final Class<T> type) {\n" +
+            "    return null;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> T get(final Key<T> key) {\n" +
+            "    if (key.getType() instanceof Class) {\n" +
+            "      return get((Class<T>) key.getType());\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + key + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Key<?> key) {\n" +
+            "    return key.getType() instanceof Class && canProvide((Class<?>) key.getType());\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @\" + qualifier.getName() + \" \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final String name) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @Named(\\\"\" + name + \"\\\") \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final String name) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> Provider<T> provider(final Class<T> type) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> Lazy<T> lazy(final Class<T> type) {\n" +
+            "    return DoubleCheckLazy.create(provider(type));\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> Provider<T> handle(final Class<T> type) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T inject(final T instance) {\n" +
+            "    if (!injectMembers(classIndex(instance.getClass()), instance)) {\n" +
+            "      throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "    }\n" +
+            "    return instance;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean tryInject(final Object instance) {\n" +
+            "    return injectMembers(classIndex(instance.getClass()), instance);\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Object[] instances) {\n" +
+            "    Class<?> c = null;\n" +
+            "    int index = -1;\n" +
+            "    for (Object instance : instances) {\n" +
+            "      if (instance.getClass() != c) {\n" +
+            "        c = instance.getClass();\n" +
+            "        index = classIndex(c);\n" +
+            "      }\n" +
+            "      if (!injectMembers(index, instance)) {\n" +
+            "        throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "      }\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Iterable<?> instances) {\n" +
+            "    Class<?> c = null;\n" +
+            "    int index = -1;\n" +
+            "    for (Object instance : instances) {\n" +
+            "      if (instance.getClass() != c) {\n" +
+            "        c = instance.getClass();\n" +
+            "        index = classIndex(c);\n" +
+            "      }\n" +
+            "      if (!injectMembers(index, instance)) {\n" +
+            "        throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "      }\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> MembersInjector<T> membersInjector(final Class<T> type) {\n" +
+            "    switch (classIndex(type)) {\n" +
+            "      case 0:\n" +
+            "        return (MembersInjector<T>) this.component.b();\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canInject(final Class<?> type) {\n" +
+            "    return classIndex(type) >= 0;\n" +
+            "  }\n" +
+            "\n" +
+            "  private static int classIndex(final Class<?> c) {\n" +
+            "    return classIndexCache.get(c);\n" +
+            "  }\n" +
+            "\n" +
+            "  private boolean injectMembers(final int index, final Object instance) {\n" +
+            "    switch (index) {\n" +
+            "      case 0:\n" +
+            "        this.component.b().injectMembers((B) instance);\n" +
+            "        return true;\n" +
+            "    }\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object module) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canPlus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public WarmUp warmUp(final Executor executor) {\n" +
+            "    return GraphWarmUp.NONE;\n" +
+            "  }\n" +
+            "}");
+    assert_().about(javaSources()).that(ImmutableList.of(aFile, bFile, componentFile))
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(generatedBullet);
+  }
+
+  @Test public void subcomponentsWithModules() {
+    JavaFileObject modulesFile = JavaFileObjects.forSourceLines("test.Modules",
         "package test;",
         "",
-        "import javax.inject.Inject;",
+        "import dagger.Module;",
         "",
-        "final class G {",
-        "  @Inject G() {}",
+        "final class Modules {",
+        "  @Module static class AModule {}",
+        "  @Module static class BModule {}",
         "}");
-    JavaFileObject hFile = JavaFileObjects.forSourceLines("test.H",
+    JavaFileObject oneModuleSubcomponentFile = JavaFileObjects.forSourceLines("test.OneModuleSubcomponent",
         "package test;",
         "",
-        "import javax.inject.Inject;",
+        "import dagger.Subcomponent;",
         "",
-        "final class H {",
-        "  @Inject H() {}",
+        "@Subcomponent(modules = Modules.AModule.class)",
+        "interface OneModuleSubcomponent {",
         "}");
-    JavaFileObject iFile = JavaFileObjects.forSourceLines("test.I",
+    JavaFileObject twoModulesSubcomponentFile = JavaFileObjects.forSourceLines("test.TwoModulesSubcomponent",
         "package test;",
         "",
-        "import javax.inject.Inject;",
+        "import dagger.Subcomponent;",
         "",
-        "final class I {",
-        "  @Inject I() {}",
+        "@Subcomponent(modules = { Modules.AModule.class, Modules.BModule.class })",
+        "interface TwoModulesSubcomponent {",
         "}");
     JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.SimpleComponent",
         "package test;",
@@ -520,19 +3358,31 @@ public abstract class AbstractComponentProcessorTest {
         "import " + getComponentType().getCanonicalName() + ";",
         "",
         "@" + getComponentType().getSimpleName(),
-        "class SimpleComponent extends SuperComponent {",
-        "  protected G protectedMethod() { return null; }",
-        "  private H privateMethod() { return null; }",
+        "interface SimpleComponent {",
+        "  OneModuleSubcomponent oneModuleSubcomponent(Modules.AModule module);",
+        "  TwoModulesSubcomponent twoModulesSubcomponent(Modules.AModule a, Modules.BModule b);",
         "}");
     JavaFileObject generatedBullet = JavaFileObjects.forSourceLines("test.BulletSimpleComponent",
         "package test;\n" +
             "\n" +
+            "import bullet.Key;\n" +
             "import bullet.ObjectGraph;\n" +
+            "import bullet.WarmUp;\n" +
+            "import bullet.impl.DoubleCheckLazy;\n" +
+            "import bullet.impl.GraphWarmUp;\n" +
+            "import dagger.Lazy;\n" +
+            "import dagger.MembersInjector;\n" +
             "import java.lang.Class;\n" +
             "import java.lang.IllegalArgumentException;\n" +
+            "import java.lang.Iterable;\n" +
+            "import java.lang.Object;\n" +
             "import java.lang.Override;\n" +
+            "import java.lang.String;\n" +
+            "import java.lang.SuppressWarnings;\n" +
+            "import java.lang.annotation.Annotation;\n" +
+            "import java.util.concurrent.Executor;\n" +
             "import javax.annotation.Generated;\n" +
-            "import other.A;\n" +
+            "import javax.inject.Provider;\n" +
             "\n" +
             "@Generated(\"bullet.impl.ComponentProcessor\")\n" +
             "public final class BulletSimpleComponent implements ObjectGraph {\n" +
@@ -544,15 +3394,65 @@ public abstract class AbstractComponentProcessorTest {
             "\n" +
             "  @Override\n" +
             "  public <T> T get(final Class<T> type) {\n" +
-            "    if (type == A.class) {\n" +
-            "      return type.cast(this.component.publicMethodInOtherPackage());\n" +
-            "    }\n" +
-            "    if (type == E.class) {\n" +
-            "      return type.cast(this.component.protectedMethodInSamePackage());\n" +
-            "    }\n" +
-            "    if (type == G.class) {\n" +
-            "      return type.cast(this.component.protectedMethod());\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T tryGet(final Class<T> type) {\n" +
+            "    return null;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> T get(final Key<T> key) {\n" +
+            "    if (key.getType() instanceof Class) {\n" +
+            "      return get((Class<T>) key.getType());\n" +
             "    }\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + key + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Key<?> key) {\n" +
+            "    return key.getType() instanceof Class && canProvide((Class<?>) key.getType());\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @\" + qualifier.getName() + \" \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final String name) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @Named(\\\"\" + name + \"\\\") \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final String name) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> Provider<T> provider(final Class<T> type) {\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> Lazy<T> lazy(final Class<T> type) {\n" +
+            "    return DoubleCheckLazy.create(provider(type));\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> Provider<T> handle(final Class<T> type) {\n" +
             "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
             "  }\n" +
             "\n" +
@@ -560,133 +3460,578 @@ public abstract class AbstractComponentProcessorTest {
             "  public <T> T inject(final T instance) {\n" +
             "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
             "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean tryInject(final Object instance) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Object[] instances) {\n" +
+            "    for (Object instance : instances) {\n" +
+            "      inject(instance);\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Iterable<?> instances) {\n" +
+            "    for (Object instance : instances) {\n" +
+            "      inject(instance);\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> MembersInjector<T> membersInjector(final Class<T> type) {\n" +
+            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canInject(final Class<?> type) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object module) {\n" +
+            "    if (subcomponentType == OneModuleSubcomponent.class && module instanceof Modules.AModule) {\n" +
+            "      return new BulletOneModuleSubcomponent(this.component.oneModuleSubcomponent((Modules.AModule) module));\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    if (subcomponentType == OneModuleSubcomponent.class && modules.length == 1 && modules[0] instanceof Modules.AModule) {\n" +
+            "      return new BulletOneModuleSubcomponent(this.component.oneModuleSubcomponent((Modules.AModule) modules[0]));\n" +
+            "    }\n" +
+            "    if (subcomponentType == TwoModulesSubcomponent.class && modules.length == 2 && modules[0] instanceof Modules.AModule && modules[1] instanceof Modules.BModule) {\n" +
+            "      return new BulletTwoModulesSubcomponent(this.component.twoModulesSubcomponent((Modules.AModule) modules[0], (Modules.BModule) modules[1]));\n" +
+            "    }\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canPlus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    return subcomponentType == OneModuleSubcomponent.class && modules.length == 1 && modules[0] instanceof Modules.AModule\n" +
+            "        || subcomponentType == TwoModulesSubcomponent.class && modules.length == 2 && modules[0] instanceof Modules.AModule && modules[1] instanceof Modules.BModule;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public WarmUp warmUp(final Executor executor) {\n" +
+            "    return GraphWarmUp.NONE;\n" +
+            "  }\n" +
             "}");
-    assert_().about(javaSources()).that(ImmutableList.of(
-        aFile, bFile, cFile, dFile, eFile, fFile, gFile, hFile, iFile,
-        superComponentInOtherPackageFile, superComponentFile, componentFile))
+    assert_().about(javaSources()).that(ImmutableList.of(modulesFile, oneModuleSubcomponentFile, twoModulesSubcomponentFile, componentFile))
         .processedWith(new ComponentProcessor())
         .compilesWithoutError()
         .and().generatesSources(generatedBullet);
   }
 
-  @Test public void provider() {
-    JavaFileObject injectableTypeFile = JavaFileObjects.forSourceLines("test.SomeInjectableType",
+  @Test public void registry() {
+    JavaFileObject simpleComponentFile = JavaFileObjects.forSourceLines("test.SimpleComponent",
         "package test;",
         "",
-        "import javax.inject.Inject;",
+        "import " + getComponentType().getCanonicalName() + ";",
         "",
-        "final class SomeInjectableType {",
-        "  @Inject SomeInjectableType() {}",
+        "@" + getComponentType().getSimpleName(),
+        "public interface SimpleComponent {",
         "}");
-    JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.SimpleComponent",
+    JavaFileObject extendedComponentFile = JavaFileObjects.forSourceLines("test.ExtendedComponent",
         "package test;",
         "",
-        "import javax.inject.Provider;",
         "import " + getComponentType().getCanonicalName() + ";",
         "",
         "@" + getComponentType().getSimpleName(),
-        "interface SimpleComponent {",
-        "  Provider<SomeInjectableType> someInjectableType();",
+        "public interface ExtendedComponent extends SimpleComponent {",
         "}");
-    JavaFileObject generatedBullet = JavaFileObjects.forSourceLines("test.BulletSimpleComponent",
-        "package test;\n" +
+    JavaFileObject nonVisibleComponentFile = JavaFileObjects.forSourceLines("test.NonVisibleComponent",
+        "package test;",
+        "",
+        "import " + getComponentType().getCanonicalName() + ";",
+        "",
+        "@" + getComponentType().getSimpleName(),
+        "interface NonVisibleComponent {",
+        "}");
+    JavaFileObject generatedRegistry = JavaFileObjects.forSourceLines("test.registry.TestGraphs",
+        "package test.registry;\n" +
             "\n" +
+            "import bullet.BulletGraphs;\n" +
             "import bullet.ObjectGraph;\n" +
+            "import bullet.impl.ClassIndexCache;\n" +
+            "import bullet.impl.PerfectClassIndexHashTable;\n" +
             "import java.lang.Class;\n" +
-            "import java.lang.IllegalArgumentException;\n" +
+            "import java.lang.Object;\n" +
             "import java.lang.Override;\n" +
             "import javax.annotation.Generated;\n" +
+            "import test.BulletExtendedComponent;\n" +
+            "import test.BulletSimpleComponent;\n" +
+            "import test.ExtendedComponent;\n" +
+            "import test.SimpleComponent;\n" +
             "\n" +
             "@Generated(\"bullet.impl.ComponentProcessor\")\n" +
-            "public final class BulletSimpleComponent implements ObjectGraph {\n" +
-            "  private final SimpleComponent component;\n" +
-            "\n" +
-            "  public BulletSimpleComponent(final SimpleComponent component) {\n" +
-            "    this.component = component;\n" +
-            "  }\n" +
+            "public final class TestGraphs implements BulletGraphs.Registry {\n" +
+            "  private static final ClassIndexCache componentIndexCache = new ClassIndexCache(new PerfectClassIndexHashTable(new Class<?>[] {\n" +
+            "      ExtendedComponent.class,\n" +
+            "      SimpleComponent.class\n" +
+            "  }));\n" +
             "\n" +
             "  @Override\n" +
-            "  public <T> T get(final Class<T> type) {\n" +
-            "    if (type == SomeInjectableType.class) {\n" +
-            "      return type.cast(this.component.someInjectableType().get());\n" +
+            "  public ObjectGraph of(final Object component) {\n" +
+            "    switch (componentIndexCache.get(component.getClass())) {\n" +
+            "      case 0:\n" +
+            "        return new BulletExtendedComponent((ExtendedComponent) component);\n" +
+            "      case 1:\n" +
+            "        return new BulletSimpleComponent((SimpleComponent) component);\n" +
+            "      default:\n" +
+            "        return null;\n" +
             "    }\n" +
-            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
             "  }\n" +
+            "}");
+    assert_().about(javaSources()).that(ImmutableList.of(simpleComponentFile, extendedComponentFile, nonVisibleComponentFile))
+        .withCompilerOptions("-A" + ComponentProcessor.REGISTRY_OPTION + "=test.registry.TestGraphs")
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(generatedRegistry);
+  }
+
+  @Test public void registryOrdersSubtypesFirst() {
+    // Sorting by name alone would put BaseComponent before its subtypes; a pairwise comparison isn't transitive here.
+    ImmutableList.Builder<JavaFileObject> componentFiles = ImmutableList.builder();
+    for (String[] component : new String[][] {
+        { "AComponent", null },
+        { "BaseComponent", null },
+        { "CComponent", null },
+        { "LeafComponent", "MidComponent" },
+        { "MidComponent", "BaseComponent" },
+        { "ZComponent", null } }) {
+      componentFiles.add(JavaFileObjects.forSourceLines("test." + component[0],
+          "package test;",
+          "",
+          "import " + getComponentType().getCanonicalName() + ";",
+          "",
+          "@" + getComponentType().getSimpleName(),
+          "public interface " + component[0] + (component[1] == null ? "" : " extends " + component[1]) + " {",
+          "}"));
+    }
+    JavaFileObject generatedRegistry = JavaFileObjects.forSourceLines("test.registry.TestGraphs",
+        "package test.registry;\n" +
+            "\n" +
+            "import bullet.BulletGraphs;\n" +
+            "import bullet.ObjectGraph;\n" +
+            "import bullet.impl.ClassIndexCache;\n" +
+            "import bullet.impl.PerfectClassIndexHashTable;\n" +
+            "import java.lang.Class;\n" +
+            "import java.lang.Object;\n" +
+            "import java.lang.Override;\n" +
+            "import javax.annotation.Generated;\n" +
+            "import test.AComponent;\n" +
+            "import test.BaseComponent;\n" +
+            "import test.BulletAComponent;\n" +
+            "import test.BulletBaseComponent;\n" +
+            "import test.BulletCComponent;\n" +
+            "import test.BulletLeafComponent;\n" +
+            "import test.BulletMidComponent;\n" +
+            "import test.BulletZComponent;\n" +
+            "import test.CComponent;\n" +
+            "import test.LeafComponent;\n" +
+            "import test.MidComponent;\n" +
+            "import test.ZComponent;\n" +
+            "\n" +
+            "@Generated(\"bullet.impl.ComponentProcessor\")\n" +
+            "public final class TestGraphs implements BulletGraphs.Registry {\n" +
+            "  private static final ClassIndexCache componentIndexCache = new ClassIndexCache(new PerfectClassIndexHashTable(new Class<?>[] {\n" +
+            "      AComponent.class,\n" +
+            "      CComponent.class,\n" +
+            "      LeafComponent.class,\n" +
+            "      MidComponent.class,\n" +
+            "      BaseComponent.class,\n" +
+            "      ZComponent.class\n" +
+            "  }));\n" +
             "\n" +
             "  @Override\n" +
-            "  public <T> T inject(final T instance) {\n" +
-            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "  public ObjectGraph of(final Object component) {\n" +
+            "    switch (componentIndexCache.get(component.getClass())) {\n" +
+            "      case 0:\n" +
+            "        return new BulletAComponent((AComponent) component);\n" +
+            "      case 1:\n" +
+            "        return new BulletCComponent((CComponent) component);\n" +
+            "      case 2:\n" +
+            "        return new BulletLeafComponent((LeafComponent) component);\n" +
+            "      case 3:\n" +
+            "        return new BulletMidComponent((MidComponent) component);\n" +
+            "      case 4:\n" +
+            "        return new BulletBaseComponent((BaseComponent) component);\n" +
+            "      case 5:\n" +
+            "        return new BulletZComponent((ZComponent) component);\n" +
+            "      default:\n" +
+            "        return null;\n" +
+            "    }\n" +
             "  }\n" +
             "}");
-    assert_().about(javaSources()).that(ImmutableList.of(injectableTypeFile, componentFile))
+    assert_().about(javaSources()).that(componentFiles.build())
+        .withCompilerOptions("-A" + ComponentProcessor.REGISTRY_OPTION + "=test.registry.TestGraphs")
         .processedWith(new ComponentProcessor())
         .compilesWithoutError()
-        .and().generatesSources(generatedBullet);
+        .and().generatesSources(generatedRegistry);
   }
 
-  @Test public void lazy() {
-    JavaFileObject injectableTypeFile = JavaFileObjects.forSourceLines("test.SomeInjectableType",
+  @Test public void metrics() {
+    JavaFileObject aFile = JavaFileObjects.forSourceLines("test.A",
         "package test;",
         "",
         "import javax.inject.Inject;",
         "",
-        "final class SomeInjectableType {",
-        "  @Inject SomeInjectableType() {}",
+        "class A {",
+        "  @Inject A() {}",
+        "}");
+    JavaFileObject bFile = JavaFileObjects.forSourceLines("test.B",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "class B {",
+        "  @Inject A a;",
         "}");
     JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.SimpleComponent",
         "package test;",
         "",
-        "import dagger.Lazy;",
+        "import javax.inject.Named;",
         "import " + getComponentType().getCanonicalName() + ";",
         "",
         "@" + getComponentType().getSimpleName(),
         "interface SimpleComponent {",
-        "  Lazy<SomeInjectableType> someInjectableType();",
+        "  A a();",
+        "  @Named(\"named\") A namedA();",
+        "  void inject(B b);",
         "}");
-
     JavaFileObject generatedBullet = JavaFileObjects.forSourceLines("test.BulletSimpleComponent",
         "package test;\n" +
             "\n" +
+            "import bullet.GraphMetrics;\n" +
+            "import bullet.Key;\n" +
             "import bullet.ObjectGraph;\n" +
+            "import bullet.WarmUp;\n" +
+            "import bullet.impl.ClassIndexCache;\n" +
+            "import bullet.impl.DoubleCheckLazy;\n" +
+            "import bullet.impl.GraphMetricsRecorder;\n" +
+            "import bullet.impl.GraphWarmUp;\n" +
+            "import bullet.impl.MeteredObjectGraph;\n" +
+            "import bullet.impl.PerfectClassIndexHashTable;\n" +
+            "import bullet.impl.PerfectQualifiedIndexHashTable;\n" +
+            "import dagger.Lazy;\n" +
+            "import dagger.MembersInjector;\n" +
+            "import java.lang.AssertionError;\n" +
             "import java.lang.Class;\n" +
             "import java.lang.IllegalArgumentException;\n" +
+            "import java.lang.Iterable;\n" +
+            "import java.lang.Object;\n" +
             "import java.lang.Override;\n" +
+            "import java.lang.String;\n" +
+            "import java.lang.SuppressWarnings;\n" +
+            "import java.lang.annotation.Annotation;\n" +
+            "import java.util.concurrent.Executor;\n" +
             "import javax.annotation.Generated;\n" +
+            "import javax.inject.Provider;\n" +
             "\n" +
             "@Generated(\"bullet.impl.ComponentProcessor\")\n" +
-            "public final class BulletSimpleComponent implements ObjectGraph {\n" +
+            "public final class BulletSimpleComponent implements ObjectGraph, MeteredObjectGraph {\n" +
+            "  private static final GraphMetricsRecorder metrics = new GraphMetricsRecorder(\"test.SimpleComponent\", new String[] {\n" +
+            "      \"a()\",\n" +
+            "      \"namedA()\",\n" +
+            "      \"inject(test.B)\"\n" +
+            "  });\n" +
+            "\n" +
+            "  private static final PerfectClassIndexHashTable classIndexHashTable;\n" +
+            "\n" +
+            "  private static final ClassIndexCache classIndexCache;\n" +
+            "\n" +
+            "  private static final PerfectQualifiedIndexHashTable qualifiedProvisionIndexHashTable;\n" +
+            "\n" +
+            "  static {\n" +
+            "    classIndexHashTable = new PerfectClassIndexHashTable(\n" +
+            "        B.class);\n" +
+            "    classIndexCache = new ClassIndexCache(classIndexHashTable);\n" +
+            "    qualifiedProvisionIndexHashTable = new PerfectQualifiedIndexHashTable(\n" +
+            "        new Class<?>[] {\n" +
+            "          A.class },\n" +
+            "        new Object[] {\n" +
+            "          \"named\" });\n" +
+            "  }\n" +
+            "\n" +
             "  private final SimpleComponent component;\n" +
             "\n" +
+            "  private final Provider<?>[] handles = new Provider<?>[1];\n" +
+            "\n" +
             "  public BulletSimpleComponent(final SimpleComponent component) {\n" +
             "    this.component = component;\n" +
             "  }\n" +
             "\n" +
             "  @Override\n" +
+            "  public GraphMetrics getMetrics() {\n" +
+            "    return metrics.snapshot();\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
             "  public <T> T get(final Class<T> type) {\n" +
-            "    if (type == SomeInjectableType.class) {\n" +
-            "      return type.cast(this.component.someInjectableType().get());\n" +
+            "    if (type == A.class) {\n" +
+            "      return type.cast(metrics.record(0, metrics.start(0), this.component.a()));\n" +
+            "    }\n" +
+            "    metrics.miss();\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T tryGet(final Class<T> type) {\n" +
+            "    if (type == A.class) {\n" +
+            "      return type.cast(metrics.record(0, metrics.start(0), this.component.a()));\n" +
+            "    }\n" +
+            "    metrics.miss();\n" +
+            "    return null;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type) {\n" +
+            "    return type == A.class;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> T get(final Key<T> key) {\n" +
+            "    if (key.getType() instanceof Class) {\n" +
+            "      return get((Class<T>) key.getType());\n" +
+            "    }\n" +
+            "    metrics.miss();\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + key + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Key<?> key) {\n" +
+            "    return key.getType() instanceof Class && canProvide((Class<?>) key.getType());\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    int index = qualifiedProvisionIndexHashTable.get(type, qualifier);\n" +
+            "    if (index < 0) {\n" +
+            "      metrics.miss();\n" +
+            "      throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @\" + qualifier.getName() + \" \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "    }\n" +
+            "    return type.cast(getQualified(index));\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final String name) {\n" +
+            "    int index = qualifiedProvisionIndexHashTable.get(type, name);\n" +
+            "    if (index < 0) {\n" +
+            "      metrics.miss();\n" +
+            "      throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @Named(\\\"\" + name + \"\\\") \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "    }\n" +
+            "    return type.cast(getQualified(index));\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    return qualifiedProvisionIndexHashTable.get(type, qualifier) >= 0;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final String name) {\n" +
+            "    return qualifiedProvisionIndexHashTable.get(type, name) >= 0;\n" +
+            "  }\n" +
+            "\n" +
+            "  private Object getQualified(final int index) {\n" +
+            "    switch (index) {\n" +
+            "      case 0:\n" +
+            "        return metrics.record(1, metrics.start(1), this.component.namedA());\n" +
+            "    }\n" +
+            "    throw new AssertionError();\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> Provider<T> provider(final Class<T> type) {\n" +
+            "    if (type == A.class) {\n" +
+            "      return (Provider<T>) new Provider<A>() {\n" +
+            "        @Override\n" +
+            "        public A get() {\n" +
+            "          return component.a();\n" +
+            "        }\n" +
+            "      };\n" +
             "    }\n" +
+            "    metrics.miss();\n" +
             "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
             "  }\n" +
             "\n" +
             "  @Override\n" +
+            "  public <T> Lazy<T> lazy(final Class<T> type) {\n" +
+            "    return DoubleCheckLazy.create(provider(type));\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> Provider<T> handle(final Class<T> type) {\n" +
+            "    final int index;\n" +
+            "    if (type == A.class) {\n" +
+            "      index = 0;\n" +
+            "    } else {\n" +
+            "      metrics.miss();\n" +
+            "      throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "    }\n" +
+            "    Provider<?> handle = handles[index];\n" +
+            "    if (handle == null) {\n" +
+            "      handles[index] = handle = provider(type);\n" +
+            "    }\n" +
+            "    return (Provider<T>) handle;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
             "  public <T> T inject(final T instance) {\n" +
-            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "    if (!injectMembers(classIndex(instance.getClass()), instance)) {\n" +
+            "      metrics.miss();\n" +
+            "      throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "    }\n" +
+            "    return instance;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean tryInject(final Object instance) {\n" +
+            "    if (!injectMembers(classIndex(instance.getClass()), instance)) {\n" +
+            "      metrics.miss();\n" +
+            "      return false;\n" +
+            "    }\n" +
+            "    return true;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Object[] instances) {\n" +
+            "    Class<?> c = null;\n" +
+            "    int index = -1;\n" +
+            "    for (Object instance : instances) {\n" +
+            "      if (instance.getClass() != c) {\n" +
+            "        c = instance.getClass();\n" +
+            "        index = classIndex(c);\n" +
+            "      }\n" +
+            "      if (!injectMembers(index, instance)) {\n" +
+            "        metrics.miss();\n" +
+            "        throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "      }\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Iterable<?> instances) {\n" +
+            "    Class<?> c = null;\n" +
+            "    int index = -1;\n" +
+            "    for (Object instance : instances) {\n" +
+            "      if (instance.getClass() != c) {\n" +
+            "        c = instance.getClass();\n" +
+            "        index = classIndex(c);\n" +
+            "      }\n" +
+            "      if (!injectMembers(index, instance)) {\n" +
+            "        metrics.miss();\n" +
+            "        throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "      }\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> MembersInjector<T> membersInjector(final Class<T> type) {\n" +
+            "    switch (classIndex(type)) {\n" +
+            "      case 0:\n" +
+            "        return (MembersInjector<T>) new MembersInjector<B>() {\n" +
+            "          @Override\n" +
+            "          public void injectMembers(final B instance) {\n" +
+            "            component.inject(instance);\n" +
+            "          }\n" +
+            "        };\n" +
+            "    }\n" +
+            "    metrics.miss();\n" +
+            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canInject(final Class<?> type) {\n" +
+            "    return classIndex(type) >= 0;\n" +
+            "  }\n" +
+            "\n" +
+            "  private static int classIndex(final Class<?> c) {\n" +
+            "    return classIndexCache.get(c);\n" +
+            "  }\n" +
+            "\n" +
+            "  private boolean injectMembers(final int index, final Object instance) {\n" +
+            "    switch (index) {\n" +
+            "      case 0: {\n" +
+            "        final long start = metrics.start(2);\n" +
+            "        metrics.walk(2, instance.getClass(), B.class);\n" +
+            "        this.component.inject((B) instance);\n" +
+            "        metrics.record(2, start);\n" +
+            "        return true;\n" +
+            "      }\n" +
+            "    }\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType) {\n" +
+            "    metrics.miss();\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object module) {\n" +
+            "    metrics.miss();\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    metrics.miss();\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canPlus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public WarmUp warmUp(final Executor executor) {\n" +
+            "    return new GraphWarmUp(new String[] {\n" +
+            "        \"a()\",\n" +
+            "        \"namedA()\"\n" +
+            "    }) {\n" +
+            "      @Override\n" +
+            "      protected Object provide(final int index) {\n" +
+            "        switch (index) {\n" +
+            "          case 0:\n" +
+            "            return component.a();\n" +
+            "          case 1:\n" +
+            "            return component.namedA();\n" +
+            "        }\n" +
+            "        throw new AssertionError();\n" +
+            "      }\n" +
+            "    }.start(executor);\n" +
             "  }\n" +
             "}");
-    assert_().about(javaSources()).that(ImmutableList.of(injectableTypeFile, componentFile))
+    assert_().about(javaSources()).that(ImmutableList.of(aFile, bFile, componentFile))
+        .withCompilerOptions("-A" + ComponentProcessor.METRICS_OPTION + "=true")
         .processedWith(new ComponentProcessor())
         .compilesWithoutError()
         .and().generatesSources(generatedBullet);
   }
 
-  @Test public void membersInjector() {
+  @Test public void events() {
     JavaFileObject aFile = JavaFileObjects.forSourceLines("test.A",
         "package test;",
         "",
         "import javax.inject.Inject;",
         "",
-        "final class A {",
+        "class A {",
         "  @Inject A() {}",
         "}");
     JavaFileObject bFile = JavaFileObjects.forSourceLines("test.B",
@@ -694,64 +4039,287 @@ public abstract class AbstractComponentProcessorTest {
         "",
         "import javax.inject.Inject;",
         "",
-        "final class B {",
+        "class B {",
         "  @Inject A a;",
         "}");
     JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.SimpleComponent",
         "package test;",
         "",
-        "import dagger.MembersInjector;",
         "import " + getComponentType().getCanonicalName() + ";",
         "",
         "@" + getComponentType().getSimpleName(),
         "interface SimpleComponent {",
-        "  MembersInjector<B> b();",
+        "  A a();",
+        "  void inject(B b);",
         "}");
     JavaFileObject generatedBullet = JavaFileObjects.forSourceLines("test.BulletSimpleComponent",
         "package test;\n" +
             "\n" +
+            "import bullet.Key;\n" +
             "import bullet.ObjectGraph;\n" +
-            "import bullet.impl.ClassIndexHashTable;\n" +
+            "import bullet.WarmUp;\n" +
+            "import bullet.impl.ClassIndexCache;\n" +
+            "import bullet.impl.DoubleCheckLazy;\n" +
+            "import bullet.impl.GraphEvents;\n" +
+            "import bullet.impl.GraphWarmUp;\n" +
+            "import bullet.impl.PerfectClassIndexHashTable;\n" +
+            "import dagger.Lazy;\n" +
+            "import dagger.MembersInjector;\n" +
+            "import java.lang.AssertionError;\n" +
             "import java.lang.Class;\n" +
             "import java.lang.IllegalArgumentException;\n" +
+            "import java.lang.Iterable;\n" +
+            "import java.lang.Object;\n" +
             "import java.lang.Override;\n" +
+            "import java.lang.String;\n" +
+            "import java.lang.SuppressWarnings;\n" +
+            "import java.lang.annotation.Annotation;\n" +
+            "import java.util.concurrent.Executor;\n" +
             "import javax.annotation.Generated;\n" +
+            "import javax.inject.Provider;\n" +
             "\n" +
             "@Generated(\"bullet.impl.ComponentProcessor\")\n" +
             "public final class BulletSimpleComponent implements ObjectGraph {\n" +
-            "  private static final ClassIndexHashTable classIndexHashTable;\n" +
+            "  private static final PerfectClassIndexHashTable classIndexHashTable;\n" +
+            "\n" +
+            "  private static final ClassIndexCache classIndexCache;\n" +
             "\n" +
             "  static {\n" +
-            "    classIndexHashTable = new ClassIndexHashTable(3);\n" +
-            "    classIndexHashTable.put(B.class, (char) 0);\n" +
+            "    classIndexHashTable = new PerfectClassIndexHashTable(\n" +
+            "        B.class);\n" +
+            "    classIndexCache = new ClassIndexCache(classIndexHashTable);\n" +
             "  }\n" +
             "\n" +
             "  private final SimpleComponent component;\n" +
             "\n" +
+            "  private final Provider<?>[] handles = new Provider<?>[1];\n" +
+            "\n" +
             "  public BulletSimpleComponent(final SimpleComponent component) {\n" +
             "    this.component = component;\n" +
             "  }\n" +
             "\n" +
             "  @Override\n" +
             "  public <T> T get(final Class<T> type) {\n" +
+            "    if (type == A.class) {\n" +
+            "      return type.cast(GraphEvents.endGet(GraphEvents.beginGet(), SimpleComponent.class, A.class, this.component.a()));\n" +
+            "    }\n" +
+            "    GraphEvents.missGet(SimpleComponent.class, type);\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T tryGet(final Class<T> type) {\n" +
+            "    if (type == A.class) {\n" +
+            "      return type.cast(GraphEvents.endGet(GraphEvents.beginGet(), SimpleComponent.class, A.class, this.component.a()));\n" +
+            "    }\n" +
+            "    GraphEvents.missGet(SimpleComponent.class, type);\n" +
+            "    return null;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type) {\n" +
+            "    return type == A.class;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> T get(final Key<T> key) {\n" +
+            "    if (key.getType() instanceof Class) {\n" +
+            "      return get((Class<T>) key.getType());\n" +
+            "    }\n" +
+            "    GraphEvents.missGet(SimpleComponent.class, key);\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + key + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Key<?> key) {\n" +
+            "    return key.getType() instanceof Class && canProvide((Class<?>) key.getType());\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    GraphEvents.missGet(SimpleComponent.class, type);\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @\" + qualifier.getName() + \" \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public <T> T get(final Class<T> type, final String name) {\n" +
+            "    GraphEvents.missGet(SimpleComponent.class, type);\n" +
+            "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for @Named(\\\"\" + name + \"\\\") \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final Class<? extends Annotation> qualifier) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canProvide(final Class<?> type, final String name) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> Provider<T> provider(final Class<T> type) {\n" +
+            "    if (type == A.class) {\n" +
+            "      return (Provider<T>) new Provider<A>() {\n" +
+            "        @Override\n" +
+            "        public A get() {\n" +
+            "          return component.a();\n" +
+            "        }\n" +
+            "      };\n" +
+            "    }\n" +
+            "    GraphEvents.missGet(SimpleComponent.class, type);\n" +
             "    throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
             "  }\n" +
             "\n" +
             "  @Override\n" +
+            "  public <T> Lazy<T> lazy(final Class<T> type) {\n" +
+            "    return DoubleCheckLazy.create(provider(type));\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> Provider<T> handle(final Class<T> type) {\n" +
+            "    final int index;\n" +
+            "    if (type == A.class) {\n" +
+            "      index = 0;\n" +
+            "    } else {\n" +
+            "      GraphEvents.missGet(SimpleComponent.class, type);\n" +
+            "      throw new IllegalArgumentException(\"No 'get', 'Provider', or 'Lazy' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "    }\n" +
+            "    Provider<?> handle = handles[index];\n" +
+            "    if (handle == null) {\n" +
+            "      handles[index] = handle = provider(type);\n" +
+            "    }\n" +
+            "    return (Provider<T>) handle;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
             "  public <T> T inject(final T instance) {\n" +
-            "    Class<?> c = instance.getClass();\n" +
-            "    while (c != Object.class) {\n" +
-            "      switch (classIndexHashTable.get(c)) {\n" +
-            "        case 0:\n" +
-            "          this.component.b().injectMembers((B) instance);\n" +
-            "          return instance;\n" +
+            "    if (!injectMembers(classIndex(instance.getClass()), instance)) {\n" +
+            "      GraphEvents.missInject(SimpleComponent.class, instance.getClass());\n" +
+            "      throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "    }\n" +
+            "    return instance;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean tryInject(final Object instance) {\n" +
+            "    if (!injectMembers(classIndex(instance.getClass()), instance)) {\n" +
+            "      GraphEvents.missInject(SimpleComponent.class, instance.getClass());\n" +
+            "      return false;\n" +
+            "    }\n" +
+            "    return true;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Object[] instances) {\n" +
+            "    Class<?> c = null;\n" +
+            "    int index = -1;\n" +
+            "    for (Object instance : instances) {\n" +
+            "      if (instance.getClass() != c) {\n" +
+            "        c = instance.getClass();\n" +
+            "        index = classIndex(c);\n" +
+            "      }\n" +
+            "      if (!injectMembers(index, instance)) {\n" +
+            "        GraphEvents.missInject(SimpleComponent.class, instance.getClass());\n" +
+            "        throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
             "      }\n" +
-            "      c = c.getSuperclass();\n" +
             "    }\n" +
-            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public void injectAll(final Iterable<?> instances) {\n" +
+            "    Class<?> c = null;\n" +
+            "    int index = -1;\n" +
+            "    for (Object instance : instances) {\n" +
+            "      if (instance.getClass() != c) {\n" +
+            "        c = instance.getClass();\n" +
+            "        index = classIndex(c);\n" +
+            "      }\n" +
+            "      if (!injectMembers(index, instance)) {\n" +
+            "        GraphEvents.missInject(SimpleComponent.class, instance.getClass());\n" +
+            "        throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + instance.getClass().getName() + \" in SimpleComponent.\");\n" +
+            "      }\n" +
+            "    }\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  @SuppressWarnings(\"unchecked\")\n" +
+            "  public <T> MembersInjector<T> membersInjector(final Class<T> type) {\n" +
+            "    switch (classIndex(type)) {\n" +
+            "      case 0:\n" +
+            "        return (MembersInjector<T>) new MembersInjector<B>() {\n" +
+            "          @Override\n" +
+            "          public void injectMembers(final B instance) {\n" +
+            "            component.inject(instance);\n" +
+            "          }\n" +
+            "        };\n" +
+            "    }\n" +
+            "    GraphEvents.missInject(SimpleComponent.class, type);\n" +
+            "    throw new IllegalArgumentException(\"No 'inject' or 'MembersInject' method found for \" + type.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canInject(final Class<?> type) {\n" +
+            "    return classIndex(type) >= 0;\n" +
+            "  }\n" +
+            "\n" +
+            "  private static int classIndex(final Class<?> c) {\n" +
+            "    return classIndexCache.get(c);\n" +
+            "  }\n" +
+            "\n" +
+            "  private boolean injectMembers(final int index, final Object instance) {\n" +
+            "    switch (index) {\n" +
+            "      case 0: {\n" +
+            "        final Object event = GraphEvents.beginInject();\n" +
+            "        this.component.inject((B) instance);\n" +
+            "        GraphEvents.endInject(event, SimpleComponent.class, instance.getClass(), B.class);\n" +
+            "        return true;\n" +
+            "      }\n" +
+            "    }\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object module) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public ObjectGraph plus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    throw new IllegalArgumentException(\"No matching subcomponent method found for \" + subcomponentType.getName() + \" in SimpleComponent.\");\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public boolean canPlus(final Class<?> subcomponentType, final Object... modules) {\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  public WarmUp warmUp(final Executor executor) {\n" +
+            "    return new GraphWarmUp(new String[] {\n" +
+            "        \"a()\"\n" +
+            "    }) {\n" +
+            "      @Override\n" +
+            "      protected Object provide(final int index) {\n" +
+            "        switch (index) {\n" +
+            "          case 0:\n" +
+            "            return component.a();\n" +
+            "        }\n" +
+            "        throw new AssertionError();\n" +
+            "      }\n" +
+            "    }.start(executor);\n" +
             "  }\n" +
             "}");
     assert_().about(javaSources()).that(ImmutableList.of(aFile, bFile, componentFile))
+        .withCompilerOptions("-A" + ComponentProcessor.JFR_OPTION + "=true")
         .processedWith(new ComponentProcessor())
         .compilesWithoutError()
         .and().generatesSources(generatedBullet);
@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2014 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bullet.impl;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+
+import bullet.ObjectGraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that object graphs generated with the {@code bullet.deferClassLoading} option only load the classes that
+ * are looked up.
+ */
+public class DeferredClassLoadingTest {
+  private static final Set<String> COMPONENT_CLASSES = ImmutableSet.of("test.A", "test.B", "test.C", "test.D",
+      "test.E", "test.Outer$Inner", "test.Q");
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test public void loadsOnlyRequestedClasses() throws Exception {
+    File output = compile(ImmutableList.of("-Abullet.deferClassLoading=true"));
+
+    try (RecordingClassLoader classLoader = new RecordingClassLoader(output)) {
+      ObjectGraph graph = newObjectGraph(classLoader);
+      assertEquals(ImmutableSet.of(), classLoader.loaded(COMPONENT_CLASSES));
+
+      Class<?> a = classLoader.loadClass("test.A");
+      assertSame(a, graph.get(a).getClass());
+      assertEquals(ImmutableSet.of("test.A"), classLoader.loaded(COMPONENT_CLASSES));
+
+      Class<?> inner = classLoader.loadClass("test.Outer$Inner");
+      assertSame(inner, graph.get(inner).getClass());
+
+      Object d = classLoader.loadClass("test.D").newInstance();
+      assertSame(d, graph.inject(d));
+      assertEquals(ImmutableSet.of("test.A", "test.D", "test.Outer$Inner"), classLoader.loaded(COMPONENT_CLASSES));
+
+      try {
+        graph.get(Thread.class);
+        fail();
+      } catch (IllegalArgumentException expected) {
+      }
+      assertEquals(ImmutableSet.of("test.A", "test.D", "test.Outer$Inner"), classLoader.loaded(COMPONENT_CLASSES));
+    }
+  }
+
+  @Test public void loadsQualifiedClassesOnFirstQualifiedLookup() throws Exception {
+    File output = compile(ImmutableList.of("-Abullet.deferClassLoading=true"));
+
+    try (RecordingClassLoader classLoader = new RecordingClassLoader(output)) {
+      ObjectGraph graph = newObjectGraph(classLoader);
+      Class<?> q = classLoader.loadClass("test.Q");
+      assertSame(q, graph.get(q, "q").getClass());
+      assertEquals(ImmutableSet.of("test.Q"), classLoader.loaded(COMPONENT_CLASSES));
+    }
+  }
+
+  @Test public void doesNotFindClassesWithTheSameNameFromOtherClassLoaders() throws Exception {
+    File output = compile(ImmutableList.of("-Abullet.deferClassLoading=true"));
+
+    try (RecordingClassLoader classLoader = new RecordingClassLoader(output);
+         RecordingClassLoader otherClassLoader = new RecordingClassLoader(output)) {
+      ObjectGraph graph = newObjectGraph(classLoader);
+      try {
+        graph.get(otherClassLoader.loadClass("test.A"));
+        fail();
+      } catch (IllegalArgumentException expected) {
+      }
+      try {
+        graph.inject(otherClassLoader.loadClass("test.E").newInstance());
+        fail();
+      } catch (IllegalArgumentException expected) {
+      }
+      // The lookups by name resolved the classes of the object graph.
+      assertEquals(ImmutableSet.of("test.A", "test.E"), classLoader.loaded(COMPONENT_CLASSES));
+      Class<?> a = classLoader.loadClass("test.A");
+      assertSame(a, graph.get(a).getClass());
+    }
+  }
+
+  @Test public void loadsMembersInjectionClassesByDefault() throws Exception {
+    File output = compile(ImmutableList.<String>of());
+
+    try (RecordingClassLoader classLoader = new RecordingClassLoader(output)) {
+      newObjectGraph(classLoader);
+      assertTrue(classLoader.loaded(COMPONENT_CLASSES).containsAll(ImmutableSet.of("test.D", "test.E")));
+    }
+  }
+
+  private ObjectGraph newObjectGraph(ClassLoader classLoader) throws Exception {
+    Class<?> componentType = classLoader.loadClass("test.DeferredComponent");
+    Object component = classLoader.loadClass("test.DeferredComponentImpl").newInstance();
+    return (ObjectGraph) classLoader.loadClass("test.BulletDeferredComponent")
+        .getConstructor(componentType)
+        .newInstance(component);
+  }
+
+  private File compile(List<String> options) throws IOException {
+    List<JavaFileObject> sources = new ArrayList<>();
+    for (String name : new String[] { "A", "B", "C", "D", "E", "Q" }) {
+      sources.add(JavaFileObjects.forSourceLines("test." + name,
+          "package test;",
+          "",
+          "public class " + name + " {}"));
+    }
+    sources.add(JavaFileObjects.forSourceLines("test.Outer",
+        "package test;",
+        "",
+        "public class Outer {",
+        "  public static class Inner {}",
+        "}"));
+    sources.add(JavaFileObjects.forSourceLines("test.DeferredComponent",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "import javax.inject.Named;",
+        "",
+        "@Component",
+        "public interface DeferredComponent {",
+        "  A a();",
+        "  B b();",
+        "  C c();",
+        "  Outer.Inner inner();",
+        "  @Named(\"q\") Q q();",
+        "  void inject(D d);",
+        "  void inject(E e);",
+        "}"));
+    sources.add(JavaFileObjects.forSourceLines("test.DeferredComponentImpl",
+        "package test;",
+        "",
+        "public class DeferredComponentImpl implements DeferredComponent {",
+        "  @Override public A a() { return new A(); }",
+        "  @Override public B b() { return new B(); }",
+        "  @Override public C c() { return new C(); }",
+        "  @Override public Outer.Inner inner() { return new Outer.Inner(); }",
+        "  @Override public Q q() { return new Q(); }",
+        "  @Override public void inject(D d) {}",
+        "  @Override public void inject(E e) {}",
+        "}"));
+
+    File output = temporaryFolder.newFolder();
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    List<String> arguments = new ArrayList<>(ImmutableList.of(
+        "-d", output.getPath(),
+        "-s", output.getPath(),
+        "-classpath", System.getProperty("java.class.path")));
+    arguments.addAll(options);
+    JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, arguments, null, sources);
+    task.setProcessors(ImmutableList.of(new ComponentProcessor()));
+    assertTrue(Joiner.on('\n').join(diagnostics.getDiagnostics()), task.call());
+    return output;
+  }
+
+  /**
+   * Loads the compiled classes, recording their names.
+   */
+  private static class RecordingClassLoader extends URLClassLoader {
+    private final Set<String> loaded = new TreeSet<>();
+
+    RecordingClassLoader(File output) throws IOException {
+      super(new URL[] { output.toURI().toURL() }, DeferredClassLoadingTest.class.getClassLoader());
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+      synchronized (loaded) {
+        loaded.add(name);
+      }
+      return super.findClass(name);
+    }
+
+    Set<String> loaded(Set<String> names) {
+      synchronized (loaded) {
+        Set<String> result = new TreeSet<>(loaded);
+        result.retainAll(names);
+        return result;
+      }
+    }
+  }
+}
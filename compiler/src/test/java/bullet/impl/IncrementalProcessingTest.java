@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2014 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bullet.impl;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Resources;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.Completion;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the contract of Gradle incremental annotation processing: an isolating processor generates each file from
+ * exactly one originating element, so that Gradle only reprocesses the components that changed.
+ */
+public class IncrementalProcessingTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final JavaFileObject injectableTypeFile = JavaFileObjects.forSourceLines("test.SomeInjectableType",
+      "package test;",
+      "",
+      "import javax.inject.Inject;",
+      "",
+      "public class SomeInjectableType {",
+      "  @Inject SomeInjectableType() {}",
+      "}");
+  private final JavaFileObject subclassFile = JavaFileObjects.forSourceLines("test.SomeSubclass",
+      "package test;",
+      "",
+      "import javax.inject.Inject;",
+      "",
+      "public class SomeSubclass extends SomeInjectableType {",
+      "  @Inject Object dependency;",
+      "}");
+  private final JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.SimpleComponent",
+      "package test;",
+      "",
+      "import dagger.Component;",
+      "",
+      "@Component",
+      "interface SimpleComponent {",
+      "  SomeInjectableType someInjectableType();",
+      "  void inject(SomeInjectableType instance);",
+      "}");
+  private final JavaFileObject otherComponentFile = JavaFileObjects.forSourceLines("test.OtherComponent",
+      "package test;",
+      "",
+      "import dagger.Component;",
+      "",
+      "@Component",
+      "interface OtherComponent {",
+      "  SomeInjectableType someInjectableType();",
+      "}");
+
+  @Test public void registeredAsDynamic() throws IOException {
+    assertEquals("bullet.impl.ComponentProcessor,dynamic",
+        Resources.toString(Resources.getResource("META-INF/gradle/incremental.annotation.processors"), StandardCharsets.UTF_8).trim());
+  }
+
+  @Test public void isolatingByDefault() throws IOException {
+    RecordingProcessor processor = compile(temporaryFolder.newFolder(), ImmutableMap.<String, String>of(),
+        injectableTypeFile, componentFile);
+
+    assertTrue(processor.supportedOptions.contains("org.gradle.annotation.processing.isolating"));
+  }
+
+  @Test public void aggregatingWithRegistryOrRegisteredSubclasses() throws IOException {
+    RecordingProcessor processor = compile(temporaryFolder.newFolder(), ImmutableMap.of(ComponentProcessor.REGISTRY_OPTION, "test.TestGraphs"),
+        injectableTypeFile, componentFile);
+    assertTrue(processor.supportedOptions.contains("org.gradle.annotation.processing.aggregating"));
+
+    processor = compile(temporaryFolder.newFolder(), ImmutableMap.of(ComponentProcessor.REGISTER_SUBCLASSES_OPTION, "true"),
+        injectableTypeFile, componentFile);
+    assertTrue(processor.supportedOptions.contains("org.gradle.annotation.processing.aggregating"));
+  }
+
+  @Test public void eachObjectGraphOriginatesFromItsComponent() throws IOException {
+    RecordingProcessor processor = compile(temporaryFolder.newFolder(), ImmutableMap.<String, String>of(),
+        injectableTypeFile, subclassFile, componentFile, otherComponentFile);
+
+    assertEquals(ImmutableMap.of(
+            "test.BulletOtherComponent", ImmutableList.of("test.OtherComponent"),
+            "test.BulletSimpleComponent", ImmutableList.of("test.SimpleComponent")),
+        processor.originatingElements);
+  }
+
+  @Test public void unchangedComponentsAreNotRegenerated() throws IOException {
+    File output = temporaryFolder.newFolder();
+    compile(output, ImmutableMap.<String, String>of(), injectableTypeFile, componentFile, otherComponentFile);
+    assertTrue(new File(output, "test/OtherComponent.class").isFile());
+
+    // Gradle only recompiles the changed component, with the previous output on the classpath. The changed component
+    // depends on the unchanged one, which the processor then sees as a classpath-only type.
+    JavaFileObject changedComponentFile = JavaFileObjects.forSourceLines("test.SimpleComponent",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "",
+        "@Component(dependencies = OtherComponent.class)",
+        "interface SimpleComponent {",
+        "  SomeInjectableType someInjectableType();",
+        "  OtherComponent otherComponent();",
+        "}");
+    RecordingProcessor processor = compile(output, ImmutableMap.<String, String>of(), changedComponentFile);
+
+    assertEquals(ImmutableMap.of("test.BulletSimpleComponent", ImmutableList.of("test.SimpleComponent")),
+        processor.originatingElements);
+  }
+
+  @Test public void registeredSubclassesAreOriginatingElements() throws IOException {
+    RecordingProcessor processor = compile(temporaryFolder.newFolder(), ImmutableMap.of(ComponentProcessor.REGISTER_SUBCLASSES_OPTION, "true"),
+        injectableTypeFile, subclassFile, componentFile);
+
+    assertEquals(ImmutableMap.of("test.BulletSimpleComponent", ImmutableList.of("test.SimpleComponent", "test.SomeSubclass")),
+        processor.originatingElements);
+  }
+
+  private RecordingProcessor compile(File output, Map<String, String> options, JavaFileObject... sources) throws IOException {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    List<String> arguments = new ArrayList<>(ImmutableList.of(
+        "-d", output.getPath(),
+        "-s", output.getPath(),
+        "-classpath", output.getPath() + File.pathSeparator + System.getProperty("java.class.path")));
+    for (Map.Entry<String, String> option : options.entrySet()) {
+      arguments.add("-A" + option.getKey() + "=" + option.getValue());
+    }
+    RecordingProcessor processor = new RecordingProcessor(new ComponentProcessor());
+    JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, arguments, null, ImmutableList.copyOf(sources));
+    task.setProcessors(ImmutableList.of(processor));
+    assertTrue(Joiner.on('\n').join(diagnostics.getDiagnostics()), task.call());
+    return processor;
+  }
+
+  /**
+   * Records the originating elements of the generated source files, as Gradle does.
+   */
+  private static class RecordingProcessor implements Processor {
+    final Processor delegate;
+    final Map<String, List<String>> originatingElements = new TreeMap<>();
+    Set<String> supportedOptions;
+
+    RecordingProcessor(Processor delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+      return delegate.getSupportedOptions();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+      return delegate.getSupportedAnnotationTypes();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+      return delegate.getSupportedSourceVersion();
+    }
+
+    @Override
+    public void init(final ProcessingEnvironment processingEnv) {
+      final Filer filer = new Filer() {
+        @Override
+        public JavaFileObject createSourceFile(CharSequence name, Element... originatingElements) throws IOException {
+          List<String> names = new ArrayList<>();
+          for (Element element : originatingElements) {
+            names.add(((TypeElement) element).getQualifiedName().toString());
+          }
+          RecordingProcessor.this.originatingElements.put(name.toString(), names);
+          return processingEnv.getFiler().createSourceFile(name, originatingElements);
+        }
+
+        @Override
+        public JavaFileObject createClassFile(CharSequence name, Element... originatingElements) throws IOException {
+          return processingEnv.getFiler().createClassFile(name, originatingElements);
+        }
+
+        @Override
+        public FileObject createResource(JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName,
+            Element... originatingElements) throws IOException {
+          return processingEnv.getFiler().createResource(location, pkg, relativeName, originatingElements);
+        }
+
+        @Override
+        public FileObject getResource(JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName)
+            throws IOException {
+          return processingEnv.getFiler().getResource(location, pkg, relativeName);
+        }
+      };
+      delegate.init(new ProcessingEnvironment() {
+        @Override public Map<String, String> getOptions() { return processingEnv.getOptions(); }
+        @Override public Messager getMessager() { return processingEnv.getMessager(); }
+        @Override public Filer getFiler() { return filer; }
+        @Override public Elements getElementUtils() { return processingEnv.getElementUtils(); }
+        @Override public Types getTypeUtils() { return processingEnv.getTypeUtils(); }
+        @Override public SourceVersion getSourceVersion() { return processingEnv.getSourceVersion(); }
+        @Override public Locale getLocale() { return processingEnv.getLocale(); }
+      });
+      // Gradle asks for the supported options after initializing the processor.
+      supportedOptions = delegate.getSupportedOptions();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      return delegate.process(annotations, roundEnv);
+    }
+
+    @Override
+    public Iterable<? extends Completion> getCompletions(Element element, AnnotationMirror annotation,
+        ExecutableElement member, String userText) {
+      return delegate.getCompletions(element, annotation, member, userText);
+    }
+  }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2014 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bullet.impl;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the methods generated for large components stay below the size above which HotSpot doesn't JIT-compile
+ * them.
+ */
+public class MethodSizeTest {
+  /** HotSpot's {@code HugeMethodLimit}. */
+  private static final int HUGE_METHOD_LIMIT = 8000;
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test public void largeComponent() throws IOException {
+    int size = 300;
+    List<JavaFileObject> sources = new ArrayList<>();
+    List<String> component = new ArrayList<>(ImmutableList.of(
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "import dagger.Lazy;",
+        "import java.util.List;",
+        "import javax.inject.Named;",
+        "import javax.inject.Provider;",
+        "",
+        "@Component",
+        "interface LargeComponent {"));
+    for (int i = 0; i < size; i++) {
+      sources.add(JavaFileObjects.forSourceLines("test.T" + i,
+          "package test;",
+          "",
+          "class T" + i + " {}"));
+      component.add("  " + (i % 3 == 0 ? "T" + i : i % 3 == 1 ? "Provider<T" + i + ">" : "Lazy<T" + i + ">") + " t" + i + "();");
+      component.add("  @Named(\"t" + i + "\") T" + i + " namedT" + i + "();");
+      component.add("  List<T" + i + "> listT" + i + "();");
+      component.add("  void inject(T" + i + " t);");
+    }
+    component.add("}");
+    sources.add(JavaFileObjects.forSourceLines("test.LargeComponent", component));
+
+    File output = temporaryFolder.newFolder();
+    compile(output, ImmutableList.of("-Abullet.metrics=true", "-Abullet.jfr=true"), sources);
+
+    Map<String, Integer> codeLengths = codeLengths(new File(output, "test/BulletLargeComponent.class"));
+    assertTrue(codeLengths.keySet().toString(), codeLengths.containsKey("getBucket2"));
+    assertTrue(codeLengths.keySet().toString(), codeLengths.containsKey("getKeyBucket2"));
+    assertTrue(codeLengths.keySet().toString(), codeLengths.containsKey("canProvideKeyBucket2"));
+    assertTrue(codeLengths.keySet().toString(), codeLengths.containsKey("getQualifiedBucket2"));
+    assertTrue(codeLengths.keySet().toString(), codeLengths.containsKey("injectMembersBucket2"));
+    // The static initializer only runs once, it isn't worth compiling.
+    codeLengths.remove("<clinit>");
+    for (Map.Entry<String, Integer> codeLength : codeLengths.entrySet()) {
+      assertTrue(codeLength.getKey() + " is " + codeLength.getValue() + " bytes", codeLength.getValue() < HUGE_METHOD_LIMIT);
+    }
+  }
+
+  @Test public void manySubcomponentsWarns() throws IOException {
+    List<JavaFileObject> sources = new ArrayList<>();
+    List<String> component = new ArrayList<>(ImmutableList.of(
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "",
+        "@Component",
+        "interface LargeComponent {"));
+    for (int i = 0; i <= ComponentProcessingStep.MAX_SWITCH_CASES; i++) {
+      sources.add(JavaFileObjects.forSourceLines("test.S" + i,
+          "package test;",
+          "",
+          "import dagger.Subcomponent;",
+          "",
+          "@Subcomponent",
+          "interface S" + i + " {}"));
+      component.add("  S" + i + " s" + i + "();");
+    }
+    component.add("}");
+    sources.add(JavaFileObjects.forSourceLines("test.LargeComponent", component));
+
+    List<Diagnostic<? extends JavaFileObject>> diagnostics = compile(temporaryFolder.newFolder(), ImmutableList.<String>of(), sources);
+
+    boolean warned = false;
+    for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics) {
+      warned |= diagnostic.getKind() == Diagnostic.Kind.WARNING && diagnostic.getMessage(null).contains("plus()");
+    }
+    assertTrue(diagnostics.toString(), warned);
+  }
+
+  @Test public void smallComponentDoesNotWarn() throws IOException {
+    List<Diagnostic<? extends JavaFileObject>> diagnostics = compile(temporaryFolder.newFolder(), ImmutableList.<String>of(),
+        ImmutableList.of(JavaFileObjects.forSourceLines("test.SmallComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "",
+            "@Component",
+            "interface SmallComponent {",
+            "  String string();",
+            "}")));
+
+    for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics) {
+      assertFalse(diagnostic.toString(), diagnostic.getKind() == Diagnostic.Kind.WARNING);
+    }
+  }
+
+  private List<Diagnostic<? extends JavaFileObject>> compile(File output, List<String> options, List<JavaFileObject> sources) {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    List<String> arguments = new ArrayList<>(ImmutableList.of(
+        "-d", output.getPath(),
+        "-s", output.getPath(),
+        "-classpath", System.getProperty("java.class.path")));
+    arguments.addAll(options);
+    JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, arguments, null, sources);
+    task.setProcessors(ImmutableList.of(new ComponentProcessor()));
+    assertTrue(Joiner.on('\n').join(diagnostics.getDiagnostics()), task.call());
+    return diagnostics.getDiagnostics();
+  }
+
+  /**
+   * Returns the length of the bytecode of each method of the class, by method name (keeping the largest overload).
+   */
+  private static Map<String, Integer> codeLengths(File classFile) throws IOException {
+    Map<String, Integer> codeLengths = new TreeMap<>();
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(classFile)))) {
+      skip(in, 8); // magic, minor and major versions
+      int constantPoolCount = in.readUnsignedShort();
+      String[] utf8 = new String[constantPoolCount];
+      for (int i = 1; i < constantPoolCount; i++) {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+          case 1: // Utf8
+            utf8[i] = in.readUTF();
+            break;
+          case 7: // Class
+          case 8: // String
+          case 16: // MethodType
+            skip(in, 2);
+            break;
+          case 15: // MethodHandle
+            skip(in, 3);
+            break;
+          case 3: // Integer
+          case 4: // Float
+          case 9: // Fieldref
+          case 10: // Methodref
+          case 11: // InterfaceMethodref
+          case 12: // NameAndType
+          case 18: // InvokeDynamic
+            skip(in, 4);
+            break;
+          case 5: // Long
+          case 6: // Double
+            skip(in, 8);
+            i++;
+            break;
+          default:
+            throw new IOException("Unexpected constant pool tag " + tag);
+        }
+      }
+      skip(in, 6); // access flags, this class, super class
+      skip(in, 2 * in.readUnsignedShort()); // interfaces
+      int fieldCount = in.readUnsignedShort();
+      for (int i = 0; i < fieldCount; i++) {
+        skip(in, 6); // access flags, name, descriptor
+        skipAttributes(in);
+      }
+      int methodCount = in.readUnsignedShort();
+      for (int i = 0; i < methodCount; i++) {
+        skip(in, 2); // access flags
+        String name = utf8[in.readUnsignedShort()];
+        skip(in, 2); // descriptor
+        int attributeCount = in.readUnsignedShort();
+        for (int j = 0; j < attributeCount; j++) {
+          String attributeName = utf8[in.readUnsignedShort()];
+          int length = in.readInt();
+          if (attributeName.equals("Code")) {
+            skip(in, 4); // max stack, max locals
+            int codeLength = in.readInt();
+            Integer previous = codeLengths.get(name);
+            codeLengths.put(name, previous == null ? codeLength : Math.max(previous, codeLength));
+            skip(in, length - 8);
+          } else {
+            skip(in, length);
+          }
+        }
+      }
+    }
+    return codeLengths;
+  }
+
+  private static void skipAttributes(DataInputStream in) throws IOException {
+    int attributeCount = in.readUnsignedShort();
+    for (int i = 0; i < attributeCount; i++) {
+      skip(in, 2); // name
+      skip(in, in.readInt());
+    }
+  }
+
+  private static void skip(DataInputStream in, int length) throws IOException {
+    in.readFully(new byte[length]);
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2014 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bullet;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Creates the {@link ObjectGraph} of any component known to a registered {@link Registry}, without reflection.
+ * <p>
+ * Registries are generated by the annotation processor when the {@code bullet.registry} option is set to the fully
+ * qualified name of the class to generate, e.g. {@code -Abullet.registry=com.example.AppGraphs}; use a different name
+ * in each compilation unit (e.g. each Maven module) and register an instance of each generated registry at startup:
+ * <pre><code>
+ * BulletGraphs.register(new AppGraphs());
+ * ObjectGraph graph = BulletGraphs.of(component);
+ * </code></pre>
+ */
+public final class BulletGraphs {
+
+  /**
+   * Creates the object graphs for a set of components.
+   */
+  public interface Registry {
+    /**
+     * Returns the object graph wrapping component, or {@code null} if the runtime type of component doesn't implement
+     * any of the component types known to this registry.
+     */
+    ObjectGraph of(Object component);
+  }
+
+  private static final CopyOnWriteArrayList<Registry> registries = new CopyOnWriteArrayList<>();
+
+  private BulletGraphs() {
+  }
+
+  /**
+   * Registers a registry. Registering the same registry more than once has no effect.
+   */
+  public static void register(Registry registry) {
+    if (registry == null) {
+      throw new NullPointerException("registry");
+    }
+    registries.addIfAbsent(registry);
+  }
+
+  /**
+   * Returns the object graph wrapping component, as created by the first registered registry that knows about its
+   * component type.
+   *
+   * @throws java.lang.IllegalArgumentException if no registered registry knows about the component type.
+   */
+  public static ObjectGraph of(Object component) {
+    for (Registry registry : registries) {
+      ObjectGraph graph = registry.of(component);
+      if (graph != null) {
+        return graph;
+      }
+    }
+    throw new IllegalArgumentException("No registered registry found for " + component.getClass().getName());
+  }
+}
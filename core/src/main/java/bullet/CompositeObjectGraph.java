@@ -0,0 +1,380 @@
+/*
+ * Copyright (C) 2014 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bullet;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Provider;
+
+import dagger.Lazy;
+import dagger.MembersInjector;
+
+/**
+ * An object graph over several object graphs, e.g. of independent components, routing each lookup to the graph
+ * owning the binding.
+ * <p>
+ * The graphs are given in order of precedence: when several of them have a binding for the same type (or can inject
+ * the same runtime class), the first one wins.
+ * <p>
+ * The owning graph of each type, key or qualified type is resolved by its first lookup, asking each graph in turn
+ * with the non-throwing probes ({@link ObjectGraph#canProvide(Class)} and its overloads,
+ * {@link ObjectGraph#canInject(Class)}), and cached: later lookups are a single cache lookup followed by a call to that
+ * graph, however many graphs there are. Misses are only cached for types, as keys and {@code @Named} values can be
+ * built at runtime without bound. Exceptions thrown by the bindings are never taken for misses. Child graphs
+ * are created by the first graph answering {@link ObjectGraph#canPlus(Class, Object...)}, but are not cached.
+ */
+public final class CompositeObjectGraph implements ObjectGraph {
+  private static final Integer NONE = -1;
+
+  private final ObjectGraph[] graphs;
+  // Caches are per instance, rather than ClassValues, so that they go away with the composite.
+  private final ConcurrentMap<Class<?>, Integer> providingGraphs = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Class<?>, Integer> injectingGraphs = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Key<?>, Integer> keyGraphs = new ConcurrentHashMap<>();
+  /** The graphs of the qualified types, by type then by qualifier annotation type or {@code @Named} value. */
+  private final ConcurrentMap<Class<?>, ConcurrentMap<Object, Integer>> qualifiedGraphs = new ConcurrentHashMap<>();
+
+  /**
+   * @param graphs the object graphs, in order of precedence.
+   */
+  public CompositeObjectGraph(ObjectGraph... graphs) {
+    this(Arrays.asList(graphs));
+  }
+
+  /**
+   * @param graphs the object graphs, in order of precedence.
+   */
+  public CompositeObjectGraph(List<? extends ObjectGraph> graphs) {
+    this.graphs = graphs.toArray(new ObjectGraph[graphs.size()]);
+    for (ObjectGraph graph : this.graphs) {
+      if (graph == null) {
+        throw new NullPointerException("graphs");
+      }
+    }
+  }
+
+  @Override
+  public <T> T get(Class<T> type) {
+    return graphs[providingGraph(type)].get(type);
+  }
+
+  @Override
+  public <T> T tryGet(Class<T> type) {
+    int index = providingGraphIndex(type);
+    return index < 0 ? null : graphs[index].get(type);
+  }
+
+  @Override
+  public boolean canProvide(Class<?> type) {
+    return providingGraphIndex(type) >= 0;
+  }
+
+  @Override
+  public <T> T get(Key<T> key) {
+    int index = keyGraphIndex(key);
+    if (index < 0) {
+      throw new IllegalArgumentException("No 'get', 'Provider', or 'Lazy' method found for " + key + " in any of the " + graphs.length + " object graphs.");
+    }
+    return graphs[index].get(key);
+  }
+
+  @Override
+  public boolean canProvide(Key<?> key) {
+    return keyGraphIndex(key) >= 0;
+  }
+
+  @Override
+  public <T> T get(Class<T> type, Class<? extends Annotation> qualifier) {
+    int index = qualifiedGraphIndex(type, qualifier);
+    if (index < 0) {
+      throw new IllegalArgumentException("No 'get', 'Provider', or 'Lazy' method found for @" + qualifier.getName() + " " + type.getName() + " in any of the " + graphs.length + " object graphs.");
+    }
+    return graphs[index].get(type, qualifier);
+  }
+
+  @Override
+  public boolean canProvide(Class<?> type, Class<? extends Annotation> qualifier) {
+    return qualifiedGraphIndex(type, qualifier) >= 0;
+  }
+
+  @Override
+  public <T> T get(Class<T> type, String name) {
+    int index = qualifiedGraphIndex(type, name);
+    if (index < 0) {
+      throw new IllegalArgumentException("No 'get', 'Provider', or 'Lazy' method found for @Named(\"" + name + "\") " + type.getName() + " in any of the " + graphs.length + " object graphs.");
+    }
+    return graphs[index].get(type, name);
+  }
+
+  @Override
+  public boolean canProvide(Class<?> type, String name) {
+    return qualifiedGraphIndex(type, name) >= 0;
+  }
+
+  @Override
+  public <T> Provider<T> provider(Class<T> type) {
+    return graphs[providingGraph(type)].provider(type);
+  }
+
+  @Override
+  public <T> Lazy<T> lazy(Class<T> type) {
+    return graphs[providingGraph(type)].lazy(type);
+  }
+
+  @Override
+  public <T> Provider<T> handle(Class<T> type) {
+    return graphs[providingGraph(type)].handle(type);
+  }
+
+  @Override
+  public <T> T inject(T instance) {
+    return graphs[injectingGraph(instance.getClass())].inject(instance);
+  }
+
+  @Override
+  public boolean tryInject(Object instance) {
+    int index = injectingGraphIndex(instance.getClass());
+    if (index < 0) {
+      return false;
+    }
+    graphs[index].inject(instance);
+    return true;
+  }
+
+  @Override
+  public <T> MembersInjector<T> membersInjector(Class<T> type) {
+    return graphs[injectingGraph(type)].membersInjector(type);
+  }
+
+  @Override
+  public boolean canInject(Class<?> type) {
+    return injectingGraphIndex(type) >= 0;
+  }
+
+  @Override
+  public void injectAll(Object[] instances) {
+    for (Object instance : instances) {
+      inject(instance);
+    }
+  }
+
+  @Override
+  public void injectAll(Iterable<?> instances) {
+    for (Object instance : instances) {
+      inject(instance);
+    }
+  }
+
+  @Override
+  public ObjectGraph plus(Class<?> subcomponentType) {
+    return graphs[subcomponentGraph(subcomponentType)].plus(subcomponentType);
+  }
+
+  @Override
+  public ObjectGraph plus(Class<?> subcomponentType, Object module) {
+    return graphs[subcomponentGraph(subcomponentType, new Object[] { module })].plus(subcomponentType, module);
+  }
+
+  @Override
+  public ObjectGraph plus(Class<?> subcomponentType, Object... modules) {
+    return graphs[subcomponentGraph(subcomponentType, modules)].plus(subcomponentType, modules);
+  }
+
+  @Override
+  public boolean canPlus(Class<?> subcomponentType, Object... modules) {
+    for (ObjectGraph graph : graphs) {
+      if (graph.canPlus(subcomponentType, modules)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Warms up all the object graphs, on the same executor.
+   *
+   * @return a handle to wait for the provisions of all the object graphs, and their timings, graph after graph.
+   */
+  @Override
+  public WarmUp warmUp(Executor executor) {
+    List<WarmUp> warmUps = new ArrayList<>(graphs.length);
+    for (ObjectGraph graph : graphs) {
+      warmUps.add(graph.warmUp(executor));
+    }
+    return new CompositeWarmUp(warmUps);
+  }
+
+  private int providingGraph(Class<?> type) {
+    int index = providingGraphIndex(type);
+    if (index < 0) {
+      throw new IllegalArgumentException("No 'get', 'Provider', or 'Lazy' method found for " + type.getName() + " in any of the " + graphs.length + " object graphs.");
+    }
+    return index;
+  }
+
+  private int injectingGraph(Class<?> type) {
+    int index = injectingGraphIndex(type);
+    if (index < 0) {
+      throw new IllegalArgumentException("No 'inject' or 'MembersInject' method found for " + type.getName() + " in any of the " + graphs.length + " object graphs.");
+    }
+    return index;
+  }
+
+  private int subcomponentGraph(Class<?> subcomponentType, Object... modules) {
+    for (int i = 0; i < graphs.length; i++) {
+      if (graphs[i].canPlus(subcomponentType, modules)) {
+        return i;
+      }
+    }
+    throw new IllegalArgumentException("No matching subcomponent method found for " + subcomponentType.getName() + " in any of the " + graphs.length + " object graphs.");
+  }
+
+  /**
+   * @return the index of the first graph that can provide type, or -1 if there's none.
+   */
+  private int providingGraphIndex(Class<?> type) {
+    Integer index = providingGraphs.get(type);
+    if (index == null) {
+      index = NONE;
+      for (int i = 0; i < graphs.length; i++) {
+        if (graphs[i].canProvide(type)) {
+          index = i;
+          break;
+        }
+      }
+      providingGraphs.putIfAbsent(type, index);
+    }
+    return index;
+  }
+
+  /**
+   * @return the index of the first graph that can inject the members of instances of type, or -1 if there's none.
+   */
+  private int injectingGraphIndex(Class<?> type) {
+    Integer index = injectingGraphs.get(type);
+    if (index == null) {
+      index = NONE;
+      for (int i = 0; i < graphs.length; i++) {
+        if (graphs[i].canInject(type)) {
+          index = i;
+          break;
+        }
+      }
+      injectingGraphs.putIfAbsent(type, index);
+    }
+    return index;
+  }
+
+  /**
+   * @return the index of the first graph that can provide the type identified by key, or -1 if there's none.
+   *     Unlike for classes, misses aren't cached: keys and {@code @Named} values can be built at runtime, without bound.
+   */
+  private int keyGraphIndex(Key<?> key) {
+    if (key.getType() instanceof Class) {
+      return providingGraphIndex((Class<?>) key.getType());
+    }
+    Integer index = keyGraphs.get(key);
+    if (index == null) {
+      for (int i = 0; i < graphs.length; i++) {
+        if (graphs[i].canProvide(key)) {
+          keyGraphs.putIfAbsent(key, i);
+          return i;
+        }
+      }
+      return NONE;
+    }
+    return index;
+  }
+
+  /**
+   * @param qualifier the qualifier annotation type, or the value of the {@code @Named} qualifier.
+   * @return the index of the first graph that can provide type with qualifier, or -1 if there's none.
+   */
+  @SuppressWarnings("unchecked")
+  private int qualifiedGraphIndex(Class<?> type, Object qualifier) {
+    ConcurrentMap<Object, Integer> qualifierGraphs = qualifiedGraphs.get(type);
+    Integer index = qualifierGraphs == null ? null : qualifierGraphs.get(qualifier);
+    if (index == null) {
+      for (int i = 0; i < graphs.length; i++) {
+        if (qualifier instanceof String
+            ? graphs[i].canProvide(type, (String) qualifier)
+            : graphs[i].canProvide(type, (Class<? extends Annotation>) qualifier)) {
+          if (qualifierGraphs == null) {
+            qualifiedGraphs.putIfAbsent(type, new ConcurrentHashMap<Object, Integer>());
+            qualifierGraphs = qualifiedGraphs.get(type);
+          }
+          qualifierGraphs.putIfAbsent(qualifier, i);
+          return i;
+        }
+      }
+      return NONE;
+    }
+    return index;
+  }
+
+  private static final class CompositeWarmUp implements WarmUp {
+    private final List<WarmUp> warmUps;
+
+    CompositeWarmUp(List<WarmUp> warmUps) {
+      this.warmUps = warmUps;
+    }
+
+    @Override
+    public boolean isDone() {
+      for (WarmUp warmUp : warmUps) {
+        if (!warmUp.isDone()) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public void await() throws InterruptedException {
+      for (WarmUp warmUp : warmUps) {
+        warmUp.await();
+      }
+    }
+
+    @Override
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+      long deadline = System.nanoTime() + unit.toNanos(timeout);
+      for (WarmUp warmUp : warmUps) {
+        if (!warmUp.await(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public List<Binding> getBindings() {
+      List<Binding> bindings = new ArrayList<>();
+      for (WarmUp warmUp : warmUps) {
+        bindings.addAll(warmUp.getBindings());
+      }
+      return Collections.unmodifiableList(bindings);
+    }
+  }
+}
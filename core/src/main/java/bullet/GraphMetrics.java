@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2014 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bullet;
+
+import java.util.Collections;
+import java.util.List;
+
+import bullet.impl.MeteredObjectGraph;
+
+/**
+ * Snapshot of the metrics of an object graph generated with the {@code bullet.metrics} processor option.
+ * <p>
+ * Metrics are shared by all the object graphs for the same component type. They count the calls to {@code get()} and
+ * {@code inject()} (including {@code injectAll()}) per component method, and the lookups that didn't find any
+ * method. Providers, lazies and members injectors returned by an object graph aren't metered.
+ * <p>
+ * Latency is only measured for one call in every {@code bullet.metrics.sampling} calls, as set by that system property
+ * when the object graph class is initialized; it isn't measured by default.
+ */
+public final class GraphMetrics {
+
+  /**
+   * Metrics of a single component method.
+   */
+  public static final class Binding {
+    private final String name;
+    private final long calls;
+    private final long walkDepth;
+    private final long sampledCalls;
+    private final long sampledNanos;
+
+    public Binding(String name, long calls, long walkDepth, long sampledCalls, long sampledNanos) {
+      this.name = name;
+      this.calls = calls;
+      this.walkDepth = walkDepth;
+      this.sampledCalls = sampledCalls;
+      this.sampledNanos = sampledNanos;
+    }
+
+    /**
+     * Returns the signature of the component method, e.g. {@code someType()} or {@code inject(test.SomeType)}.
+     */
+    public String getName() {
+      return name;
+    }
+
+    public long getCalls() {
+      return calls;
+    }
+
+    /**
+     * Returns the total number of supertype steps taken from the runtime class of injected instances to the type of
+     * the members-injection method; always 0 for provisions.
+     */
+    public long getWalkDepth() {
+      return walkDepth;
+    }
+
+    /**
+     * Returns the number of calls whose latency was measured.
+     */
+    public long getSampledCalls() {
+      return sampledCalls;
+    }
+
+    /**
+     * Returns the total latency of the sampled calls, in nanoseconds.
+     */
+    public long getSampledNanos() {
+      return sampledNanos;
+    }
+
+    @Override
+    public String toString() {
+      return name + "{calls=" + calls + ", walkDepth=" + walkDepth + ", sampledCalls=" + sampledCalls
+          + ", sampledNanos=" + sampledNanos + "}";
+    }
+  }
+
+  private final String graphName;
+  private final List<Binding> bindings;
+  private final long misses;
+
+  public GraphMetrics(String graphName, List<Binding> bindings, long misses) {
+    this.graphName = graphName;
+    this.bindings = Collections.unmodifiableList(bindings);
+    this.misses = misses;
+  }
+
+  /**
+   * Returns a snapshot of the metrics of the object graph.
+   *
+   * @throws java.lang.IllegalArgumentException if the object graph wasn't generated with the {@code bullet.metrics}
+   *         option.
+   */
+  public static GraphMetrics of(ObjectGraph graph) {
+    if (!(graph instanceof MeteredObjectGraph)) {
+      throw new IllegalArgumentException(graph.getClass().getName() + " wasn't generated with metrics");
+    }
+    return ((MeteredObjectGraph) graph).getMetrics();
+  }
+
+  /**
+   * Returns the qualified name of the component type.
+   */
+  public String getGraphName() {
+    return graphName;
+  }
+
+  /**
+   * Returns the metrics of each metered component method.
+   */
+  public List<Binding> getBindings() {
+    return bindings;
+  }
+
+  /**
+   * Returns the metrics of the named component method, or {@code null} if there's no such metered method.
+   */
+  public Binding getBinding(String name) {
+    for (Binding binding : bindings) {
+      if (binding.getName().equals(name)) {
+        return binding;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the number of lookups for which no method was found, whether they threw an
+   * {@link IllegalArgumentException} or, for {@code tryGet()} and {@code tryInject()}, returned {@code null} or
+   * {@code false}.
+   */
+  public long getMisses() {
+    return misses;
+  }
+
+  @Override
+  public String toString() {
+    return graphName + "{bindings=" + bindings + ", misses=" + misses + "}";
+  }
+}
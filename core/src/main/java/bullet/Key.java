@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2014 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bullet;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+
+/**
+ * Identifies a possibly parameterized type, to get instances of parameterized types from an {@link ObjectGraph}.
+ * <p>
+ * Create keys for parameterized types by subclassing: {@code new Key<List<Foo>>() {}}.
+ * <p>
+ * The type is reflected upon only once, when the key is created, to compute its canonical name: generated object
+ * graphs then dispatch on that name, whose hash code is computed once too. Keys are thus best created once and kept in
+ * constants.
+ */
+public class Key<T> {
+  private final Type type;
+  private final String name;
+  private final int hashCode;
+
+  /**
+   * Creates a key for the type argument of the anonymous subclass.
+   *
+   * @throws java.lang.IllegalStateException if the type argument is missing.
+   * @throws java.lang.IllegalArgumentException if the type contains type variables.
+   */
+  protected Key() {
+    Type superclass = getClass().getGenericSuperclass();
+    if (!(superclass instanceof ParameterizedType)) {
+      throw new IllegalStateException("Missing type argument for " + getClass().getName());
+    }
+    this.type = ((ParameterizedType) superclass).getActualTypeArguments()[0];
+    this.name = getName(type);
+    // Also caches the hash code of the name, used by the switches of generated object graphs.
+    this.hashCode = name.hashCode();
+  }
+
+  private Key(Class<T> type) {
+    this.type = type;
+    this.name = getName(type);
+    this.hashCode = name.hashCode();
+  }
+
+  /**
+   * Returns a key for the given class.
+   */
+  public static <T> Key<T> get(Class<T> type) {
+    return new Key<>(type);
+  }
+
+  private static String getName(Type type) {
+    if (type instanceof Class) {
+      Class<?> c = (Class<?>) type;
+      return c.isArray() ? getName(c.getComponentType()) + "[]" : c.getName();
+    } else if (type instanceof ParameterizedType) {
+      ParameterizedType parameterizedType = (ParameterizedType) type;
+      StringBuilder sb = new StringBuilder(getName(parameterizedType.getRawType())).append('<');
+      Type[] typeArguments = parameterizedType.getActualTypeArguments();
+      for (int i = 0; i < typeArguments.length; i++) {
+        sb.append(i > 0 ? "," : "").append(getName(typeArguments[i]));
+      }
+      return sb.append('>').toString();
+    } else if (type instanceof GenericArrayType) {
+      return getName(((GenericArrayType) type).getGenericComponentType()) + "[]";
+    } else if (type instanceof WildcardType) {
+      WildcardType wildcardType = (WildcardType) type;
+      if (wildcardType.getLowerBounds().length > 0) {
+        return "? super " + getName(wildcardType.getLowerBounds()[0]);
+      }
+      Type upperBound = wildcardType.getUpperBounds()[0];
+      return upperBound == Object.class ? "?" : "? extends " + getName(upperBound);
+    }
+    throw new IllegalArgumentException("Cannot create a key for " + type);
+  }
+
+  /**
+   * Returns the type this key identifies.
+   */
+  public final Type getType() {
+    return type;
+  }
+
+  /**
+   * Returns the canonical name of the type: binary names of classes, with type arguments separated by commas without
+   * spaces, e.g. {@code java.util.Map<java.lang.String,test.Outer$Inner[]>}.
+   */
+  public final String getName() {
+    return name;
+  }
+
+  @Override
+  public final boolean equals(Object obj) {
+    return obj instanceof Key && ((Key<?>) obj).hashCode == hashCode && ((Key<?>) obj).name.equals(name);
+  }
+
+  @Override
+  public final int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public final String toString() {
+    return name;
+  }
+}
@@ -15,6 +15,14 @@
  */
 package bullet;
 
+import java.lang.annotation.Annotation;
+import java.util.concurrent.Executor;
+
+import javax.inject.Provider;
+
+import dagger.Lazy;
+import dagger.MembersInjector;
+
 public interface ObjectGraph {
   /**
    * Returns an instance of type.
@@ -23,10 +31,192 @@ public interface ObjectGraph {
    */
   <T> T get(Class<T> type);
 
+  /**
+   * Returns an instance of type, or {@code null} if type is not one of this object graph's injectable types.
+   * <p>
+   * Unlike {@link #get(Class)}, a miss doesn't throw, so probing several object graphs costs no exception and no stack
+   * trace. Use {@link #canProvide(Class)} to tell a miss apart from a {@code @Nullable} binding.
+   */
+  <T> T tryGet(Class<T> type);
+
+  /**
+   * Returns whether type is one of this object graph's injectable types, i.e. whether {@link #get(Class)} would return
+   * an instance of it rather than throw. No instance is created.
+   */
+  boolean canProvide(Class<?> type);
+
+  /**
+   * Returns an instance of the type identified by key.
+   * <p>
+   * Unlike {@link #get(Class)}, which only knows about erased types, this tells apart parameterized types such as
+   * {@code List<Foo>} and {@code List<Bar>}. Keys for classes behave just like {@link #get(Class)}.
+   *
+   * @throws java.lang.IllegalArgumentException if the type is not one of this object graph's injectable types.
+   */
+  <T> T get(Key<T> key);
+
+  /**
+   * Returns whether the type identified by key is one of this object graph's injectable types, i.e. whether
+   * {@link #get(Key)} would return an instance of it rather than throw. No instance is created.
+   */
+  boolean canProvide(Key<?> key);
+
+  /**
+   * Returns an instance of type with the given qualifier.
+   * <p>
+   * Only qualifiers without attributes can be looked up this way; use {@link #get(Class, String)} for
+   * {@link javax.inject.Named @Named} qualifiers.
+   *
+   * @throws java.lang.IllegalArgumentException if type with qualifier is not one of this object graph's injectable types.
+   */
+  <T> T get(Class<T> type, Class<? extends Annotation> qualifier);
+
+  /**
+   * Returns whether type with the given qualifier is one of this object graph's injectable types, i.e. whether
+   * {@link #get(Class, Class)} would return an instance of it rather than throw. No instance is created.
+   */
+  boolean canProvide(Class<?> type, Class<? extends Annotation> qualifier);
+
+  /**
+   * Returns an instance of type with a {@link javax.inject.Named @Named} qualifier of the given name.
+   *
+   * @throws java.lang.IllegalArgumentException if type with name is not one of this object graph's injectable types.
+   */
+  <T> T get(Class<T> type, String name);
+
+  /**
+   * Returns whether type with a {@link javax.inject.Named @Named} qualifier of the given name is one of this object
+   * graph's injectable types, i.e. whether {@link #get(Class, String)} would return an instance of it rather than throw.
+   * No instance is created.
+   */
+  boolean canProvide(Class<?> type, String name);
+
+  /**
+   * Returns a provider of instances of type, as if by calling {@link #get(Class)}.
+   * <p>
+   * The binding is resolved once, when the provider is created: if the component has a {@code Provider} method for
+   * type, its provider is returned; otherwise the returned provider calls the component method directly. Callers that
+   * repeatedly get instances of the same type can hoist the call to this method out of their loops.
+   *
+   * @throws java.lang.IllegalArgumentException if type is not one of this object graph's injectable types.
+   */
+  <T> Provider<T> provider(Class<T> type);
+
+  /**
+   * Returns a lazy instance of type.
+   * <p>
+   * If the component has a {@code Lazy} method for type, its lazy is returned; otherwise the returned lazy gets its
+   * value from {@link #provider(Class)} the first time it's needed.
+   *
+   * @throws java.lang.IllegalArgumentException if type is not one of this object graph's injectable types.
+   */
+  <T> Lazy<T> lazy(Class<T> type);
+
+  /**
+   * Returns a provider of instances of type, as {@link #provider(Class)} does, but resolved once per object graph: the
+   * first call for type keeps the provider, and later calls return that same provider without allocating. Use it when
+   * the provider cannot be kept by the caller, e.g. when looking up a type on each request.
+   *
+   * @throws java.lang.IllegalArgumentException if type is not one of this object graph's injectable types.
+   */
+  <T> Provider<T> handle(Class<T> type);
+
   /**
    * Injects the members of instance, including injectable members inherited from its supertypes.
    *
    * @throws java.lang.IllegalArgumentException if the runtime type of instance is not one of this object graph's injectable types.
    */
   <T> T inject(T instance);
+
+  /**
+   * Injects the members of instance, as if by calling {@link #inject(Object)}, unless the runtime type of instance is
+   * not one of this object graph's injectable types.
+   *
+   * @return whether the members of instance were injected.
+   */
+  boolean tryInject(Object instance);
+
+  /**
+   * Returns an injector for the members of instances of type, as if by calling {@link #inject(Object)}.
+   * <p>
+   * The injection method is resolved once, when the injector is created, following the same rules as
+   * {@link #inject(Object)}: if the component has no injection method for type, the one for its most-specific
+   * supertype is used. If the component has a {@code MembersInjector} method for that type, its members injector is
+   * returned.
+   *
+   * @throws java.lang.IllegalArgumentException if type is not one of this object graph's injectable types.
+   */
+  <T> MembersInjector<T> membersInjector(Class<T> type);
+
+  /**
+   * Returns whether the members of instances of type can be injected, i.e. whether {@link #membersInjector(Class)}
+   * would return an injector rather than throw.
+   */
+  boolean canInject(Class<?> type);
+
+  /**
+   * Injects the members of each instance, as if by calling {@link #inject(Object)} on each one in turn.
+   * <p>
+   * Consecutive instances of the same runtime class share the same lookup of their injectable type.
+   *
+   * @throws java.lang.IllegalArgumentException if the runtime type of an instance is not one of this object graph's injectable types.
+   *         The instances that come before it have been injected.
+   * @see ParallelInjector
+   */
+  void injectAll(Object[] instances);
+
+  /**
+   * Injects the members of each instance, as if by calling {@link #inject(Object)} on each one in turn.
+   * <p>
+   * Consecutive instances of the same runtime class share the same lookup of their injectable type.
+   *
+   * @throws java.lang.IllegalArgumentException if the runtime type of an instance is not one of this object graph's injectable types.
+   *         The instances that come before it have been injected.
+   * @see ParallelInjector
+   */
+  void injectAll(Iterable<?> instances);
+
+  /**
+   * Returns a child object graph, wrapping the subcomponent created by the component's factory method without
+   * parameters for subcomponentType.
+   *
+   * @throws java.lang.IllegalArgumentException if there's no such factory method.
+   */
+  ObjectGraph plus(Class<?> subcomponentType);
+
+  /**
+   * Returns a child object graph, wrapping the subcomponent created by the component's factory method for
+   * subcomponentType whose only parameter accepts module.
+   *
+   * @throws java.lang.IllegalArgumentException if there's no such factory method.
+   */
+  ObjectGraph plus(Class<?> subcomponentType, Object module);
+
+  /**
+   * Returns a child object graph, wrapping the subcomponent created by the component's factory method for
+   * subcomponentType whose parameters accept modules, in order.
+   *
+   * @throws java.lang.IllegalArgumentException if there's no such factory method.
+   */
+  ObjectGraph plus(Class<?> subcomponentType, Object... modules);
+
+  /**
+   * Returns whether the component has a factory method for subcomponentType whose parameters accept modules, in order,
+   * i.e. whether {@link #plus(Class, Object...)} would return a child object graph rather than throw. No subcomponent
+   * is created.
+   */
+  boolean canPlus(Class<?> subcomponentType, Object... modules);
+
+  /**
+   * Calls every provision method of the component on the executor, so that scoped bindings are created before they're
+   * first needed, e.g. before taking traffic.
+   * <p>
+   * Each provision method is a separate task; {@code Provider} and {@code Lazy} methods are followed by a call to their
+   * {@code get()} method. Dagger‡ components create each scoped binding once even when they're provided concurrently,
+   * but your own providers must be thread-safe for the bindings to be warmed up in parallel; use a single-threaded
+   * executor otherwise.
+   *
+   * @return a handle to wait for the provisions, and their timings.
+   */
+  WarmUp warmUp(Executor executor);
 }
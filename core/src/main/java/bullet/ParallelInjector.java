@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2014 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bullet;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Injects large batches of instances by splitting them across a {@link ForkJoinPool}.
+ * <p>
+ * Only use this when the component's members injection is thread-safe, i.e. when the bindings it depends on can be
+ * provided concurrently (which is the case for Dagger‡ components as long as your own providers are thread-safe).
+ * Batches smaller than the threshold are injected in the calling thread.
+ */
+public class ParallelInjector {
+  /** Default size of the batches given to each fork-join task. */
+  public static final int DEFAULT_THRESHOLD = 1024;
+
+  private final ObjectGraph graph;
+  private final ForkJoinPool pool;
+  private final int threshold;
+
+  public ParallelInjector(ObjectGraph graph, ForkJoinPool pool) {
+    this(graph, pool, DEFAULT_THRESHOLD);
+  }
+
+  public ParallelInjector(ObjectGraph graph, ForkJoinPool pool, int threshold) {
+    if (threshold < 1) {
+      throw new IllegalArgumentException("threshold must be positive: " + threshold);
+    }
+    this.graph = graph;
+    this.pool = pool;
+    this.threshold = threshold;
+  }
+
+  /**
+   * Injects the members of each instance, see {@link ObjectGraph#injectAll(Object[])}.
+   *
+   * @throws java.lang.IllegalArgumentException if the runtime type of an instance is not one of the object graph's injectable types.
+   *         Other instances may or may not have been injected.
+   */
+  public void injectAll(Object[] instances) {
+    injectAll(Arrays.asList(instances));
+  }
+
+  /**
+   * Injects the members of each instance, see {@link ObjectGraph#injectAll(Iterable)}.
+   *
+   * @throws java.lang.IllegalArgumentException if the runtime type of an instance is not one of the object graph's injectable types.
+   *         Other instances may or may not have been injected.
+   */
+  public void injectAll(List<?> instances) {
+    if (instances.size() <= threshold) {
+      graph.injectAll(instances);
+    } else {
+      pool.invoke(new InjectAllTask(instances));
+    }
+  }
+
+  private class InjectAllTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final List<?> instances;
+
+    InjectAllTask(List<?> instances) {
+      this.instances = instances;
+    }
+
+    @Override
+    protected void compute() {
+      if (instances.size() <= threshold) {
+        graph.injectAll(instances);
+      } else {
+        int middle = instances.size() >>> 1;
+        invokeAll(new InjectAllTask(instances.subList(0, middle)),
+            new InjectAllTask(instances.subList(middle, instances.size())));
+      }
+    }
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2014 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bullet;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handle to the provisions started by {@link ObjectGraph#warmUp(java.util.concurrent.Executor)}.
+ */
+public interface WarmUp {
+
+  /**
+   * Timing of a single provision method.
+   */
+  final class Binding {
+    private final String name;
+    private final long nanos;
+    private final Throwable failure;
+
+    public Binding(String name, long nanos, Throwable failure) {
+      this.name = name;
+      this.nanos = nanos;
+      this.failure = failure;
+    }
+
+    /**
+     * Returns the signature of the provision method, e.g. {@code someType()}.
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Returns the time spent in the provision method, in nanoseconds.
+     */
+    public long getNanos() {
+      return nanos;
+    }
+
+    /**
+     * Returns the exception thrown by the provision method, or by the executor when rejecting it, or {@code null}.
+     */
+    public Throwable getFailure() {
+      return failure;
+    }
+
+    @Override
+    public String toString() {
+      return name + "{nanos=" + nanos + (failure != null ? ", failure=" + failure : "") + "}";
+    }
+  }
+
+  /**
+   * Returns whether all the provisions have completed, successfully or not.
+   */
+  boolean isDone();
+
+  /**
+   * Waits for all the provisions to complete.
+   */
+  void await() throws InterruptedException;
+
+  /**
+   * Waits for all the provisions to complete, at most for the given time.
+   *
+   * @return whether all the provisions have completed.
+   */
+  boolean await(long timeout, TimeUnit unit) throws InterruptedException;
+
+  /**
+   * Returns the timings of the provisions that have completed so far, in the order of the provision methods.
+   */
+  List<Binding> getBindings();
+}
@@ -0,0 +1,68 @@
+package bullet.impl;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Caches the result of looking up a runtime class and all its supertypes (superclasses and interfaces) in a
+ * {@link PerfectClassIndexHashTable} or a {@link PerfectClassNameIndexHashTable}.
+ * <p>
+ * Indices are expected to be ordered from most-specific to least-specific types, so that the smallest index found
+ * in the supertypes closure wins. Negative results are cached too.
+ * <p>
+ * Entries are held by a {@link ClassValue}, so the cache is thread-safe and doesn't prevent classes (and their class
+ * loaders) from being unloaded.
+ */
+public class ClassIndexCache {
+  private final PerfectClassIndexHashTable classIndexHashTable;
+  private final PerfectClassNameIndexHashTable classNameIndexHashTable;
+  private final ClassValue<Integer> indices = new ClassValue<Integer>() {
+    @Override
+    protected Integer computeValue(Class<?> type) {
+      return lookup(type);
+    }
+  };
+
+  public ClassIndexCache(PerfectClassIndexHashTable classIndexHashTable) {
+    this.classIndexHashTable = classIndexHashTable;
+    this.classNameIndexHashTable = null;
+  }
+
+  public ClassIndexCache(PerfectClassNameIndexHashTable classNameIndexHashTable) {
+    this.classIndexHashTable = null;
+    this.classNameIndexHashTable = classNameIndexHashTable;
+  }
+
+  private int lookup(Class<?> clazz) {
+    int result = -1;
+    Set<Class<?>> seen = Collections.newSetFromMap(new IdentityHashMap<Class<?>, Boolean>());
+    Deque<Class<?>> queue = new ArrayDeque<>();
+    queue.add(clazz);
+    while (!queue.isEmpty()) {
+      Class<?> c = queue.remove();
+      if (c == Object.class || !seen.add(c)) {
+        continue;
+      }
+      int index = classIndexHashTable != null ? classIndexHashTable.get(c) : classNameIndexHashTable.get(c);
+      if (index >= 0 && (result < 0 || index < result)) {
+        result = index;
+      }
+      if (c.getSuperclass() != null) {
+        queue.add(c.getSuperclass());
+      }
+      Collections.addAll(queue, c.getInterfaces());
+    }
+    return result;
+  }
+
+  /**
+   * @param clazz the Class to get the index for.
+   * @return the smallest index found for the class or any of its supertypes, otherwise -1.
+   */
+  public int get(Class<?> clazz) {
+    return indices.get(clazz);
+  }
+}
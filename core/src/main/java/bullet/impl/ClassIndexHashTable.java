@@ -1,5 +1,11 @@
 package bullet.impl;
 
+/**
+ * Open-addressing hash table from classes to indices.
+ * <p>
+ * Generated code now uses {@link PerfectClassIndexHashTable}; this class is kept for code generated by previous
+ * versions.
+ */
 public class ClassIndexHashTable {
   private final Class<?>[] classes;
   private final char[] values; // Using char as an unsigned 16-bit integer
@@ -12,16 +18,21 @@ public class ClassIndexHashTable {
     values = new char[size];
   }
 
+  /**
+   * @return the index of the slot for clazz, or -1 if the table is full and doesn't contain clazz.
+   */
   private int lookup(Class<?> clazz) {
     int hash = clazz.hashCode();
 
-    int index;
-    do {
+    // Reprobing isn't guaranteed to visit every slot, so bound it rather than loop forever on a full table.
+    for (int probes = 0; probes < classes.length; probes++) {
       hash = hash * 57 + 43;
-      index = Math.abs(hash % classes.length);
-    } while(classes[index] != null && classes[index] != clazz);
-
-    return index;
+      int index = Math.abs(hash % classes.length);
+      if (classes[index] == null || classes[index] == clazz) {
+        return index;
+      }
+    }
+    return -1;
   }
 
   /**
@@ -30,11 +41,17 @@ public class ClassIndexHashTable {
    */
   public int get(Class<?> clazz) {
     int index = lookup(clazz);
-    return classes[index] == null ? -1 : values[index];
+    return index < 0 || classes[index] == null ? -1 : values[index];
   }
 
+  /**
+   * @throws IllegalStateException if no free slot could be found for c.
+   */
   public void put(Class<?> c, char value) {
     int hash = lookup(c);
+    if (hash < 0) {
+      throw new IllegalStateException("No free slot for " + c.getName() + ", the table is too small");
+    }
     classes[hash] = c;
     values[hash] = value;
   }
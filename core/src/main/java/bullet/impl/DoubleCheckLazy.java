@@ -0,0 +1,43 @@
+package bullet.impl;
+
+import javax.inject.Provider;
+
+import dagger.Lazy;
+
+/**
+ * A {@link Lazy} that gets its value from a {@link Provider} the first time it's needed, and then always returns it.
+ * <p>
+ * The value is computed at most once, even when the lazy is shared between threads.
+ */
+public final class DoubleCheckLazy<T> implements Lazy<T> {
+  private static final Object UNINITIALIZED = new Object();
+
+  private final Provider<T> provider;
+  private volatile Object instance = UNINITIALIZED;
+
+  private DoubleCheckLazy(Provider<T> provider) {
+    this.provider = provider;
+  }
+
+  public static <T> Lazy<T> create(Provider<T> provider) {
+    if (provider == null) {
+      throw new NullPointerException();
+    }
+    return new DoubleCheckLazy<>(provider);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public T get() {
+    Object result = instance;
+    if (result == UNINITIALIZED) {
+      synchronized (this) {
+        result = instance;
+        if (result == UNINITIALIZED) {
+          instance = result = provider.get();
+        }
+      }
+    }
+    return (T) result;
+  }
+}
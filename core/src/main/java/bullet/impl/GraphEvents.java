@@ -0,0 +1,105 @@
+package bullet.impl;
+
+/**
+ * Entry point for the events of object graphs generated with the {@code bullet.jfr} processor option.
+ * <p>
+ * Events go to the installed {@link Sink}, e.g. the JDK Flight Recorder sink of the {@code bullet-jfr} module; until a
+ * sink is installed, each call only reads a field. Generated code wraps each call in
+ * {@code GraphEvents.endGet(GraphEvents.beginGet(), graph, type, call)}: arguments being evaluated from left to right,
+ * the call is made between {@link #beginGet()} and {@link #endGet(Object, Class, Class, Object)}.
+ */
+public final class GraphEvents {
+
+  /**
+   * Receives the events of the object graphs.
+   */
+  public interface Sink {
+    /**
+     * Starts timing a provision.
+     *
+     * @return the event in progress, or {@code null} if provisions aren't being recorded.
+     */
+    Object beginGet();
+
+    void endGet(Object event, Class<?> graph, Class<?> bindingType);
+
+    /**
+     * Records a provision lookup that didn't find any method.
+     *
+     * @param binding the looked up Class or {@link bullet.Key}.
+     */
+    void missGet(Class<?> graph, Object binding);
+
+    /**
+     * Starts timing a members injection.
+     *
+     * @return the event in progress, or {@code null} if members injections aren't being recorded.
+     */
+    Object beginInject();
+
+    void endInject(Object event, Class<?> graph, Class<?> runtimeClass, Class<?> bindingClass);
+
+    /**
+     * Records a members-injection lookup that didn't find any method.
+     */
+    void missInject(Class<?> graph, Class<?> runtimeClass);
+  }
+
+  private static volatile Sink sink;
+
+  private GraphEvents() {
+  }
+
+  /**
+   * Installs the sink receiving the events, replacing any previously installed sink; {@code null} uninstalls it.
+   */
+  public static void install(Sink sink) {
+    GraphEvents.sink = sink;
+  }
+
+  public static Object beginGet() {
+    Sink s = sink;
+    return s == null ? null : s.beginGet();
+  }
+
+  /**
+   * @param event the value returned by {@link #beginGet()}.
+   * @return value.
+   */
+  public static <T> T endGet(Object event, Class<?> graph, Class<?> bindingType, T value) {
+    Sink s = sink;
+    if (event != null && s != null) {
+      s.endGet(event, graph, bindingType);
+    }
+    return value;
+  }
+
+  public static void missGet(Class<?> graph, Object binding) {
+    Sink s = sink;
+    if (s != null) {
+      s.missGet(graph, binding);
+    }
+  }
+
+  public static Object beginInject() {
+    Sink s = sink;
+    return s == null ? null : s.beginInject();
+  }
+
+  /**
+   * @param event the value returned by {@link #beginInject()}.
+   */
+  public static void endInject(Object event, Class<?> graph, Class<?> runtimeClass, Class<?> bindingClass) {
+    Sink s = sink;
+    if (event != null && s != null) {
+      s.endInject(event, graph, runtimeClass, bindingClass);
+    }
+  }
+
+  public static void missInject(Class<?> graph, Class<?> runtimeClass) {
+    Sink s = sink;
+    if (s != null) {
+      s.missInject(graph, runtimeClass);
+    }
+  }
+}
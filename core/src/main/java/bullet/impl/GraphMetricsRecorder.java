@@ -0,0 +1,110 @@
+package bullet.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import bullet.GraphMetrics;
+
+/**
+ * Records the metrics of an object graph generated with the {@code bullet.metrics} processor option.
+ * <p>
+ * Generated code wraps each metered call in {@code metrics.record(binding, metrics.start(binding), call)}: arguments
+ * being evaluated from left to right, the call is made between {@link #start(int)} and {@link #record(int, long,
+ * Object)}.
+ */
+public final class GraphMetricsRecorder {
+  /** Measure the latency of one call in that many calls; 0 (the default) disables latency measurements. */
+  private static final int SAMPLING = Integer.getInteger("bullet.metrics.sampling", 0);
+
+  private static final int CALLS = 0;
+  private static final int WALK_DEPTH = 1;
+  private static final int SAMPLED_CALLS = 2;
+  private static final int SAMPLED_NANOS = 3;
+  private static final int COUNTERS_PER_BINDING = 4;
+
+  private final String graphName;
+  private final String[] bindings;
+  private final StripedCounters counters;
+  /** Index of the misses counter, after those of the bindings. */
+  private final int missCounter;
+
+  /**
+   * @param graphName the qualified name of the component type.
+   * @param bindings the signatures of the metered component methods, in binding index order.
+   */
+  public GraphMetricsRecorder(String graphName, String[] bindings) {
+    this.graphName = graphName;
+    this.bindings = bindings.clone();
+    this.missCounter = bindings.length * COUNTERS_PER_BINDING;
+    this.counters = new StripedCounters(missCounter + 1);
+  }
+
+  /**
+   * Counts a call to the binding.
+   *
+   * @return the start time of a sampled call, otherwise 0.
+   */
+  public long start(int binding) {
+    counters.add(binding * COUNTERS_PER_BINDING + CALLS, 1);
+    if (SAMPLING > 0 && ThreadLocalRandom.current().nextInt(SAMPLING) == 0) {
+      // Never return 0 for a sampled call.
+      return System.nanoTime() | 1;
+    }
+    return 0;
+  }
+
+  /**
+   * Records the latency of a sampled call.
+   *
+   * @param start the value returned by {@link #start(int)}.
+   * @return value.
+   */
+  public <T> T record(int binding, long start, T value) {
+    record(binding, start);
+    return value;
+  }
+
+  /**
+   * Records the latency of a sampled call.
+   *
+   * @param start the value returned by {@link #start(int)}.
+   */
+  public void record(int binding, long start) {
+    if (start != 0) {
+      counters.add(binding * COUNTERS_PER_BINDING + SAMPLED_CALLS, 1);
+      counters.add(binding * COUNTERS_PER_BINDING + SAMPLED_NANOS, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Records the number of supertype steps from the runtime class of an injected instance to the type of the
+   * members-injection method.
+   */
+  public void walk(int binding, Class<?> runtimeClass, Class<?> bindingClass) {
+    int depth = Supertypes.depth(runtimeClass, bindingClass);
+    if (depth > 0) {
+      counters.add(binding * COUNTERS_PER_BINDING + WALK_DEPTH, depth);
+    }
+  }
+
+  /**
+   * Counts a lookup that didn't find any method.
+   */
+  public void miss() {
+    counters.add(missCounter, 1);
+  }
+
+  public GraphMetrics snapshot() {
+    List<GraphMetrics.Binding> snapshots = new ArrayList<>(bindings.length);
+    for (int i = 0; i < bindings.length; i++) {
+      int offset = i * COUNTERS_PER_BINDING;
+      snapshots.add(new GraphMetrics.Binding(bindings[i],
+          counters.sum(offset + CALLS),
+          counters.sum(offset + WALK_DEPTH),
+          counters.sum(offset + SAMPLED_CALLS),
+          counters.sum(offset + SAMPLED_NANOS)));
+    }
+    return new GraphMetrics(graphName, snapshots, counters.sum(missCounter));
+  }
+}
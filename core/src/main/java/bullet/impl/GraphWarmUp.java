@@ -0,0 +1,107 @@
+package bullet.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import bullet.WarmUp;
+
+/**
+ * Warms up an object graph, see {@code ObjectGraph.warmUp(Executor)}: generated object graphs implement
+ * {@link #provide(int)} to call each provision method of their component.
+ */
+public abstract class GraphWarmUp implements WarmUp {
+  /** The warm-up of object graphs without provision methods: always done. */
+  public static final WarmUp NONE = new GraphWarmUp(new String[0]) {
+    @Override
+    protected Object provide(int index) {
+      throw new AssertionError();
+    }
+  };
+
+  private final String[] bindings;
+  private final AtomicReferenceArray<Binding> results;
+  private final CountDownLatch pending;
+
+  /**
+   * @param bindings the signatures of the provision methods, in binding index order.
+   */
+  protected GraphWarmUp(String[] bindings) {
+    this.bindings = bindings.clone();
+    this.results = new AtomicReferenceArray<>(bindings.length);
+    this.pending = new CountDownLatch(bindings.length);
+  }
+
+  /**
+   * Calls the provision method, then {@code get()} on the returned {@code Provider} or {@code Lazy} if any.
+   *
+   * @return the provided instance.
+   */
+  protected abstract Object provide(int index);
+
+  /**
+   * Submits a task to the executor for each provision method.
+   *
+   * @return this.
+   */
+  public final WarmUp start(Executor executor) {
+    for (int i = 0; i < bindings.length; i++) {
+      final int index = i;
+      try {
+        executor.execute(new Runnable() {
+          @Override
+          public void run() {
+            long start = System.nanoTime();
+            Throwable failure = null;
+            try {
+              provide(index);
+            } catch (Throwable t) {
+              failure = t;
+            }
+            complete(index, System.nanoTime() - start, failure);
+          }
+        });
+      } catch (RuntimeException e) {
+        complete(index, 0, e);
+      }
+    }
+    return this;
+  }
+
+  private void complete(int index, long nanos, Throwable failure) {
+    if (results.compareAndSet(index, null, new Binding(bindings[index], nanos, failure))) {
+      pending.countDown();
+    }
+  }
+
+  @Override
+  public boolean isDone() {
+    return pending.getCount() == 0;
+  }
+
+  @Override
+  public void await() throws InterruptedException {
+    pending.await();
+  }
+
+  @Override
+  public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+    return pending.await(timeout, unit);
+  }
+
+  @Override
+  public List<Binding> getBindings() {
+    List<Binding> completed = new ArrayList<>(bindings.length);
+    for (int i = 0; i < bindings.length; i++) {
+      Binding binding = results.get(i);
+      if (binding != null) {
+        completed.add(binding);
+      }
+    }
+    return Collections.unmodifiableList(completed);
+  }
+}
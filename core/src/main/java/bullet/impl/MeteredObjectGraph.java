@@ -0,0 +1,10 @@
+package bullet.impl;
+
+import bullet.GraphMetrics;
+
+/**
+ * Implemented by object graphs generated with the {@code bullet.metrics} processor option.
+ */
+public interface MeteredObjectGraph {
+  GraphMetrics getMetrics();
+}
@@ -0,0 +1,98 @@
+package bullet.impl;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Minimal perfect hash table from classes to indices.
+ * <p>
+ * The table is built once from the classes it contains (using the "hash, displace and compress" algorithm): each
+ * class hashes to a bucket, and each bucket has a seed chosen so that all its classes land in distinct slots. The
+ * slots are dense (there are exactly as many slots as classes), and a lookup, be it a hit or a miss, computes a
+ * single slot and does a single identity comparison.
+ * <p>
+ * Class hash codes are identity hash codes and vary from one run to another, so the table can only be built at
+ * runtime; this is why generated code builds it in a static initializer.
+ */
+public class PerfectClassIndexHashTable {
+  private final boolean useNameHash;
+  private final int bucketMask;
+  private final int[] seeds;
+  private final Class<?>[] classes;
+  private final char[] values; // Using char as an unsigned 16-bit integer
+
+  /**
+   * Creates a table mapping each class to its position in {@code classes}.
+   */
+  public PerfectClassIndexHashTable(Class<?>... classes) {
+    this(classes, positions(classes.length));
+  }
+
+  /**
+   * Creates a table mapping each class to the value at the same position in {@code values}.
+   *
+   * @throws IllegalArgumentException if the arrays have different lengths or {@code classes} contains duplicates.
+   */
+  public PerfectClassIndexHashTable(Class<?>[] classes, char[] values) {
+    if (classes.length != values.length) {
+      throw new IllegalArgumentException("Got " + classes.length + " classes but " + values.length + " values");
+    }
+    if (new HashSet<>(Arrays.asList(classes)).size() != classes.length) {
+      throw new IllegalArgumentException("Duplicate classes in " + Arrays.toString(classes));
+    }
+    int bucketCount = PerfectHashing.bucketCount(classes.length);
+    this.bucketMask = bucketCount - 1;
+    this.seeds = new int[bucketCount];
+    this.classes = new Class<?>[classes.length];
+    this.values = new char[classes.length];
+
+    // Identity hash codes of distinct classes can collide; class names then help telling them apart.
+    int[] hashes = hashes(classes, false);
+    this.useNameHash = PerfectHashing.hasDuplicates(hashes);
+    if (useNameHash) {
+      hashes = hashes(classes, true);
+    }
+    int[] slots = PerfectHashing.hasDuplicates(hashes) ? null : PerfectHashing.findSeeds(hashes, seeds);
+    if (slots == null) {
+      throw new IllegalStateException("Cannot build a perfect hash table for " + Arrays.toString(classes));
+    }
+    for (int i = 0; i < classes.length; i++) {
+      this.classes[slots[i]] = classes[i];
+      this.values[slots[i]] = values[i];
+    }
+  }
+
+  private static char[] positions(int length) {
+    char[] positions = new char[length];
+    for (int i = 0; i < length; i++) {
+      positions[i] = (char) i;
+    }
+    return positions;
+  }
+
+  private static int[] hashes(Class<?>[] classes, boolean useNameHash) {
+    int[] hashes = new int[classes.length];
+    for (int i = 0; i < classes.length; i++) {
+      hashes[i] = hash(classes[i], useNameHash);
+    }
+    return hashes;
+  }
+
+  static int hash(Class<?> clazz, boolean useNameHash) {
+    int hash = clazz.hashCode();
+    return useNameHash ? hash ^ clazz.getName().hashCode() * 0x9E3779B9 : hash;
+  }
+
+  /**
+   * @param clazz the Class to get the index for.
+   * @return the found index, otherwise -1.
+   */
+  public int get(Class<?> clazz) {
+    if (classes.length == 0) {
+      return -1;
+    }
+    int hash = hash(clazz, useNameHash);
+    int slot = PerfectHashing.slot(hash, seeds[PerfectHashing.mix(hash, 0) & bucketMask], classes.length);
+    return classes[slot] == clazz ? values[slot] : -1;
+  }
+}
@@ -0,0 +1,136 @@
+package bullet.impl;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Minimal perfect hash table from classes to indices, keyed by class names.
+ * <p>
+ * Unlike {@link PerfectClassIndexHashTable}, building the table doesn't load the classes it contains: they are only
+ * resolved, with the given class loader, the first time a lookup finds their name, so that looking up a class only
+ * loads that class. The resolved class is then compared by identity, so that classes with the same name from other
+ * class loaders are not found.
+ * <p>
+ * Names are the {@linkplain Class#getName() binary names} of the classes.
+ */
+public class PerfectClassNameIndexHashTable {
+  /** Marks the slots whose name cannot be resolved from the class loader of the table, so it's only tried once. */
+  private static final Class<?> UNRESOLVABLE = Unresolvable.class;
+
+  private static final class Unresolvable {
+  }
+
+  private final ClassLoader classLoader;
+  private final boolean useAlternateHash;
+  private final int bucketMask;
+  private final int[] seeds;
+  private final String[] names;
+  private final char[] values; // Using char as an unsigned 16-bit integer
+  // Racy but idempotent: each slot only ever gets the class its name resolves to, or UNRESOLVABLE.
+  private final Class<?>[] classes;
+
+  /**
+   * Creates a table mapping each class name to its position in {@code names}.
+   */
+  public PerfectClassNameIndexHashTable(ClassLoader classLoader, String... names) {
+    this(classLoader, names, positions(names.length));
+  }
+
+  /**
+   * Creates a table mapping each class name to the value at the same position in {@code values}.
+   *
+   * @throws IllegalArgumentException if the arrays have different lengths or {@code names} contains duplicates.
+   */
+  public PerfectClassNameIndexHashTable(ClassLoader classLoader, String[] names, char[] values) {
+    if (names.length != values.length) {
+      throw new IllegalArgumentException("Got " + names.length + " names but " + values.length + " values");
+    }
+    if (new HashSet<>(Arrays.asList(names)).size() != names.length) {
+      throw new IllegalArgumentException("Duplicate names in " + Arrays.toString(names));
+    }
+    this.classLoader = classLoader;
+    int bucketCount = PerfectHashing.bucketCount(names.length);
+    this.bucketMask = bucketCount - 1;
+    this.seeds = new int[bucketCount];
+    this.names = new String[names.length];
+    this.values = new char[names.length];
+    this.classes = new Class<?>[names.length];
+
+    // Distinct strings can have the same hash code; a different hash function then helps telling them apart.
+    int[] hashes = hashes(names, false);
+    this.useAlternateHash = PerfectHashing.hasDuplicates(hashes);
+    if (useAlternateHash) {
+      hashes = hashes(names, true);
+    }
+    int[] slots = PerfectHashing.hasDuplicates(hashes) ? null : PerfectHashing.findSeeds(hashes, seeds);
+    if (slots == null) {
+      throw new IllegalStateException("Cannot build a perfect hash table for " + Arrays.toString(names));
+    }
+    for (int i = 0; i < names.length; i++) {
+      this.names[slots[i]] = names[i];
+      this.values[slots[i]] = values[i];
+    }
+  }
+
+  private static char[] positions(int length) {
+    char[] positions = new char[length];
+    for (int i = 0; i < length; i++) {
+      positions[i] = (char) i;
+    }
+    return positions;
+  }
+
+  private static int[] hashes(String[] names, boolean useAlternateHash) {
+    int[] hashes = new int[names.length];
+    for (int i = 0; i < names.length; i++) {
+      hashes[i] = hash(names[i], useAlternateHash);
+    }
+    return hashes;
+  }
+
+  private static int hash(String name, boolean useAlternateHash) {
+    if (!useAlternateHash) {
+      return name.hashCode();
+    }
+    // FNV-1a
+    int hash = 0x811C9DC5;
+    for (int i = 0; i < name.length(); i++) {
+      hash = (hash ^ name.charAt(i)) * 0x01000193;
+    }
+    return hash;
+  }
+
+  /**
+   * @param clazz the Class to get the index for.
+   * @return the found index, otherwise -1.
+   */
+  public int get(Class<?> clazz) {
+    if (names.length == 0) {
+      return -1;
+    }
+    String name = clazz.getName();
+    int hash = hash(name, useAlternateHash);
+    int slot = PerfectHashing.slot(hash, seeds[PerfectHashing.mix(hash, 0) & bucketMask], names.length);
+    Class<?> c = classes[slot];
+    if (c == null) {
+      if (!names[slot].equals(name)) {
+        return -1;
+      }
+      c = resolve(clazz);
+      classes[slot] = c;
+    }
+    return c == clazz ? values[slot] : -1;
+  }
+
+  /**
+   * Returns the class with the same name as {@code clazz} as seen from the class loader of the table, or
+   * {@link #UNRESOLVABLE} if there's none.
+   */
+  private Class<?> resolve(Class<?> clazz) {
+    try {
+      return Class.forName(clazz.getName(), false, classLoader);
+    } catch (ClassNotFoundException | LinkageError e) {
+      return UNRESOLVABLE;
+    }
+  }
+}
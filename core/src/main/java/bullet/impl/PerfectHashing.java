@@ -0,0 +1,120 @@
+package bullet.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The "hash, displace and compress" algorithm shared by the perfect hash tables: each hash falls into a bucket, and
+ * each bucket has a seed chosen so that all its hashes land in distinct slots. There are exactly as many slots as
+ * hashes.
+ */
+final class PerfectHashing {
+  private static final int MAX_SEED_ATTEMPTS = 1 << 20;
+
+  private PerfectHashing() {
+  }
+
+  /**
+   * Returns the number of buckets for the given number of hashes: about two hashes per bucket, rounded to a power of
+   * two for masking.
+   */
+  static int bucketCount(int size) {
+    return Integer.highestOneBit(Math.max(1, size - 1));
+  }
+
+  static boolean hasDuplicates(int[] hashes) {
+    int[] sorted = hashes.clone();
+    Arrays.sort(sorted);
+    for (int i = 1; i < sorted.length; i++) {
+      if (sorted[i] == sorted[i - 1]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Chooses the seed of each bucket.
+   *
+   * @param hashes the distinct hashes to place.
+   * @param seeds receives the seed of each bucket; its length is the number of buckets, and must be a power of two.
+   * @return the slot of each hash, or {@code null} if no seeds could be found.
+   */
+  static int[] findSeeds(int[] hashes, int[] seeds) {
+    int bucketMask = seeds.length - 1;
+    final List<List<Integer>> buckets = new ArrayList<>(seeds.length);
+    for (int i = 0; i < seeds.length; i++) {
+      buckets.add(new ArrayList<Integer>());
+    }
+    for (int i = 0; i < hashes.length; i++) {
+      buckets.get(mix(hashes[i], 0) & bucketMask).add(i);
+    }
+    Integer[] bucketOrder = new Integer[seeds.length];
+    for (int i = 0; i < bucketOrder.length; i++) {
+      bucketOrder[i] = i;
+    }
+    // Place larger buckets first, while there are still many free slots.
+    Arrays.sort(bucketOrder, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer o1, Integer o2) {
+        return buckets.get(o2).size() - buckets.get(o1).size();
+      }
+    });
+
+    boolean[] used = new boolean[hashes.length];
+    int[] slots = new int[hashes.length];
+    int[] bucketSlots = new int[hashes.length];
+    for (int bucket : bucketOrder) {
+      List<Integer> keys = buckets.get(bucket);
+      if (keys.isEmpty()) {
+        break;
+      }
+      int seed = findSeed(hashes, keys, used, bucketSlots);
+      if (seed < 0) {
+        return null;
+      }
+      seeds[bucket] = seed;
+      for (int i = 0; i < keys.size(); i++) {
+        used[bucketSlots[i]] = true;
+        slots[keys.get(i)] = bucketSlots[i];
+      }
+    }
+    return slots;
+  }
+
+  private static int findSeed(int[] hashes, List<Integer> keys, boolean[] used, int[] bucketSlots) {
+    nextSeed:
+    for (int seed = 1; seed <= MAX_SEED_ATTEMPTS; seed++) {
+      for (int i = 0; i < keys.size(); i++) {
+        if (used[bucketSlots[i] = slot(hashes[keys.get(i)], seed, hashes.length)]) {
+          continue nextSeed;
+        }
+        for (int j = 0; j < i; j++) {
+          if (bucketSlots[j] == bucketSlots[i]) {
+            continue nextSeed;
+          }
+        }
+      }
+      return seed;
+    }
+    return -1;
+  }
+
+  static int mix(int hash, int seed) {
+    // MurmurHash3 finalizer
+    int h = hash ^ seed * 0x9E3779B9;
+    h ^= h >>> 16;
+    h *= 0x85EBCA6B;
+    h ^= h >>> 13;
+    h *= 0xC2B2AE35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+  static int slot(int hash, int seed, int size) {
+    // Maps the mixed hash onto [0, size) without a modulo.
+    return (int) (((mix(hash, seed) & 0xFFFFFFFFL) * size) >>> 32);
+  }
+}
@@ -0,0 +1,93 @@
+package bullet.impl;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Minimal perfect hash table from qualified types to indices.
+ * <p>
+ * Keys are pairs of a class and a qualifier, the latter being either a qualifier annotation type or the value of a
+ * {@link javax.inject.Named @Named} annotation. Just like {@link PerfectClassIndexHashTable}, a lookup computes a
+ * single slot from the combined hash of the pair and does a single comparison.
+ */
+public class PerfectQualifiedIndexHashTable {
+  private final boolean useNameHash;
+  private final int bucketMask;
+  private final int[] seeds;
+  private final Class<?>[] types;
+  private final Object[] qualifiers;
+  private final int[] positions;
+
+  /**
+   * Creates a table mapping each pair of a type and the qualifier at the same position to that position.
+   *
+   * @throws IllegalArgumentException if the arrays have different lengths, a qualifier is neither a {@code Class} nor
+   *         a {@code String}, or the pairs contain duplicates.
+   */
+  public PerfectQualifiedIndexHashTable(Class<?>[] types, Object[] qualifiers) {
+    if (types.length != qualifiers.length) {
+      throw new IllegalArgumentException("Got " + types.length + " types but " + qualifiers.length + " qualifiers");
+    }
+    Set<Object> keys = new HashSet<>();
+    for (int i = 0; i < types.length; i++) {
+      if (!(qualifiers[i] instanceof Class) && !(qualifiers[i] instanceof String)) {
+        throw new IllegalArgumentException("Illegal qualifier " + qualifiers[i]);
+      }
+      keys.add(Arrays.asList(types[i], qualifiers[i]));
+    }
+    if (keys.size() != types.length) {
+      throw new IllegalArgumentException("Duplicate qualified types in " + Arrays.toString(types) + " and " + Arrays.toString(qualifiers));
+    }
+    int bucketCount = PerfectHashing.bucketCount(types.length);
+    this.bucketMask = bucketCount - 1;
+    this.seeds = new int[bucketCount];
+    this.types = new Class<?>[types.length];
+    this.qualifiers = new Object[types.length];
+    this.positions = new int[types.length];
+
+    int[] hashes = hashes(types, qualifiers, false);
+    this.useNameHash = PerfectHashing.hasDuplicates(hashes);
+    if (useNameHash) {
+      hashes = hashes(types, qualifiers, true);
+    }
+    int[] slots = PerfectHashing.hasDuplicates(hashes) ? null : PerfectHashing.findSeeds(hashes, seeds);
+    if (slots == null) {
+      throw new IllegalStateException("Cannot build a perfect hash table for " + Arrays.toString(types) + " and " + Arrays.toString(qualifiers));
+    }
+    for (int i = 0; i < types.length; i++) {
+      this.types[slots[i]] = types[i];
+      this.qualifiers[slots[i]] = qualifiers[i];
+      this.positions[slots[i]] = i;
+    }
+  }
+
+  private static int[] hashes(Class<?>[] types, Object[] qualifiers, boolean useNameHash) {
+    int[] hashes = new int[types.length];
+    for (int i = 0; i < types.length; i++) {
+      hashes[i] = hash(types[i], qualifiers[i], useNameHash);
+    }
+    return hashes;
+  }
+
+  private static int hash(Class<?> type, Object qualifier, boolean useNameHash) {
+    int qualifierHash = qualifier instanceof Class
+        ? PerfectClassIndexHashTable.hash((Class<?>) qualifier, useNameHash)
+        : qualifier.hashCode();
+    return PerfectClassIndexHashTable.hash(type, useNameHash) * 31 + qualifierHash;
+  }
+
+  /**
+   * @param type the Class to get the index for.
+   * @param qualifier the qualifier annotation type, or the value of the {@code @Named} annotation.
+   * @return the found index, otherwise -1.
+   */
+  public int get(Class<?> type, Object qualifier) {
+    if (types.length == 0) {
+      return -1;
+    }
+    int hash = hash(type, qualifier, useNameHash);
+    int slot = PerfectHashing.slot(hash, seeds[PerfectHashing.mix(hash, 0) & bucketMask], types.length);
+    return types[slot] == type && qualifiers[slot].equals(qualifier) ? positions[slot] : -1;
+  }
+}
@@ -0,0 +1,40 @@
+package bullet.impl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed set of counters, striped by thread to keep contention low when many threads update them.
+ * <p>
+ * Each stripe holds its own copy of all the counters, in a row padded to a cache line so that threads updating
+ * different stripes don't share cache lines; reading a counter sums it over all the stripes.
+ */
+class StripedCounters {
+  /** Number of longs in a cache line. */
+  private static final int PADDING = 8;
+  private static final int STRIPES = Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) << 1);
+
+  private final int rowLength;
+  private final AtomicLongArray cells;
+
+  StripedCounters(int size) {
+    this.rowLength = size + PADDING;
+    this.cells = new AtomicLongArray(STRIPES * rowLength);
+  }
+
+  void add(int counter, long x) {
+    cells.getAndAdd(stripe() * rowLength + counter, x);
+  }
+
+  long sum(int counter) {
+    long sum = 0;
+    for (int i = counter; i < cells.length(); i += rowLength) {
+      sum += cells.get(i);
+    }
+    return sum;
+  }
+
+  private static int stripe() {
+    // Thread IDs are mostly sequential, mix them so that consecutive threads spread over the stripes.
+    return PerfectHashing.mix((int) Thread.currentThread().getId(), 0) & (STRIPES - 1);
+  }
+}
@@ -0,0 +1,25 @@
+package bullet.impl;
+
+/**
+ * Measures how far the runtime class of an injected instance is from the type of its members-injection method.
+ */
+public final class Supertypes {
+  private Supertypes() {
+  }
+
+  /**
+   * Returns the number of supertype steps from runtimeClass to bindingClass: 0 if they're the same class, the number of
+   * superclasses walked otherwise, plus one if bindingClass is an interface implemented along the way.
+   */
+  public static int depth(Class<?> runtimeClass, Class<?> bindingClass) {
+    int depth = 0;
+    for (Class<?> c = runtimeClass; c != bindingClass; c = c.getSuperclass()) {
+      depth++;
+      if (c.getSuperclass() == null || !bindingClass.isAssignableFrom(c.getSuperclass())) {
+        // The binding type is an interface implemented by c.
+        break;
+      }
+    }
+    return depth;
+  }
+}
@@ -0,0 +1,91 @@
+package test;
+
+import org.junit.Test;
+
+import java.util.AbstractCollection;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import bullet.impl.ClassIndexCache;
+import bullet.impl.PerfectClassIndexHashTable;
+import bullet.impl.PerfectClassNameIndexHashTable;
+
+import static org.junit.Assert.*;
+
+public class ClassIndexCacheTest {
+  @Test public void exactClassTest() {
+    PerfectClassIndexHashTable table = new PerfectClassIndexHashTable(
+        new Class<?>[] { ArrayList.class },
+        new char[] { 1 });
+    ClassIndexCache cache = new ClassIndexCache(table);
+
+    assertEquals(1, cache.get(ArrayList.class));
+    assertEquals(1, cache.get(ArrayList.class));
+  }
+
+  @Test public void superclassTest() {
+    PerfectClassIndexHashTable table = new PerfectClassIndexHashTable(
+        new Class<?>[] { AbstractList.class },
+        new char[] { 1 });
+    ClassIndexCache cache = new ClassIndexCache(table);
+
+    assertEquals(1, cache.get(ArrayList.class));
+    assertEquals(1, cache.get(new AbstractList<Object>() {
+      @Override public Object get(int index) { return null; }
+      @Override public int size() { return 0; }
+    }.getClass()));
+  }
+
+  @Test public void getAbsentTest() {
+    PerfectClassIndexHashTable table = new PerfectClassIndexHashTable(
+        new Class<?>[] { AbstractList.class },
+        new char[] { 1 });
+    ClassIndexCache cache = new ClassIndexCache(table);
+
+    assertEquals(-1, cache.get(Thread.class));
+    assertEquals(-1, cache.get(Thread.class));
+    assertEquals(-1, cache.get(Object.class));
+    assertEquals(-1, cache.get(List.class));
+  }
+
+  @Test public void interfaceTest() {
+    PerfectClassIndexHashTable table = new PerfectClassIndexHashTable(
+        new Class<?>[] { Collection.class },
+        new char[] { 1 });
+    ClassIndexCache cache = new ClassIndexCache(table);
+
+    assertEquals(1, cache.get(ArrayList.class));
+    assertEquals(1, cache.get(List.class));
+    assertEquals(1, cache.get(Collection.class));
+    assertEquals(-1, cache.get(Iterable.class));
+  }
+
+  @Test public void mostSpecificTest() {
+    PerfectClassIndexHashTable table = new PerfectClassIndexHashTable(
+        new Class<?>[] { ArrayList.class, List.class, AbstractCollection.class, Collection.class },
+        new char[] { 0, 1, 2, 3 });
+    ClassIndexCache cache = new ClassIndexCache(table);
+
+    assertEquals(0, cache.get(ArrayList.class));
+    assertEquals(1, cache.get(LinkedList.class));
+    assertEquals(1, cache.get(List.class));
+    assertEquals(2, cache.get(HashSet.class));
+    assertEquals(3, cache.get(Set.class));
+  }
+
+  @Test public void classNamesTest() {
+    PerfectClassNameIndexHashTable table = new PerfectClassNameIndexHashTable(getClass().getClassLoader(),
+        new String[] { "java.util.List", "java.util.Collection" },
+        new char[] { 0, 1 });
+    ClassIndexCache cache = new ClassIndexCache(table);
+
+    assertEquals(0, cache.get(ArrayList.class));
+    assertEquals(1, cache.get(HashSet.class));
+    assertEquals(-1, cache.get(Thread.class));
+  }
+}
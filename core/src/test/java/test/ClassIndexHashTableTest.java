@@ -43,6 +43,14 @@ public class ClassIndexHashTableTest {
     assertEquals(-1, table.get(Thread.class));
   }
 
+  @Test public void getAbsentFromFullTableTest() {
+    ClassIndexHashTable table = new ClassIndexHashTable(2);
+    table.put(List.class, (char) 1);
+    table.put(Set.class, (char) 2);
+
+    assertEquals(-1, table.get(Thread.class));
+  }
+
   private static int getNextPrime(int value) {
     while (true) {
       value++;
@@ -0,0 +1,41 @@
+package test;
+
+import org.junit.Test;
+
+import javax.inject.Provider;
+
+import bullet.impl.DoubleCheckLazy;
+import dagger.Lazy;
+
+import static org.junit.Assert.*;
+
+public class DoubleCheckLazyTest {
+  @Test public void getsValueOnceTest() {
+    final int[] count = { 0 };
+    Lazy<Object> lazy = DoubleCheckLazy.create(new Provider<Object>() {
+      @Override public Object get() {
+        count[0]++;
+        return new Object();
+      }
+    });
+
+    assertEquals(0, count[0]);
+    Object value = lazy.get();
+    assertSame(value, lazy.get());
+    assertEquals(1, count[0]);
+  }
+
+  @Test public void nullValueTest() {
+    final int[] count = { 0 };
+    Lazy<Object> lazy = DoubleCheckLazy.create(new Provider<Object>() {
+      @Override public Object get() {
+        count[0]++;
+        return null;
+      }
+    });
+
+    assertNull(lazy.get());
+    assertNull(lazy.get());
+    assertEquals(1, count[0]);
+  }
+}
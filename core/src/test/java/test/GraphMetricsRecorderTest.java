@@ -0,0 +1,73 @@
+package test;
+
+import org.junit.Test;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import bullet.GraphMetrics;
+import bullet.impl.GraphMetricsRecorder;
+
+import static org.junit.Assert.*;
+
+public class GraphMetricsRecorderTest {
+  @Test public void countsCallsAndMisses() {
+    GraphMetricsRecorder recorder = new GraphMetricsRecorder("test.Component", new String[] { "a()", "inject(test.B)" });
+
+    assertEquals("value", recorder.record(0, recorder.start(0), "value"));
+    recorder.record(0, recorder.start(0), "value");
+    recorder.record(1, recorder.start(1));
+    recorder.miss();
+
+    GraphMetrics metrics = recorder.snapshot();
+    assertEquals("test.Component", metrics.getGraphName());
+    assertEquals(2, metrics.getBindings().size());
+    assertEquals(2, metrics.getBinding("a()").getCalls());
+    assertEquals(1, metrics.getBinding("inject(test.B)").getCalls());
+    assertNull(metrics.getBinding("b()"));
+    assertEquals(1, metrics.getMisses());
+  }
+
+  @Test public void recordsWalkDepth() {
+    GraphMetricsRecorder recorder = new GraphMetricsRecorder("test.Component", new String[] { "inject(java.util.AbstractList)", "inject(java.util.List)" });
+
+    recorder.walk(0, AbstractList.class, AbstractList.class);
+    assertEquals(0, recorder.snapshot().getBindings().get(0).getWalkDepth());
+    recorder.walk(0, ArrayList.class, AbstractList.class);
+    assertEquals(1, recorder.snapshot().getBindings().get(0).getWalkDepth());
+    // ArrayList -> AbstractList -> AbstractCollection, which doesn't implement List.
+    recorder.walk(1, ArrayList.class, List.class);
+    assertEquals(2, recorder.snapshot().getBindings().get(1).getWalkDepth());
+  }
+
+  @Test public void countsConcurrentCalls() throws Exception {
+    final GraphMetricsRecorder recorder = new GraphMetricsRecorder("test.Component", new String[] { "a()" });
+    final int threads = 8, calls = 10000;
+    final CountDownLatch start = new CountDownLatch(1);
+    List<Thread> workers = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      Thread worker = new Thread() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            throw new AssertionError(e);
+          }
+          for (int j = 0; j < calls; j++) {
+            recorder.record(0, recorder.start(0));
+          }
+        }
+      };
+      worker.start();
+      workers.add(worker);
+    }
+    start.countDown();
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    assertEquals(threads * calls, recorder.snapshot().getBinding("a()").getCalls());
+  }
+}
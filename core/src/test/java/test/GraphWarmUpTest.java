@@ -0,0 +1,91 @@
+package test;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import bullet.WarmUp;
+import bullet.impl.GraphWarmUp;
+
+import static org.junit.Assert.*;
+
+public class GraphWarmUpTest {
+  private static final Executor DIRECT = new Executor() {
+    @Override
+    public void execute(Runnable command) {
+      command.run();
+    }
+  };
+
+  static class TestWarmUp extends GraphWarmUp {
+    final boolean[] provided = new boolean[3];
+
+    TestWarmUp() {
+      super(new String[] { "a()", "b()", "c()" });
+    }
+
+    @Override
+    protected Object provide(int index) {
+      provided[index] = true;
+      if (index == 1) {
+        throw new IllegalStateException("b");
+      }
+      return index;
+    }
+  }
+
+  @Test public void providesEachBinding() throws Exception {
+    TestWarmUp warmUp = new TestWarmUp();
+    assertFalse(warmUp.isDone());
+
+    assertSame(warmUp, warmUp.start(DIRECT));
+
+    assertTrue(warmUp.isDone());
+    assertTrue(warmUp.await(0, TimeUnit.NANOSECONDS));
+    assertArrayEquals(new boolean[] { true, true, true }, warmUp.provided);
+    List<WarmUp.Binding> bindings = warmUp.getBindings();
+    assertEquals(3, bindings.size());
+    assertEquals("a()", bindings.get(0).getName());
+    assertNull(bindings.get(0).getFailure());
+    assertEquals("b()", bindings.get(1).getName());
+    assertTrue(bindings.get(1).getFailure() instanceof IllegalStateException);
+    assertEquals("c()", bindings.get(2).getName());
+  }
+
+  @Test public void fansOutOverExecutor() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      TestWarmUp warmUp = new TestWarmUp();
+      warmUp.start(executor).await();
+
+      assertTrue(warmUp.isDone());
+      assertEquals(3, warmUp.getBindings().size());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test public void recordsRejections() {
+    WarmUp warmUp = new TestWarmUp().start(new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        throw new RejectedExecutionException();
+      }
+    });
+
+    assertTrue(warmUp.isDone());
+    for (WarmUp.Binding binding : warmUp.getBindings()) {
+      assertTrue(binding.getFailure() instanceof RejectedExecutionException);
+    }
+  }
+
+  @Test public void none() {
+    assertTrue(GraphWarmUp.NONE.isDone());
+    assertTrue(GraphWarmUp.NONE.getBindings().isEmpty());
+  }
+}
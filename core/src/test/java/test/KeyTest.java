@@ -0,0 +1,56 @@
+package test;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import bullet.Key;
+
+import static org.junit.Assert.*;
+
+public class KeyTest {
+  static class Nested {}
+
+  @Test public void classTest() {
+    assertEquals("java.lang.String", Key.get(String.class).getName());
+    assertEquals("int", Key.get(int.class).getName());
+    assertEquals("test.KeyTest$Nested[][]", Key.get(Nested[][].class).getName());
+    assertSame(String.class, Key.get(String.class).getType());
+  }
+
+  @Test public void parameterizedTest() {
+    assertEquals("java.util.List<java.lang.String>", new Key<List<String>>() {}.getName());
+    assertEquals("java.util.Map<java.lang.String,test.KeyTest$Nested[]>", new Key<Map<String, Nested[]>>() {}.getName());
+    assertEquals("java.util.List<java.util.List<int[]>[]>", new Key<List<List<int[]>[]>>() {}.getName());
+  }
+
+  @Test public void wildcardTest() {
+    assertEquals("java.util.List<?>", new Key<List<?>>() {}.getName());
+    assertEquals("java.util.List<?>", new Key<List<? extends Object>>() {}.getName());
+    assertEquals("java.util.List<? extends java.lang.Number>", new Key<List<? extends Number>>() {}.getName());
+    assertEquals("java.util.List<? super java.lang.Number>", new Key<List<? super Number>>() {}.getName());
+  }
+
+  @Test public void equalsTest() {
+    assertEquals(new Key<List<String>>() {}, new Key<List<String>>() {});
+    assertEquals(new Key<List<String>>() {}.hashCode(), new Key<List<String>>() {}.hashCode());
+    assertEquals(Key.get(String.class), new Key<String>() {});
+    assertNotEquals(new Key<List<String>>() {}, new Key<List<Integer>>() {});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void typeVariableTest() {
+    typeVariableKey();
+  }
+
+  private static <T> Key<List<T>> typeVariableKey() {
+    return new Key<List<T>>() {};
+  }
+
+  @SuppressWarnings("rawtypes")
+  @Test(expected = IllegalStateException.class)
+  public void missingTypeArgumentTest() {
+    new Key() {};
+  }
+}
@@ -0,0 +1,77 @@
+package test;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import bullet.impl.PerfectClassIndexHashTable;
+
+import static org.junit.Assert.*;
+
+public class PerfectClassIndexHashTableTest {
+  @Test public void simpleTest() {
+    PerfectClassIndexHashTable table = new PerfectClassIndexHashTable(
+        List.class, Set.class, Map.class, Integer.class, String.class);
+
+    assertEquals(0, table.get(List.class));
+    assertEquals(1, table.get(Set.class));
+    assertEquals(2, table.get(Map.class));
+    assertEquals(3, table.get(Integer.class));
+    assertEquals(4, table.get(String.class));
+  }
+
+  @Test public void valuesTest() {
+    PerfectClassIndexHashTable table = new PerfectClassIndexHashTable(
+        new Class<?>[] { List.class, Set.class, Map.class },
+        new char[] { 1, 1, 0 });
+
+    assertEquals(1, table.get(List.class));
+    assertEquals(1, table.get(Set.class));
+    assertEquals(0, table.get(Map.class));
+  }
+
+  @Test public void getAbsentTest() {
+    PerfectClassIndexHashTable table = new PerfectClassIndexHashTable(
+        List.class, Set.class, Map.class, Integer.class, String.class);
+
+    assertEquals(-1, table.get(Thread.class));
+  }
+
+  @Test public void emptyTest() {
+    PerfectClassIndexHashTable table = new PerfectClassIndexHashTable();
+
+    assertEquals(-1, table.get(Thread.class));
+  }
+
+  @Test public void largeTest() {
+    List<Class<?>> classes = new ArrayList<>();
+    for (Class<?> c : new Class<?>[] { String.class, Thread.class, ArrayList.class, java.util.HashMap.class }) {
+      for (; c != null; c = c.getSuperclass()) {
+        addWithNested(classes, c);
+      }
+    }
+    PerfectClassIndexHashTable table = new PerfectClassIndexHashTable(classes.toArray(new Class<?>[classes.size()]));
+
+    for (int i = 0; i < classes.size(); i++) {
+      assertEquals(i, table.get(classes.get(i)));
+    }
+    assertEquals(-1, table.get(PerfectClassIndexHashTableTest.class));
+  }
+
+  private static void addWithNested(List<Class<?>> classes, Class<?> c) {
+    if (!classes.contains(c)) {
+      classes.add(c);
+      for (Class<?> nested : c.getDeclaredClasses()) {
+        addWithNested(classes, nested);
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void duplicatesTest() {
+    new PerfectClassIndexHashTable(List.class, Set.class, List.class);
+  }
+}
@@ -0,0 +1,123 @@
+package test;
+
+import org.junit.Test;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import bullet.impl.PerfectClassNameIndexHashTable;
+
+import static org.junit.Assert.*;
+
+public class PerfectClassNameIndexHashTableTest {
+  private final ClassLoader classLoader = getClass().getClassLoader();
+
+  @Test public void simpleTest() {
+    PerfectClassNameIndexHashTable table = new PerfectClassNameIndexHashTable(classLoader,
+        "java.util.List", "java.util.Set", "java.util.Map", "java.lang.Integer", "java.lang.String");
+
+    assertEquals(0, table.get(List.class));
+    assertEquals(1, table.get(Set.class));
+    assertEquals(2, table.get(Map.class));
+    assertEquals(3, table.get(Integer.class));
+    assertEquals(4, table.get(String.class));
+  }
+
+  @Test public void valuesTest() {
+    PerfectClassNameIndexHashTable table = new PerfectClassNameIndexHashTable(classLoader,
+        new String[] { "java.util.List", "java.util.Set", "java.util.Map" },
+        new char[] { 1, 1, 0 });
+
+    assertEquals(1, table.get(List.class));
+    assertEquals(1, table.get(Set.class));
+    assertEquals(0, table.get(Map.class));
+  }
+
+  @Test public void getAbsentTest() {
+    PerfectClassNameIndexHashTable table = new PerfectClassNameIndexHashTable(classLoader,
+        "java.util.List", "java.util.Set", "java.util.Map", "java.lang.Integer", "java.lang.String");
+
+    assertEquals(-1, table.get(Thread.class));
+  }
+
+  @Test public void emptyTest() {
+    PerfectClassNameIndexHashTable table = new PerfectClassNameIndexHashTable(classLoader);
+
+    assertEquals(-1, table.get(Thread.class));
+  }
+
+  @Test public void nestedAndArrayTest() {
+    PerfectClassNameIndexHashTable table = new PerfectClassNameIndexHashTable(classLoader,
+        "java.util.Map$Entry", "[Ljava.lang.String;", "[[I");
+
+    assertEquals(0, table.get(Map.Entry.class));
+    assertEquals(1, table.get(String[].class));
+    assertEquals(2, table.get(int[][].class));
+    assertEquals(-1, table.get(Integer.class));
+  }
+
+  @Test public void collidingHashCodesTest() {
+    assertEquals("test.Aa".hashCode(), "test.BB".hashCode());
+    PerfectClassNameIndexHashTable table = new PerfectClassNameIndexHashTable(classLoader,
+        "test.Aa", "test.BB", "java.lang.String");
+
+    assertEquals(2, table.get(String.class));
+    assertEquals(-1, table.get(Thread.class));
+  }
+
+  @Test public void otherClassLoaderTest() throws Exception {
+    URL classes = PerfectClassNameIndexHashTableTest.class.getProtectionDomain().getCodeSource().getLocation();
+    try (URLClassLoader otherClassLoader = new URLClassLoader(new URL[] { classes }, null)) {
+      Class<?> otherClass = otherClassLoader.loadClass(PerfectClassNameIndexHashTableTest.class.getName());
+      assertNotSame(PerfectClassNameIndexHashTableTest.class, otherClass);
+
+      PerfectClassNameIndexHashTable table = new PerfectClassNameIndexHashTable(classLoader,
+          PerfectClassNameIndexHashTableTest.class.getName());
+
+      assertEquals(-1, table.get(otherClass));
+      assertEquals(0, table.get(PerfectClassNameIndexHashTableTest.class));
+      assertEquals(-1, table.get(otherClass));
+    }
+  }
+
+  @Test public void unresolvableFromOtherClassLoaderTest() throws Exception {
+    URL classes = PerfectClassNameIndexHashTableTest.class.getProtectionDomain().getCodeSource().getLocation();
+    try (URLClassLoader otherClassLoader = new URLClassLoader(new URL[] { classes }, null)) {
+      Class<?> otherClass = otherClassLoader.loadClass(PerfectClassNameIndexHashTableTest.class.getName());
+      final AtomicInteger loads = new AtomicInteger();
+      // Only sees the bootstrap classes, so cannot resolve the name.
+      ClassLoader countingClassLoader = new ClassLoader(null) {
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+          if (name.equals(PerfectClassNameIndexHashTableTest.class.getName())) {
+            loads.incrementAndGet();
+          }
+          return super.loadClass(name, resolve);
+        }
+      };
+
+      PerfectClassNameIndexHashTable table = new PerfectClassNameIndexHashTable(countingClassLoader,
+          PerfectClassNameIndexHashTableTest.class.getName());
+
+      assertEquals(-1, table.get(otherClass));
+      assertEquals(-1, table.get(otherClass));
+      assertEquals(-1, table.get(PerfectClassNameIndexHashTableTest.class));
+      assertEquals(1, loads.get());
+    }
+  }
+
+  @Test public void unresolvableTest() {
+    PerfectClassNameIndexHashTable table = new PerfectClassNameIndexHashTable(classLoader, "test.DoesNotExist");
+
+    assertEquals(-1, table.get(Thread.class));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void duplicatesTest() {
+    new PerfectClassNameIndexHashTable(classLoader, "java.util.List", "java.util.Set", "java.util.List");
+  }
+}
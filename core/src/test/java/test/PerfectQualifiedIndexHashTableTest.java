@@ -0,0 +1,72 @@
+package test;
+
+import org.junit.Test;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import bullet.impl.PerfectQualifiedIndexHashTable;
+
+import static org.junit.Assert.*;
+
+public class PerfectQualifiedIndexHashTableTest {
+  @Test public void simpleTest() {
+    PerfectQualifiedIndexHashTable table = new PerfectQualifiedIndexHashTable(
+        new Class<?>[] { List.class, List.class, Set.class, Map.class },
+        new Object[] { Documented.class, Retention.class, "set", Documented.class });
+
+    assertEquals(0, table.get(List.class, Documented.class));
+    assertEquals(1, table.get(List.class, Retention.class));
+    assertEquals(2, table.get(Set.class, "set"));
+    assertEquals(3, table.get(Map.class, Documented.class));
+  }
+
+  @Test public void getAbsentTest() {
+    PerfectQualifiedIndexHashTable table = new PerfectQualifiedIndexHashTable(
+        new Class<?>[] { List.class, Set.class },
+        new Object[] { Documented.class, "set" });
+
+    assertEquals(-1, table.get(List.class, Retention.class));
+    assertEquals(-1, table.get(List.class, "set"));
+    assertEquals(-1, table.get(Set.class, "other"));
+    assertEquals(-1, table.get(Set.class, Documented.class));
+    assertEquals(-1, table.get(Map.class, Documented.class));
+  }
+
+  @Test public void emptyTest() {
+    PerfectQualifiedIndexHashTable table = new PerfectQualifiedIndexHashTable(new Class<?>[0], new Object[0]);
+
+    assertEquals(-1, table.get(List.class, "list"));
+  }
+
+  @Test public void largeTest() {
+    int size = 1000;
+    Class<?>[] types = new Class<?>[size];
+    Object[] qualifiers = new Object[size];
+    for (int i = 0; i < size; i++) {
+      types[i] = i % 2 == 0 ? List.class : Set.class;
+      qualifiers[i] = "name" + i;
+    }
+    PerfectQualifiedIndexHashTable table = new PerfectQualifiedIndexHashTable(types, qualifiers);
+
+    for (int i = 0; i < size; i++) {
+      assertEquals(i, table.get(types[i], qualifiers[i]));
+    }
+    assertEquals(-1, table.get(Set.class, "name0"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void duplicatesTest() {
+    new PerfectQualifiedIndexHashTable(
+        new Class<?>[] { List.class, Set.class, List.class },
+        new Object[] { "list", "set", "list" });
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void illegalQualifierTest() {
+    new PerfectQualifiedIndexHashTable(new Class<?>[] { List.class }, new Object[] { 42 });
+  }
+}
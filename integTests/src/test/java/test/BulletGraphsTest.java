@@ -0,0 +1,33 @@
+package test;
+
+import static com.google.common.truth.Truth.*;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import bullet.BulletGraphs;
+import bullet.ObjectGraph;
+
+public class BulletGraphsTest {
+
+  @BeforeClass public static void registerGraphs() {
+    BulletGraphs.register(new IntegTestGraphs());
+  }
+
+  @Test public void testComponent() {
+    ObjectGraph graph = BulletGraphs.of(DaggerSimpleComponentTest_SimpleComponent.create());
+    assertThat(graph).isInstanceOf(BulletSimpleComponentTest_SimpleComponent.class);
+    assertThat(graph.get(SimpleComponentTest.A.class)).isNotNull();
+  }
+
+  @Test public void testSubcomponent() {
+    ObjectGraph graph = BulletGraphs.of(DaggerSimpleSubcomponentTest_SimpleComponent.create().subcomponent());
+    assertThat(graph).isInstanceOf(BulletSimpleSubcomponentTest_SimpleSubcomponent.class);
+    assertThat(graph.get(SimpleSubcomponentTest.A.class)).isNotNull();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void throwsOnUnknownComponent() {
+    BulletGraphs.of(new Object());
+  }
+}
@@ -0,0 +1,210 @@
+package test;
+
+import static com.google.common.truth.Truth.*;
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.junit.Test;
+
+import bullet.CompositeObjectGraph;
+import bullet.Key;
+import bullet.ObjectGraph;
+import bullet.WarmUp;
+import dagger.Component;
+import dagger.Module;
+import dagger.Provides;
+import dagger.Subcomponent;
+
+public class CompositeObjectGraphTest {
+
+  static class A {
+    @Inject A() {}
+  }
+  static class B {
+    @Inject B() {}
+  }
+  static class Shared {
+    final String origin;
+
+    Shared(String origin) {
+      this.origin = origin;
+    }
+  }
+  static class PlatformInjected {
+    @Inject A a;
+  }
+  static class TenantInjected {
+    @Inject B b;
+  }
+  static class NotInAnyComponent {
+  }
+
+  @Module
+  static class PlatformModule {
+    @Provides Shared provideShared() { return new Shared("platform"); }
+    @Provides @Named("failing") String provideFailing() { throw new IllegalArgumentException("platform"); }
+    @Provides Set<String> provideFailingSet() { throw new IllegalArgumentException("platform"); }
+  }
+
+  @Module
+  static class TenantModule {
+    @Provides Shared provideShared() { return new Shared("tenant"); }
+    @Provides List<String> provideStrings() { return Collections.singletonList("tenant"); }
+    @Provides @Named("tenant") String provideTenantName() { return "acme"; }
+    @Provides @Named("failing") String provideFailing() { return "tenant"; }
+    @Provides Set<String> provideFailingSet() { return Collections.singleton("tenant"); }
+  }
+
+  @Subcomponent
+  interface TenantSubcomponent {
+    B b();
+  }
+
+  @Component(modules = PlatformModule.class)
+  interface PlatformComponent {
+    A a();
+    Shared shared();
+    @Named("failing") String failing();
+    Set<String> failingSet();
+    void inject(PlatformInjected instance);
+  }
+
+  @Component(modules = TenantModule.class)
+  interface TenantComponent {
+    B b();
+    Shared shared();
+    List<String> strings();
+    @Named("tenant") String tenantName();
+    @Named("failing") String failing();
+    Set<String> failingSet();
+    void inject(TenantInjected instance);
+    TenantSubcomponent subcomponent();
+  }
+
+  private static final Executor DIRECT = new Executor() {
+    @Override
+    public void execute(Runnable command) {
+      command.run();
+    }
+  };
+
+  private final ObjectGraph platformGraph = new BulletCompositeObjectGraphTest_PlatformComponent(
+      DaggerCompositeObjectGraphTest_PlatformComponent.create());
+  private final ObjectGraph tenantGraph = new BulletCompositeObjectGraphTest_TenantComponent(
+      DaggerCompositeObjectGraphTest_TenantComponent.create());
+  private final ObjectGraph graph = new CompositeObjectGraph(platformGraph, tenantGraph);
+
+  @Test public void routesToOwningGraph() {
+    assertThat(graph.get(A.class)).isNotNull();
+    assertThat(graph.get(B.class)).isNotNull();
+    assertThat(graph.provider(B.class).get()).isNotNull();
+    assertThat(graph.lazy(A.class).get()).isNotNull();
+  }
+
+  @Test public void firstGraphWins() {
+    assertThat(graph.get(Shared.class).origin).isEqualTo("platform");
+    assertThat(new CompositeObjectGraph(tenantGraph, platformGraph).get(Shared.class).origin).isEqualTo("tenant");
+  }
+
+  @Test public void routesKeysAndQualifiers() {
+    assertThat(graph.get(new Key<List<String>>() {})).containsExactly("tenant");
+    assertThat(graph.get(String.class, "tenant")).isEqualTo("acme");
+    // Resolved lookups are cached
+    assertThat(graph.get(String.class, "tenant")).isEqualTo("acme");
+  }
+
+  @Test public void routesInjections() {
+    PlatformInjected platformInjected = new PlatformInjected();
+    assertThat(graph.inject(platformInjected)).isSameAs(platformInjected);
+    assertThat(platformInjected.a).isNotNull();
+
+    TenantInjected tenantInjected = new TenantInjected();
+    assertThat(graph.tryInject(tenantInjected)).isTrue();
+    assertThat(tenantInjected.b).isNotNull();
+
+    TenantInjected other = new TenantInjected();
+    graph.membersInjector(TenantInjected.class).injectMembers(other);
+    assertThat(other.b).isNotNull();
+  }
+
+  @Test public void probesWithoutThrowing() {
+    assertThat(graph.canProvide(A.class)).isTrue();
+    assertThat(graph.canProvide(B.class)).isTrue();
+    assertThat(graph.canProvide(NotInAnyComponent.class)).isFalse();
+    assertThat(graph.tryGet(NotInAnyComponent.class)).isNull();
+    assertThat(graph.tryInject(new NotInAnyComponent())).isFalse();
+    assertThat(graph.canProvide(new Key<List<String>>() {})).isTrue();
+    assertThat(graph.canProvide(new Key<List<Integer>>() {})).isFalse();
+    assertThat(graph.canProvide(String.class, "tenant")).isTrue();
+    assertThat(graph.canProvide(String.class, "platform")).isFalse();
+    assertThat(graph.canInject(TenantInjected.class)).isTrue();
+    assertThat(graph.canInject(NotInAnyComponent.class)).isFalse();
+    assertThat(graph.canPlus(TenantSubcomponent.class)).isTrue();
+    assertThat(graph.canPlus(TenantSubcomponent.class, new Object())).isFalse();
+  }
+
+  @Test public void doesNotTakeBindingExceptionsForMisses() {
+    for (int i = 0; i < 2; i++) {
+      try {
+        graph.get(String.class, "failing");
+        fail();
+      } catch (IllegalArgumentException expected) {
+        assertThat(expected).hasMessage("platform");
+      }
+      try {
+        graph.get(new Key<Set<String>>() {});
+        fail();
+      } catch (IllegalArgumentException expected) {
+        assertThat(expected).hasMessage("platform");
+      }
+    }
+  }
+
+  @Test public void throwsOnUnknownTypes() {
+    try {
+      graph.get(NotInAnyComponent.class);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      graph.inject(new NotInAnyComponent());
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      graph.get(String.class, "platform");
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      graph.plus(NotInAnyComponent.class);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      graph.plus(TenantSubcomponent.class, (Object) null);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  @Test public void plus() {
+    assertThat(graph.plus(TenantSubcomponent.class).get(B.class)).isNotNull();
+  }
+
+  @Test public void warmUp() throws Exception {
+    WarmUp warmUp = graph.warmUp(DIRECT);
+    warmUp.await();
+    assertThat(warmUp.isDone()).isTrue();
+    assertThat(warmUp.getBindings().size())
+        .isEqualTo(platformGraph.warmUp(DIRECT).getBindings().size()
+            + tenantGraph.warmUp(DIRECT).getBindings().size());
+  }
+}
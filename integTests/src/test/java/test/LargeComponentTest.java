@@ -0,0 +1,80 @@
+package test;
+
+import static com.google.common.truth.Truth.*;
+
+import javax.inject.Inject;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import bullet.ObjectGraph;
+import dagger.Component;
+import dagger.Lazy;
+
+public class LargeComponentTest {
+
+  static class A { @Inject A() {} }
+  static class B { @Inject B() {} }
+  static class C { @Inject C() {} }
+  static class D { @Inject D() {} }
+  static class E { @Inject E() {} }
+  static class F { @Inject F() {} }
+  static class G { @Inject G() {} }
+  static class H { @Inject H() {} }
+  static class I { @Inject I() {} }
+  static class NotInComponent extends A {
+    @Inject NotInComponent() {}
+  }
+
+  // Has more provision types than the generated cascading ifs would handle.
+  @Component
+  interface LargeComponent {
+    A a();
+    B b();
+    C c();
+    D d();
+    E e();
+    F f();
+    G g();
+    H h();
+    Lazy<I> i();
+  }
+
+  ObjectGraph graph;
+
+  @Before public void setUp() {
+    graph = new BulletLargeComponentTest_LargeComponent(DaggerLargeComponentTest_LargeComponent.create());
+  }
+
+  @Test public void testLargeComponent() {
+    assertThat(graph.get(A.class)).isNotNull();
+    assertThat(graph.get(B.class)).isNotNull();
+    assertThat(graph.get(C.class)).isNotNull();
+    assertThat(graph.get(D.class)).isNotNull();
+    assertThat(graph.get(E.class)).isNotNull();
+    assertThat(graph.get(F.class)).isNotNull();
+    assertThat(graph.get(G.class)).isNotNull();
+    assertThat(graph.get(H.class)).isNotNull();
+    assertThat(graph.get(I.class)).isNotNull();
+  }
+
+  @Test public void testHandle() {
+    assertThat(graph.handle(A.class).get()).isNotNull();
+    assertThat(graph.handle(H.class).get()).isNotNull();
+    assertThat(graph.handle(I.class).get()).isNotNull();
+    assertThat(graph.handle(I.class)).isSameAs(graph.handle(I.class));
+  }
+
+  @Test public void testProviderAndLazy() {
+    assertThat(graph.provider(I.class).get()).isNotNull();
+    Lazy<I> lazy = graph.lazy(I.class);
+    assertThat(lazy.get()).isSameAs(lazy.get());
+    Lazy<A> lazyA = graph.lazy(A.class);
+    assertThat(lazyA.get()).isSameAs(lazyA.get());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void throwsOnUnknownType() {
+    graph.get(NotInComponent.class);
+  }
+}
@@ -1,8 +1,12 @@
 package test;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.*;
 
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
 import javax.inject.Inject;
 import javax.inject.Provider;
 
@@ -11,7 +15,9 @@ import org.junit.Test;
 import org.mockito.internal.stubbing.defaultanswers.ForwardsInvocations;
 
 import bullet.ObjectGraph;
+import bullet.ParallelInjector;
 import dagger.Component;
+import dagger.MembersInjector;
 import dagger.Module;
 import dagger.Provides;
 
@@ -41,6 +47,10 @@ public class MembersInjectionTest {
   static final class E {
     @Inject E() {}
   }
+  interface J {
+  }
+  static class K extends B implements J {
+  }
 
   // XXX: interface must be public for Mockito ForwardsInvocations to work
   @Component(modules = SimpleModule.class)
@@ -51,6 +61,7 @@ public class MembersInjectionTest {
     void b(B b);
     void c(C c);
     void d(D d);
+    void j(J j);
   }
 
   @Module
@@ -119,4 +130,109 @@ public class MembersInjectionTest {
     assertThat(d.e).isNotNull();
     verifyNoMoreInteractions(component);
   }
+
+  @Test public void testInjectAll() {
+    A a1 = new A(), a2 = new A();
+    C c = new C();
+    graph.injectAll(new Object[] { a1, a2, c });
+    verify(component).a(a1);
+    verify(component).a(a2);
+    verify(component).c(c);
+    assertThat(a1.e).isNotNull();
+    assertThat(a2.e).isNotNull();
+    assertThat(c.a).isNotNull();
+    verifyNoMoreInteractions(component);
+  }
+
+  @Test public void testInjectAllIterable() {
+    A a = new A();
+    B b = new B();
+    graph.injectAll(Arrays.asList(a, b));
+    verify(component).a(a);
+    verify(component).b(b);
+    verifyNoMoreInteractions(component);
+  }
+
+  @Test public void testInjectAllUnknownType() {
+    A a = new A();
+    try {
+      graph.injectAll(new Object[] { a, new Object() });
+      fail();
+    } catch (IllegalArgumentException expected) {
+      // The instances before the unknown one have been injected.
+      verify(component).a(a);
+    }
+  }
+
+  @Test public void testTryInject() {
+    A a = new A();
+    assertThat(graph.tryInject(a)).isTrue();
+    verify(component).a(a);
+    assertThat(a.e).isNotNull();
+    assertThat(graph.tryInject(new Object())).isFalse();
+    verifyNoMoreInteractions(component);
+  }
+
+  @Test public void testParallelInjector() {
+    Object[] instances = new Object[100];
+    for (int i = 0; i < instances.length; i++) {
+      instances[i] = i % 2 == 0 ? new A() : new B();
+    }
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      new ParallelInjector(graph, pool, 10).injectAll(instances);
+    } finally {
+      pool.shutdown();
+    }
+    for (Object instance : instances) {
+      if (instance instanceof A) {
+        assertThat(((A) instance).e).isNotNull();
+      } else {
+        assertThat(((B) instance).a).isNotNull();
+      }
+    }
+  }
+
+  @Test public void testMembersInjector() {
+    MembersInjector<A> injector = graph.membersInjector(A.class);
+    verifyNoMoreInteractions(component);
+    A a1 = new A(), a2 = new A();
+    injector.injectMembers(a1);
+    injector.injectMembers(a2);
+    verify(component).a(a1);
+    verify(component).a(a2);
+    assertThat(a1.e).isNotNull();
+    verifyNoMoreInteractions(component);
+  }
+
+  @Test public void testMembersInjectorForSubclass() {
+    I2 i2 = new I2() {};
+    @SuppressWarnings("unchecked")
+    MembersInjector<I2> injector = (MembersInjector<I2>) graph.membersInjector(i2.getClass());
+    injector.injectMembers(i2);
+    verify(component).i2(i2);
+    assertThat(i2.c).isNotNull();
+    verifyNoMoreInteractions(component);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void membersInjectorThrowsOnUnknownType() {
+    graph.membersInjector(E.class);
+  }
+
+  @Test public void testAnyJ() {
+    J j = new J() {};
+    assertThat(graph.inject(j)).isSameAs(j);
+    verify(component).j(j);
+    verifyNoMoreInteractions(component);
+  }
+
+  @Test public void testSuperclassBeforeInterface() {
+    // B comes before J, as it's sorted by name
+    K k = new K();
+    assertThat(graph.inject(k)).isSameAs(k);
+    verify(component).b(k);
+    assertThat(k.a).isNotNull();
+    verifyNoMoreInteractions(component);
+  }
 }
@@ -0,0 +1,70 @@
+package test;
+
+import static com.google.common.truth.Truth.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import bullet.Key;
+import bullet.ObjectGraph;
+import dagger.Component;
+import dagger.Module;
+import dagger.Provides;
+
+public class ParameterizedTypesTest {
+
+  static class A { @Inject A() {} }
+
+  @Module
+  static class ParameterizedModule {
+    @Provides List<String> strings() { return Arrays.asList("a", "b"); }
+    @Provides List<Integer> integers() { return Arrays.asList(1, 2); }
+    @Provides Map<String, A[]> as(A a) { return Collections.singletonMap("a", new A[] { a }); }
+  }
+
+  @Component(modules = ParameterizedModule.class)
+  interface ParameterizedComponent {
+    A a();
+    List<String> strings();
+    List<Integer> integers();
+    Provider<Map<String, A[]>> as();
+  }
+
+  static final Key<List<String>> STRINGS = new Key<List<String>>() {};
+  static final Key<List<Integer>> INTEGERS = new Key<List<Integer>>() {};
+  static final Key<Map<String, A[]>> AS = new Key<Map<String, A[]>>() {};
+
+  ObjectGraph graph;
+
+  @Before public void setUp() {
+    graph = new BulletParameterizedTypesTest_ParameterizedComponent(DaggerParameterizedTypesTest_ParameterizedComponent.create());
+  }
+
+  @Test public void testParameterizedTypes() {
+    assertThat(graph.get(STRINGS)).containsExactly("a", "b").inOrder();
+    assertThat(graph.get(INTEGERS)).containsExactly(1, 2).inOrder();
+    assertThat(graph.get(AS).get("a")).hasLength(1);
+  }
+
+  @Test public void testClassKey() {
+    assertThat(graph.get(Key.get(A.class))).isNotNull();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void throwsOnUnknownKey() {
+    graph.get(new Key<List<Long>>() {});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void throwsOnUnknownClassKey() {
+    graph.get(Key.get(String.class));
+  }
+}
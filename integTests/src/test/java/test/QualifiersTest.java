@@ -0,0 +1,70 @@
+package test;
+
+import static com.google.common.truth.Truth.*;
+
+import java.lang.annotation.Retention;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Qualifier;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import bullet.ObjectGraph;
+import dagger.Component;
+import dagger.Lazy;
+import dagger.Module;
+import dagger.Provides;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+public class QualifiersTest {
+
+  @Qualifier @Retention(RUNTIME) @interface Primary {}
+  @Qualifier @Retention(RUNTIME) @interface Secondary {}
+
+  @Module
+  static class QualifiersModule {
+    @Provides String unqualified() { return "unqualified"; }
+    @Provides @Primary String primary() { return "primary"; }
+    @Provides @Named("secondary") String secondary() { return "secondary"; }
+    @Provides @Named("secondary") Integer secondaryInteger() { return 2; }
+  }
+
+  @Component(modules = QualifiersModule.class)
+  interface QualifiersComponent {
+    String unqualified();
+    @Primary String primary();
+    @Named("secondary") Provider<String> secondary();
+    @Named("secondary") Lazy<Integer> secondaryInteger();
+  }
+
+  ObjectGraph graph;
+
+  @Before public void setUp() {
+    graph = new BulletQualifiersTest_QualifiersComponent(DaggerQualifiersTest_QualifiersComponent.create());
+  }
+
+  @Test public void testQualifiers() {
+    assertThat(graph.get(String.class)).isEqualTo("unqualified");
+    assertThat(graph.get(String.class, Primary.class)).isEqualTo("primary");
+    assertThat(graph.get(String.class, "secondary")).isEqualTo("secondary");
+    assertThat(graph.get(Integer.class, "secondary")).isEqualTo(2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void throwsOnUnknownQualifier() {
+    graph.get(String.class, Secondary.class);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void throwsOnUnknownName() {
+    graph.get(String.class, "primary");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void throwsOnUnknownQualifiedType() {
+    graph.get(Integer.class, Primary.class);
+  }
+}
@@ -0,0 +1,65 @@
+package test;
+
+import static com.google.common.truth.Truth.*;
+import static org.junit.Assert.fail;
+
+import javax.inject.Inject;
+
+import org.junit.Test;
+
+import bullet.ObjectGraph;
+import dagger.Component;
+
+/**
+ * Components extending the same supertypes; generic ones must be resolved in each component.
+ */
+public class SharedSupertypesTest {
+
+  static class A { @Inject A() {} }
+  static class B { @Inject B() {} }
+  static class C { @Inject C() {} }
+  static class D { @Inject D() {} }
+
+  interface SharedMethods {
+    C c();
+    void inject(D d);
+  }
+
+  interface GenericMethods<T> {
+    T t();
+  }
+
+  @Component
+  interface AComponent extends SharedMethods, GenericMethods<A> {}
+
+  @Component
+  interface BComponent extends SharedMethods, GenericMethods<B> {}
+
+  @Test public void testSharedMethods() {
+    ObjectGraph aGraph = new BulletSharedSupertypesTest_AComponent(DaggerSharedSupertypesTest_AComponent.create());
+    ObjectGraph bGraph = new BulletSharedSupertypesTest_BComponent(DaggerSharedSupertypesTest_BComponent.create());
+
+    assertThat(aGraph.get(C.class)).isNotNull();
+    assertThat(bGraph.get(C.class)).isNotNull();
+    assertThat(aGraph.inject(new D())).isNotNull();
+    assertThat(bGraph.inject(new D())).isNotNull();
+  }
+
+  @Test public void testGenericMethods() {
+    ObjectGraph aGraph = new BulletSharedSupertypesTest_AComponent(DaggerSharedSupertypesTest_AComponent.create());
+    ObjectGraph bGraph = new BulletSharedSupertypesTest_BComponent(DaggerSharedSupertypesTest_BComponent.create());
+
+    assertThat(aGraph.get(A.class)).isNotNull();
+    assertThat(bGraph.get(B.class)).isNotNull();
+    try {
+      aGraph.get(B.class);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      bGraph.get(A.class);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+}
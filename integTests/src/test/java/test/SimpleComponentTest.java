@@ -3,14 +3,19 @@ package test;
 import static com.google.common.truth.Truth.*;
 import static org.mockito.Mockito.*;
 
+import java.util.concurrent.Executor;
+
 import javax.inject.Inject;
+import javax.inject.Provider;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.internal.stubbing.defaultanswers.ForwardsInvocations;
 
 import bullet.ObjectGraph;
+import bullet.WarmUp;
 import dagger.Component;
+import dagger.Lazy;
 import dagger.Subcomponent;
 
 public class SimpleComponentTest {
@@ -60,11 +65,82 @@ public class SimpleComponentTest {
     assertThat(a).isNotNull();
   }
 
+  @Test public void testWarmUp() throws Exception {
+    WarmUp warmUp = graph.warmUp(new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        command.run();
+      }
+    });
+    warmUp.await();
+    verify(component).a();
+    verify(component).b();
+    verifyNoMoreInteractions(component);
+    assertThat(warmUp.getBindings()).hasSize(2);
+    assertThat(warmUp.getBindings().get(0).getName()).isEqualTo("a()");
+    assertThat(warmUp.getBindings().get(1).getName()).isEqualTo("b()");
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void throwsOnUnknownType() {
     graph.get(NotInComponent.class);
   }
 
+  @Test public void testTryGet() {
+    assertThat(graph.tryGet(A.class)).isNotNull();
+    verify(component).a();
+    assertThat(graph.tryGet(NotInComponent.class)).isNull();
+    assertThat(graph.tryGet(SimpleSubcomponent.class)).isNull();
+    verifyNoMoreInteractions(component);
+  }
+
+  @Test public void testCanProvide() {
+    assertThat(graph.canProvide(A.class)).isTrue();
+    assertThat(graph.canProvide(B.class)).isTrue();
+    assertThat(graph.canProvide(NotInComponent.class)).isFalse();
+    verifyZeroInteractions(component);
+  }
+
+  @Test public void testTryInject() {
+    assertThat(graph.tryInject(new B())).isFalse();
+  }
+
+  @Test public void testHandle() {
+    Provider<B> handle = graph.handle(B.class);
+    verify(component, never()).b();
+    B b1 = handle.get();
+    B b2 = handle.get();
+    verify(component, times(2)).b();
+    assertThat(b1).isNotNull();
+    assertThat(b2).isNotSameAs(b1);
+    assertThat(graph.handle(B.class)).isSameAs(handle);
+  }
+
+  @Test public void testProvider() {
+    Provider<A> provider = graph.provider(A.class);
+    verify(component, never()).a();
+    assertThat(provider.get()).isNotSameAs(provider.get());
+    verify(component, times(2)).a();
+  }
+
+  @Test public void testLazy() {
+    Lazy<A> lazy = graph.lazy(A.class);
+    verify(component, never()).a();
+    A a = lazy.get();
+    assertThat(lazy.get()).isSameAs(a);
+    verify(component).a();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void lazyThrowsOnUnknownType() {
+    graph.lazy(NotInComponent.class);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void handleThrowsOnUnknownType() {
+    graph.handle(NotInComponent.class);
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void throwsOnSubcomponent() {
     graph.get(SimpleSubcomponent.class);
@@ -79,4 +79,22 @@ public class SimpleSubcomponentTest {
     B b = new B();
     graph.inject(b);
   }
+
+  @Test public void testPlus() {
+    ObjectGraph child = graph.plus(OtherSubcomponent.class);
+    verify(component).subcomponent();
+    assertThat(child.get(C.class)).isNotNull();
+
+    assertThat(graph.plus(OtherSubcomponent.class, new Object[0]).get(C.class)).isNotNull();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void plusThrowsOnUnknownSubcomponent() {
+    graph.plus(SimpleSubcomponent.class);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void plusThrowsOnUnexpectedModule() {
+    graph.plus(OtherSubcomponent.class, new Object());
+  }
 }
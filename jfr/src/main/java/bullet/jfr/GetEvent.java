@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2014 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bullet.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A provision through {@code ObjectGraph.get()}, or a failed provision lookup.
+ */
+@Name("bullet.Get")
+@Label("Object Graph Get")
+@Description("Provision of an instance by a Bullet object graph")
+@Category("Bullet")
+@Enabled(false)
+public class GetEvent extends jdk.jfr.Event {
+  @Label("Object Graph")
+  @Description("Component type of the object graph")
+  Class<?> graph;
+
+  @Label("Binding")
+  @Description("Looked up type")
+  String binding;
+
+  @Label("Resolution")
+  @Description("direct, or miss when no method was found")
+  String resolution;
+}
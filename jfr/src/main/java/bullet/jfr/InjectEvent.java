@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2014 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bullet.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A members injection through {@code ObjectGraph.inject()} or {@code injectAll()}, or a failed members-injection
+ * lookup.
+ */
+@Name("bullet.Inject")
+@Label("Object Graph Inject")
+@Description("Members injection of an instance by a Bullet object graph")
+@Category("Bullet")
+@Enabled(false)
+public class InjectEvent extends jdk.jfr.Event {
+  @Label("Object Graph")
+  @Description("Component type of the object graph")
+  Class<?> graph;
+
+  @Label("Instance Class")
+  @Description("Runtime class of the injected instance")
+  Class<?> instanceClass;
+
+  @Label("Binding")
+  @Description("Type of the members-injection method")
+  Class<?> binding;
+
+  @Label("Resolution")
+  @Description("direct, supertype when the binding is a supertype of the instance class, or miss when no method was found")
+  String resolution;
+
+  @Label("Supertype Depth")
+  @Description("Number of supertype steps from the instance class to the binding")
+  int depth;
+}
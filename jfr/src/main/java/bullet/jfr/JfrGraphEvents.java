@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2014 Thomas Broyer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bullet.jfr;
+
+import bullet.Key;
+import bullet.impl.GraphEvents;
+import bullet.impl.Supertypes;
+import jdk.jfr.EventType;
+
+/**
+ * Reports the events of object graphs generated with the {@code bullet.jfr} processor option to the JDK Flight
+ * Recorder, as {@link GetEvent bullet.Get} and {@link InjectEvent bullet.Inject} events.
+ * <p>
+ * Call {@link #install()} at startup. Both events are disabled by default: enable them in the recording settings.
+ * While they're disabled, no event is created.
+ */
+public final class JfrGraphEvents implements GraphEvents.Sink {
+  private static final String DIRECT = "direct";
+  private static final String SUPERTYPE = "supertype";
+  private static final String MISS = "miss";
+
+  private static final EventType GET = EventType.getEventType(GetEvent.class);
+  private static final EventType INJECT = EventType.getEventType(InjectEvent.class);
+
+  private JfrGraphEvents() {
+  }
+
+  /**
+   * Installs the JDK Flight Recorder sink in {@link GraphEvents}.
+   */
+  public static void install() {
+    GraphEvents.install(new JfrGraphEvents());
+  }
+
+  @Override
+  public Object beginGet() {
+    if (!GET.isEnabled()) {
+      return null;
+    }
+    GetEvent event = new GetEvent();
+    event.begin();
+    return event;
+  }
+
+  @Override
+  public void endGet(Object event, Class<?> graph, Class<?> bindingType) {
+    GetEvent getEvent = (GetEvent) event;
+    getEvent.end();
+    if (getEvent.shouldCommit()) {
+      getEvent.graph = graph;
+      getEvent.binding = bindingType.getName();
+      getEvent.resolution = DIRECT;
+      getEvent.commit();
+    }
+  }
+
+  @Override
+  public void missGet(Class<?> graph, Object binding) {
+    if (!GET.isEnabled()) {
+      return;
+    }
+    GetEvent event = new GetEvent();
+    if (event.shouldCommit()) {
+      event.graph = graph;
+      event.binding = binding instanceof Class ? ((Class<?>) binding).getName() : ((Key<?>) binding).getName();
+      event.resolution = MISS;
+      event.commit();
+    }
+  }
+
+  @Override
+  public Object beginInject() {
+    if (!INJECT.isEnabled()) {
+      return null;
+    }
+    InjectEvent event = new InjectEvent();
+    event.begin();
+    return event;
+  }
+
+  @Override
+  public void endInject(Object event, Class<?> graph, Class<?> runtimeClass, Class<?> bindingClass) {
+    InjectEvent injectEvent = (InjectEvent) event;
+    injectEvent.end();
+    if (injectEvent.shouldCommit()) {
+      injectEvent.graph = graph;
+      injectEvent.instanceClass = runtimeClass;
+      injectEvent.binding = bindingClass;
+      injectEvent.depth = Supertypes.depth(runtimeClass, bindingClass);
+      injectEvent.resolution = injectEvent.depth == 0 ? DIRECT : SUPERTYPE;
+      injectEvent.commit();
+    }
+  }
+
+  @Override
+  public void missInject(Class<?> graph, Class<?> runtimeClass) {
+    if (!INJECT.isEnabled()) {
+      return;
+    }
+    InjectEvent event = new InjectEvent();
+    if (event.shouldCommit()) {
+      event.graph = graph;
+      event.instanceClass = runtimeClass;
+      event.resolution = MISS;
+      event.commit();
+    }
+  }
+}
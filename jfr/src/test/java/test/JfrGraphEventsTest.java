@@ -0,0 +1,77 @@
+package test;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+import bullet.impl.GraphEvents;
+import bullet.jfr.JfrGraphEvents;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import static org.junit.Assert.*;
+
+public class JfrGraphEventsTest {
+  @BeforeClass public static void install() {
+    JfrGraphEvents.install();
+  }
+
+  @AfterClass public static void uninstall() {
+    GraphEvents.install(null);
+  }
+
+  @Test public void disabledByDefault() {
+    assertNull(GraphEvents.beginGet());
+    assertNull(GraphEvents.beginInject());
+  }
+
+  @Test public void recordsEvents() throws Exception {
+    List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      recording.enable("bullet.Get");
+      recording.enable("bullet.Inject");
+      recording.start();
+
+      assertEquals("value", GraphEvents.endGet(GraphEvents.beginGet(), JfrGraphEventsTest.class, String.class, "value"));
+      GraphEvents.missGet(JfrGraphEventsTest.class, Integer.class);
+      GraphEvents.endInject(GraphEvents.beginInject(), JfrGraphEventsTest.class, ArrayList.class, AbstractList.class);
+      GraphEvents.missInject(JfrGraphEventsTest.class, Object.class);
+
+      recording.stop();
+      Path file = Files.createTempFile("bullet", ".jfr");
+      try {
+        recording.dump(file);
+        events = RecordingFile.readAllEvents(file);
+      } finally {
+        Files.delete(file);
+      }
+    }
+
+    assertEquals(4, events.size());
+    RecordedEvent get = find(events, "bullet.Get", "direct");
+    assertEquals(JfrGraphEventsTest.class.getName(), get.getClass("graph").getName());
+    assertEquals("java.lang.String", get.getString("binding"));
+    assertEquals("java.lang.Integer", find(events, "bullet.Get", "miss").getString("binding"));
+    RecordedEvent inject = find(events, "bullet.Inject", "supertype");
+    assertEquals(ArrayList.class.getName(), inject.getClass("instanceClass").getName());
+    assertEquals(AbstractList.class.getName(), inject.getClass("binding").getName());
+    assertEquals(1, inject.getInt("depth"));
+    assertEquals(Object.class.getName(), find(events, "bullet.Inject", "miss").getClass("instanceClass").getName());
+  }
+
+  private static RecordedEvent find(List<RecordedEvent> events, String name, String resolution) {
+    for (RecordedEvent event : events) {
+      if (event.getEventType().getName().equals(name) && event.getString("resolution").equals(resolution)) {
+        return event;
+      }
+    }
+    throw new AssertionError("No " + name + " event with resolution " + resolution + " in " + events);
+  }
+}